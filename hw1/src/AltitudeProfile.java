@@ -0,0 +1,29 @@
+package hw1;
+
+/**
+ * The altitude an Autopilot should hold at each second of a flight.
+ *
+ * @author Adam Hmaddi
+ */
+@FunctionalInterface
+public interface AltitudeProfile {
+
+	/**
+	 * Gets the target altitude at the given second. Called once per decision,
+	 * so it should be cheap and must not allocate.
+	 *
+	 * @param second the number of seconds since the start of the flight
+	 * @return the target altitude in meters
+	 */
+	double altitudeAt(long second);
+
+	/**
+	 * Creates a profile that holds the same altitude the whole time.
+	 *
+	 * @param altitude the altitude to hold
+	 * @return the profile
+	 */
+	static AltitudeProfile constant(double altitude) {
+		return second -> altitude;
+	}
+}
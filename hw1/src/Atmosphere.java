@@ -0,0 +1,51 @@
+package hw1;
+
+/**
+ * Describes how the air outside a Balloon changes with altitude. The outside
+ * air temperature set on the balloon is the temperature on the ground; the
+ * model gives the air pressure and how much colder the air is at any
+ * altitude.
+ *
+ * @author Adam Hmaddi
+ */
+public interface Atmosphere {
+
+	/**
+	 * The original model: standard pressure and the ground temperature at
+	 * every altitude.
+	 */
+	Atmosphere CONSTANT = new Atmosphere() {
+		@Override
+		public double pressure(double altitude) {
+			return Balloon.STANDARD_PRESSURE;
+		}
+
+		@Override
+		public double temperatureDrop(double altitude) {
+			return 0;
+		}
+
+		@Override
+		public String toString() {
+			return "constant atmosphere";
+		}
+	};
+
+	/**
+	 * Gets the air pressure at the given altitude. Called every update, so
+	 * it should be cheap.
+	 *
+	 * @param altitude the altitude in meters
+	 * @return the pressure in hectopascal
+	 */
+	double pressure(double altitude);
+
+	/**
+	 * Gets how much colder the air is at the given altitude than on the
+	 * ground. Called every update, so it should be cheap.
+	 *
+	 * @param altitude the altitude in meters
+	 * @return the temperature difference in degrees
+	 */
+	double temperatureDrop(double altitude);
+}
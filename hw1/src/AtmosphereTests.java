@@ -0,0 +1,68 @@
+package hw1;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Checks the standard atmosphere table and its effect on a Balloon.
+ */
+public class AtmosphereTests {
+	public static void main(String args[]) throws IOException {
+		System.out.println("Test 1:");
+		Atmosphere isa = StandardAtmosphere.ISA;
+		System.out.println("Pressure on the ground is " + isa.pressure(0) + " expected 1013.25.");
+		System.out.println("Pressure at 1000 m is " + isa.pressure(1000) + " expected about 898.7.");
+		System.out.println("Pressure at 11000 m is " + isa.pressure(11000) + " expected about 226.2.");
+		System.out.println("Temperature drop at 1000 m is " + isa.temperatureDrop(1000) + " expected 6.5.");
+		System.out.println("Temperature drop at 15000 m is " + isa.temperatureDrop(15000) + " expected 71.5.");
+
+		System.out.println("Test 2:");
+		double worst = 0;
+		double exponent = Balloon.gravity * StandardAtmosphere.MOLAR_MASS
+				/ (StandardAtmosphere.UNIVERSAL_GAS * StandardAtmosphere.LAPSE_RATE);
+		for (double h = 0; h < 11000; h += 0.37) {
+			double exact = Balloon.STANDARD_PRESSURE * Math.pow(1 - StandardAtmosphere.LAPSE_RATE * h
+					/ StandardAtmosphere.SEA_LEVEL_TEMP, exponent);
+			worst = Math.max(worst, Math.abs(isa.pressure(h) - exact));
+		}
+		System.out.println("Largest pressure error of the table is " + worst + " hPa expected below 1e-4.");
+
+		System.out.println("Test 3:");
+		Balloon constant = new Balloon(15, 0);
+		Balloon standard = new Balloon(15, 0);
+		standard.setAtmosphere(StandardAtmosphere.ISA);
+		double highest = 0;
+		for (Balloon b : new Balloon[] { constant, standard }) {
+			b.setBalloonMass(150);
+			b.setFuelRemaning(1e6);
+			b.setFuelBurnRate(8);
+			b.setTetherLength(10000);
+			for (int t = 0; t < 3600; t++) {
+				b.update();
+				if (b == standard) {
+					highest = Math.max(highest, b.getAltitude());
+				}
+			}
+		}
+		System.out.println("Altitude with the constant atmosphere is " + constant.getAltitude() + " expected 10000.0.");
+		System.out.println("Highest altitude with the standard atmosphere is " + highest
+				+ " expected below 10000: " + (highest < 10000));
+
+		System.out.println("Test 4:");
+		Balloon b = new Balloon(10, 0);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BalloonJournal journal = new BalloonJournal(b, bytes);
+		b.setBalloonMass(120);
+		b.setFuelRemaning(500);
+		b.setFuelBurnRate(3);
+		b.setTetherLength(2000);
+		b.setAtmosphere(StandardAtmosphere.ISA);
+		for (int t = 0; t < 600; t++) {
+			b.update();
+		}
+		journal.close();
+		JournalReplay replay = JournalReplay.replay(new ByteArrayInputStream(bytes.toByteArray()));
+		System.out.println("Replay with the standard atmosphere matches: " + replay.matches() + " expected true.");
+	}
+}
@@ -0,0 +1,144 @@
+package hw1;
+
+/**
+ * Chooses the burn rate of a balloon every second so that it follows an
+ * AltitudeProfile. The autopilot looks a few seconds ahead: it asks for the
+ * constant acceleration that would bring the balloon from where it is, at its
+ * current velocity, to the target altitude at the end of the horizon. Asking
+ * again every second gives a well damped controller without tuning gains.
+ *
+ * <p>
+ * The acceleration is turned into a burn rate with the balloon's own lift and
+ * weight model. The lift only depends on the balloon temperature, and
+ * update() heats the balloon before it moves it, so the burn rate that gives
+ * the wanted temperature after this second gives the wanted acceleration right
+ * away. The burn rate is kept between 0 and the largest allowed rate; when the
+ * balloon needs to sink faster than cooling allows, the burner is simply off.
+ *
+ * <p>
+ * A decision is a handful of multiplications and a few divisions and never
+ * allocates, so it can run inside a fleet's update loop. The pressure and
+ * temperature come from the balloon's Atmosphere at its current altitude.
+ * Nothing but the settings is kept between decisions, so once it is set up
+ * one autopilot can steer balloons on several threads at the same time.
+ *
+ * @author Adam Hmaddi
+ */
+public class Autopilot {
+
+	private final AltitudeProfile profile; // Altitude to follow
+	private long horizon = 8; // Seconds to look ahead
+	private double reach; // Distance moved in horizon seconds by one unit of acceleration
+	private double maxBurnRate = 20; // Largest burn rate the autopilot sets
+
+	/**
+	 * Creates an autopilot that follows the given profile.
+	 *
+	 * @param profile the target altitude at each second
+	 */
+	public Autopilot(AltitudeProfile profile) {
+		this.profile = profile;
+		reach = reach(horizon);
+	}
+
+	/**
+	 * Gets the number of seconds the autopilot looks ahead.
+	 *
+	 * @return the horizon in seconds
+	 */
+	public long getHorizon() {
+		return horizon;
+	}
+
+	/**
+	 * Sets the number of seconds the autopilot looks ahead. A short horizon
+	 * reacts quickly but asks for large accelerations; a long one is gentle
+	 * but slow. Below about 5 seconds the balloon cannot cool fast enough to
+	 * follow and the altitude can swing around the target.
+	 *
+	 * @param horizon the horizon in seconds, at least 1
+	 */
+	public void setHorizon(long horizon) {
+		if (horizon < 1) {
+			throw new IllegalArgumentException("horizon must be at least 1: " + horizon);
+		}
+		this.horizon = horizon;
+		reach = reach(horizon);
+	}
+
+	/**
+	 * Gets the largest burn rate the autopilot sets.
+	 *
+	 * @return the largest burn rate
+	 */
+	public double getMaxBurnRate() {
+		return maxBurnRate;
+	}
+
+	/**
+	 * Sets the largest burn rate the autopilot sets.
+	 *
+	 * @param maxBurnRate the largest burn rate, not negative
+	 */
+	public void setMaxBurnRate(double maxBurnRate) {
+		if (!(maxBurnRate >= 0)) {
+			throw new IllegalArgumentException("maxBurnRate must not be negative: " + maxBurnRate);
+		}
+		this.maxBurnRate = maxBurnRate;
+	}
+
+	/**
+	 * Chooses the burn rate for the next second and sets it on the balloon.
+	 * Call it right before update().
+	 *
+	 * @param b the balloon to steer
+	 * @return the burn rate that was set
+	 */
+	public double steer(Balloon b) {
+		double burn = decide(b);
+		b.setFuelBurnRate(burn);
+		return burn;
+	}
+
+	/**
+	 * Chooses the burn rate for the next second without changing the
+	 * balloon.
+	 *
+	 * @param b the balloon to steer
+	 * @return the burn rate
+	 */
+	public double decide(Balloon b) {
+		double altitude = b.getAltitude();
+		Atmosphere atmosphere = b.getAtmosphere();
+		double pressure = atmosphere.pressure(altitude);
+		double airTemp = b.getOutsideAirTemp() - atmosphere.temperatureDrop(altitude);
+		double mass = b.getBalloonMass();
+		double velocity = b.getVelocity();
+		double temp = b.getBalloonTemp();
+
+		double target = profile.altitudeAt(b.getSimulationTime() + horizon);
+		target = Math.min(Math.max(target, 0), b.getTetherLength());
+		double acceleration = (target - altitude - velocity * horizon) / reach;
+
+		double airDensity = Balloon.airDensity(pressure, airTemp);
+		double densityPerAcceleration = mass / (Balloon.balloonVolume * Balloon.gravity);
+		// Lift: volume * (airDensity - balloonDensity) * gravity = mass * (acceleration + gravity)
+		double balloonDensity = airDensity - (acceleration + Balloon.gravity) * densityPerAcceleration;
+		if (!(balloonDensity > 0)) {
+			return maxBurnRate; // No temperature is hot enough
+		}
+		double wantedTemp = pressure / (Balloon.constGas * balloonDensity)
+				- Balloon.KELVIN_AT_ZERO_CELSIUS;
+		double burn = wantedTemp - temp - (airTemp - temp) * Balloon.heatLoss;
+		return Math.min(Math.max(burn, 0), maxBurnRate);
+	}
+
+	/*
+	 * Gets how far a balloon moves in the given number of updates under an
+	 * acceleration of 1, starting at rest. Each update adds the acceleration
+	 * to the velocity before moving, so this is 1 + 2 + ... + horizon.
+	 */
+	private static double reach(long horizon) {
+		return horizon * (horizon + 1) / 2.0;
+	}
+}
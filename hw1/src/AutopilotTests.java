@@ -0,0 +1,71 @@
+package hw1;
+
+/**
+ * Checks that an Autopilot keeps a balloon close to its profile, and that
+ * one autopilot can steer balloons on several threads.
+ */
+public class AutopilotTests {
+	public static void main(String args[]) throws InterruptedException {
+		AltitudeProfile wave = t -> 120 + 40 * Math.sin(t / 60.0);
+
+		System.out.println("Test 1:");
+		double rms = rmsError(new Autopilot(AltitudeProfile.constant(150)), AltitudeProfile.constant(150),
+				Atmosphere.CONSTANT);
+		System.out.println("RMS error holding 150 m is " + rms + ", below 0.01 is " + (rms < 0.01) + " expected true.");
+
+		System.out.println("Test 2:");
+		rms = rmsError(new Autopilot(wave), wave, Atmosphere.CONSTANT);
+		System.out.println("RMS error following a wave is " + rms + ", below 0.05 is " + (rms < 0.05) + " expected true.");
+
+		System.out.println("Test 3:");
+		rms = rmsError(new Autopilot(wave), wave, StandardAtmosphere.ISA);
+		System.out.println("RMS error in the standard atmosphere is " + rms + ", below 0.05 is " + (rms < 0.05)
+				+ " expected true.");
+
+		System.out.println("Test 4:");
+		Autopilot shared = new Autopilot(wave);
+		Atmosphere[] atmospheres = { StandardAtmosphere.ISA, Atmosphere.CONSTANT };
+		double[] alone = new double[atmospheres.length];
+		for (int a = 0; a < atmospheres.length; a++) {
+			alone[a] = rmsError(new Autopilot(wave), wave, atmospheres[a]);
+		}
+		double[] results = new double[4];
+		Thread[] threads = new Thread[results.length];
+		for (int i = 0; i < threads.length; i++) {
+			int index = i;
+			threads[i] = new Thread(() -> results[index] = rmsError(shared, wave, atmospheres[index % 2]));
+			threads[i].start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		for (int i = 0; i < results.length; i++) {
+			System.out.println("Shared RMS error in thread " + i + " is " + results[i] + " expected "
+					+ alone[i % 2] + ".");
+		}
+	}
+
+	/*
+	 * Flies a balloon under the autopilot for two hours and returns the RMS
+	 * distance from the profile after the first ten minutes.
+	 */
+	private static double rmsError(Autopilot pilot, AltitudeProfile profile, Atmosphere atmosphere) {
+		Balloon b = new Balloon(15, 0);
+		b.setAtmosphere(atmosphere);
+		b.setBalloonMass(150);
+		b.setFuelRemaning(1e12);
+		b.setTetherLength(200);
+		double sumSquares = 0;
+		int count = 0;
+		for (int t = 0; t < 7200; t++) {
+			pilot.steer(b);
+			b.update();
+			if (t >= 600) {
+				double error = b.getAltitude() - profile.altitudeAt(b.getSimulationTime());
+				sumSquares += error * error;
+				count++;
+			}
+		}
+		return Math.sqrt(sumSquares / count);
+	}
+}
@@ -1,5 +1,7 @@
 package hw1;
 
+import java.util.Arrays;
+
 /*
  * The Balloon class represents a hot air balloon simulation. It shows 
  * the behavior of a hot air balloon flying in the atmosphere, taking
@@ -22,13 +24,48 @@ public class Balloon {
 		private double mass; // Mass of the balloon 
 		private double velocity; // Velocity of the balloon
 		private double tetherLength; // Length of the tether
+		private Integrator integrator = Integrator.EULER; // How the simulation moves forward in time
+		private double tolerance = 1e-6; // Error allowed per adaptive step, relative to each value
+		private double stepSize = INITIAL_STEP; // Next step size the adaptive integrator will try
+		private long physicsEvaluations; // Number of times the forces on the balloon were calculated
+		private double[] fullStep; // Result of one full adaptive step
+		private double[] halfSteps; // Result of two half adaptive steps
+		private FlightListener[] listeners = NO_LISTENERS; // Listeners told about flight events
+		private int windSector; // Wind sector at the last update, while there are listeners
+		private boolean fastPhysics; // True when cached densities and the inverse mass are used
+		private double densityAirTemp = Double.NaN; // Air temperature the cached density belongs to
+		private double airDensity; // Cached density of the outside air
+		private double inverseMassOf = Double.NaN; // Mass the cached inverse belongs to
+		private double inverseMass; // Cached 1 / mass
+		private BalloonJournal journal; // Journal recording the inputs, or null
+		private Atmosphere atmosphere = Atmosphere.CONSTANT; // Air pressure and temperature at each altitude
+		private double pressure = STANDARD_PRESSURE; // Outside air pressure at the current altitude
+		private double localAirTemp; // Outside air temperature at the current altitude
+		private double temperatureDrop; // Drop of the outside air temperature at the current altitude
+		private double sampledAltitude = Double.NaN; // Altitude the pressure and temperature drop belong to
+		private double densityPressure = Double.NaN; // Air pressure the cached density belongs to
+		private double windSpeed; // Horizontal wind speed in meters per second
+		private double east; // Distance drifted east of the starting point in meters
+		private double north; // Distance drifted north of the starting point in meters
+		private double driftEast; // Eastward drift per second, from the wind speed and direction
+		private double driftNorth; // Northward drift per second, from the wind speed and direction
 				
-		private final double heatLoss = 0.1; // Heat loss factor
-		private final double balloonVolume = 61234; // Volume of air in the balloon in cubic meters
-		private final double gravity = 9.81; // Acceleration due to gravity in meters per second square
-		private final double constGas = 287.05; // Gas constant in Joule per Kilograms Kelvin 
-		private final double STANDARD_PRESSURE = 1013.25; // Standard pressure in hectoPascal
-		private final double KELVIN_AT_ZERO_CELSIUS = 273.15; // Kelvin degrees conversion at 0 degrees Celsius
+		static final double heatLoss = 0.1; // Heat loss factor
+		static final double balloonVolume = 61234; // Volume of air in the balloon in cubic meters
+		static final double gravity = 9.81; // Acceleration due to gravity in meters per second square
+		static final double constGas = 287.05; // Gas constant in Joule per Kilograms Kelvin 
+		static final double STANDARD_PRESSURE = 1013.25; // Standard pressure in hectoPascal
+		static final double KELVIN_AT_ZERO_CELSIUS = 273.15; // Kelvin degrees conversion at 0 degrees Celsius
+		
+		private static final double INITIAL_STEP = 0.25; // First adaptive step after a change of inputs, in seconds
+		private static final double MIN_STEP = 1e-6; // Smallest adaptive step, in seconds
+		private static final double MAX_STEP = 600; // Largest adaptive step, in seconds
+		private static final FlightListener[] NO_LISTENERS = new FlightListener[0];
+		
+		/**
+		 * Size of the wind sectors reported to flight listeners, in degrees
+		 */
+		public static final double WIND_SECTOR_DEGREES = 45;
 		
 		
 		/**
@@ -52,6 +89,17 @@ public class Balloon {
 			mass = 0;
 			velocity = 0;
 			tetherLength = 0;
+			updateDrift();
+		}
+		
+		/**
+		 * Constructor creates a balloon in the state stored in the given
+		 * snapshot
+		 * @param snapshot The state to start from
+		 */
+		public Balloon (BalloonSnapshot snapshot) {
+			this(snapshot.initialAirTemp, snapshot.initialWindDirection);
+			restore(snapshot);
 		}
 		
 		/**
@@ -69,6 +117,9 @@ public class Balloon {
 		 * @param fuel The remaining fuel 
 		 */
 		public void setFuelRemaning(double fuel) {
+			if (journal != null) {
+				journal.record(BalloonJournal.FUEL, fuel);
+			}
 			remainFuel = fuel;
 		}
 		
@@ -85,6 +136,9 @@ public class Balloon {
 		 * @param balloonMass The mass of the balloon
 		 */
 		public void setBalloonMass(double balloonMass) {
+			if (journal != null) {
+				journal.record(BalloonJournal.MASS, balloonMass);
+			}
 			mass = balloonMass;
 		}
 		
@@ -102,8 +156,11 @@ public class Balloon {
 		 * @param temp The current outside air temperature
 		 */
 		public void setOutsideAirTemp(double temp) {
-			
+			if (journal != null) {
+				journal.record(BalloonJournal.AIR, temp);
+			}
 			airTemp = temp;
+			stepSize = INITIAL_STEP;
 		}
 		
 		/**
@@ -119,7 +176,11 @@ public class Balloon {
 		 * @param rate The burn rate
 		 */
 		public void setFuelBurnRate(double rate) {
+			if (journal != null) {
+				journal.record(BalloonJournal.BURN, rate);
+			}
 			burnRate = rate;
+			stepSize = INITIAL_STEP;
 		}
 		
 		/**
@@ -135,6 +196,9 @@ public class Balloon {
 		 * @param temp The current balloon temperature
 		 */
 		public void setBalloonTemp(double temp) {
+			if (journal != null) {
+				journal.record(BalloonJournal.TEMP, temp);
+			}
 			balloonTemp = temp;
 		}
 		
@@ -175,6 +239,9 @@ public class Balloon {
 		 * @param length The length of the tether
 		 */
 		public void setTetherLength(double length) {
+			if (journal != null) {
+				journal.record(BalloonJournal.TETHER, length);
+			}
 			tetherLength = length;
 		} 
 		
@@ -192,8 +259,107 @@ public class Balloon {
 		 * @param deg The angle by which to change the wind direction
 		 */
 		public void changeWindDirection(double deg) {
-			
+			if (journal != null) {
+				journal.record(BalloonJournal.WIND, deg);
+			}
 			windDirection = (windDirection + deg + 360) % 360; 
+			updateDrift();
+		}
+		
+		/**
+		 * Gets the horizontal wind speed
+		 * @return The wind speed in meters per second
+		 */
+		public double getWindSpeed() {
+			return windSpeed;
+		}
+		
+		/**
+		 * Sets the horizontal wind speed. While the balloon is off the ground
+		 * it drifts with the wind, which blows from the wind direction
+		 * measured clockwise from north like in a weather report, so a wind
+		 * direction of 270 moves the balloon east
+		 * @param speed The wind speed in meters per second
+		 */
+		public void setWindSpeed(double speed) {
+			if (journal != null) {
+				journal.record(BalloonJournal.WIND_SPEED, speed);
+			}
+			windSpeed = speed;
+			updateDrift();
+		}
+		
+		/**
+		 * Gets how far the balloon has drifted east of where it started
+		 * @return The distance in meters, negative when west
+		 */
+		public double getEast() {
+			return east;
+		}
+		
+		/**
+		 * Gets how far the balloon has drifted north of where it started
+		 * @return The distance in meters, negative when south
+		 */
+		public double getNorth() {
+			return north;
+		}
+		
+		/**
+		 * Moves the balloon to the given horizontal position, for example the
+		 * spot a member of a fleet is launched from
+		 * @param east The distance east of the origin in meters
+		 * @param north The distance north of the origin in meters
+		 */
+		public void setPosition(double east, double north) {
+			long timeBefore = simulationTime;
+			this.east = east;
+			this.north = north;
+			if (journal != null) {
+				journal.recordState(timeBefore, snapshot());
+			}
+		}
+		
+		/**
+		 * Calculates the eastward drift per second for the given wind. The
+		 * wind blows from its direction, so the balloon moves the other way
+		 * @param speed The wind speed
+		 * @param direction The wind direction in degrees
+		 * @return The eastward drift in meters per second
+		 */
+		static double driftEast(double speed, double direction) {
+			return -speed * Math.sin(Math.toRadians(direction));
+		}
+		
+		/**
+		 * Calculates the northward drift per second for the given wind
+		 * @param speed The wind speed
+		 * @param direction The wind direction in degrees
+		 * @return The northward drift in meters per second
+		 */
+		static double driftNorth(double speed, double direction) {
+			return -speed * Math.cos(Math.toRadians(direction));
+		}
+		
+		/**
+		 * Recalculates the drift per second after the wind changed, so
+		 * update() needs no trigonometry
+		 */
+		private void updateDrift() {
+			driftEast = driftEast(windSpeed, windDirection);
+			driftNorth = driftNorth(windSpeed, windDirection);
+		}
+		
+		/**
+		 * Moves the balloon with the wind for the given time if it is off the
+		 * ground
+		 * @param seconds The time in seconds
+		 */
+		private void drift(double seconds) {
+			if (altitude > 0) {
+				east = east + driftEast * seconds;
+				north = north + driftNorth * seconds;
+			}
 		}
 		
 		/**
@@ -212,27 +378,196 @@ public class Balloon {
 			return simulationTime % 60;
 		}
 		
+		/**
+		 * Gets the total number of seconds that passed in the simulation
+		 * @return The number of seconds passed since the start
+		 */
+		long getSimulationTime() {
+			return simulationTime;
+		}
+		
+		/**
+		 * Overwrites the state that has no public setter, used when
+		 * copying a balloon out of a BalloonEnsemble
+		 * @param altitude The altitude of the balloon
+		 * @param velocity The velocity of the balloon
+		 * @param windDirection The wind direction
+		 * @param simulationTime The number of seconds passed
+		 */
+		void setMotion(double altitude, double velocity, double windDirection, long simulationTime) {
+			long timeBefore = this.simulationTime;
+			this.altitude = altitude;
+			this.velocity = velocity;
+			this.windDirection = windDirection;
+			this.simulationTime = simulationTime;
+			updateDrift();
+			if (journal != null) {
+				journal.recordState(timeBefore, snapshot());
+			}
+		}
+
+		/**
+		 * Gets the part of the balloon that update() changes as an immutable
+		 * value, for use with BalloonState.step()
+		 * @return The current state
+		 */
+		public BalloonState getState() {
+			return new BalloonState(simulationTime, balloonTemp, altitude, velocity, remainFuel, fuel, east, north);
+		}
+		
+		/**
+		 * Gets the inputs of the balloon that update() only reads as an
+		 * immutable value, for use with BalloonState.step()
+		 * @return The current controls
+		 */
+		public BalloonControls getControls() {
+			return new BalloonControls(airTemp, burnRate, mass, tetherLength, windDirection, windSpeed, fastPhysics,
+					atmosphere);
+		}
+		
+		/**
+		 * Puts the balloon into the given state, for example one computed with
+		 * BalloonState.step(). The controls of the balloon are kept
+		 * @param state The state to take over
+		 */
+		public void setState(BalloonState state) {
+			long timeBefore = simulationTime;
+			simulationTime = state.simulationTime;
+			balloonTemp = state.balloonTemp;
+			altitude = state.altitude;
+			velocity = state.velocity;
+			remainFuel = state.remainFuel;
+			fuel = state.fuel;
+			east = state.east;
+			north = state.north;
+			if (journal != null) {
+				journal.recordState(timeBefore, snapshot());
+			}
+		}
+		
 		/**
 		 * Updates the state of the balloon after one time step
 		 * Calculates new balloon temperature, altitude, velocity, and fuel consumption
+		 * and then tells the flight listeners about anything that happened
 		 */
 		public void update() {
+			if (listeners.length == 0) {
+				step();
+				return;
+			}
+			double oldAltitude = altitude;
+			double oldFuel = remainFuel;
+			step();
+			fireEvents(oldAltitude, oldFuel);
+		}
+		
+		/**
+		 * Adds a listener that is told about flight events from now on.
+		 * Adding and removing listeners copies the listener array, so update()
+		 * itself never allocates
+		 * @param listener The listener to add
+		 */
+		public void addFlightListener(FlightListener listener) {
+			if (listeners.length == 0) {
+				windSector = windSector();
+			}
+			FlightListener[] grown = Arrays.copyOf(listeners, listeners.length + 1);
+			grown[listeners.length] = listener;
+			listeners = grown;
+		}
+		
+		/**
+		 * Removes a listener that was added before
+		 * @param listener The listener to remove
+		 */
+		public void removeFlightListener(FlightListener listener) {
+			for (int i = 0; i < listeners.length; i++) {
+				if (listeners[i] == listener) {
+					FlightListener[] shrunk = new FlightListener[listeners.length - 1];
+					System.arraycopy(listeners, 0, shrunk, 0, i);
+					System.arraycopy(listeners, i + 1, shrunk, i, shrunk.length - i);
+					listeners = shrunk.length == 0 ? NO_LISTENERS : shrunk;
+					return;
+				}
+			}
+		}
+		
+		/**
+		 * Compares the state before and after an update and calls the
+		 * listeners for every event that happened in between
+		 * @param oldAltitude The altitude before the update
+		 * @param oldFuel The remaining fuel before the update
+		 */
+		private void fireEvents(double oldAltitude, double oldFuel) {
+			if (altitude == tetherLength && oldAltitude < tetherLength) {
+				for (FlightListener l : listeners) {
+					l.tetherReached(this);
+				}
+			}
+			if (remainFuel <= 0 && oldFuel > 0) {
+				for (FlightListener l : listeners) {
+					l.fuelExhausted(this);
+				}
+			}
+			if (altitude == 0 && oldAltitude > 0) {
+				for (FlightListener l : listeners) {
+					l.landed(this);
+				}
+			}
+			int sector = windSector();
+			if (sector != windSector) {
+				int oldSector = windSector;
+				windSector = sector;
+				for (FlightListener l : listeners) {
+					l.windSectorChanged(this, oldSector, sector);
+				}
+			}
+		}
+		
+		/**
+		 * Sets the journal that records the inputs from now on, used by
+		 * BalloonJournal when it starts and stops recording
+		 * @param journal The journal, or null to stop recording
+		 */
+		void setJournal(BalloonJournal journal) {
+			if (journal != null && this.journal != null) {
+				throw new IllegalStateException("Balloon is already being recorded");
+			}
+			this.journal = journal;
+		}
+		
+		/**
+		 * Gets the sector the current wind direction falls in
+		 * @return The sector number
+		 */
+		private int windSector() {
+			return (int) Math.floor(windDirection / WIND_SECTOR_DEGREES);
+		}
+		
+		/**
+		 * Moves the simulation forward by one time step without telling the
+		 * flight listeners
+		 */
+		private void step() {
+			if (integrator == Integrator.ADAPTIVE_RK4) {
+				simulationTime += 1;
+				integrate(1);
+				return;
+			}
 			simulationTime += 1;
+			physicsEvaluations++;
+			sampleAtmosphere();
 			fuel = Math.min(remainFuel, burnRate);
 			
-			double differenceT = fuel + (airTemp - balloonTemp) * heatLoss; // Rate of change in the balloon's air temperature per second
+			double differenceT = fuel + (localAirTemp - balloonTemp) * heatLoss; // Rate of change in the balloon's air temperature per second
 			balloonTemp = balloonTemp + differenceT; // Temperature of the air inside the balloon after one second
-			double airDensity = STANDARD_PRESSURE / (constGas * (airTemp + KELVIN_AT_ZERO_CELSIUS)); // Density of the surrounding air in Kilograms per cubic meters
-			double balloonDensity = STANDARD_PRESSURE / (constGas * (balloonTemp + KELVIN_AT_ZERO_CELSIUS)); // Density of the balloon air in Kilograms per cubic meters
-			double forceLift = balloonVolume * (airDensity - balloonDensity) * gravity; // Force of lift in Newtons
-			double forceGravity = mass * gravity; // Force of gravity in Newtons
-			double netForce = forceLift - forceGravity; // Net force in upward direction in Newtons
-			double netAcceleration = netForce / mass; // Net acceleration in upward direction
+			double netAcceleration = netAcceleration(balloonTemp); // Net acceleration in upward direction
 			velocity = velocity + netAcceleration; // Velocity in upward direction in meters per seconds assuming 1 second of time
 			altitude = altitude + velocity; // Altitude of the balloon after one second
 			
 			altitude = Math.max(altitude, 0); // It sets the altitude to 0 if it is below 0
 			altitude = Math.min(altitude, tetherLength); // It sets the altitude to tether length if its above the tether length
+			drift(1); // Drifting with the wind while off the ground
 			remainFuel -= fuel; // Substracting the fuel consumed from the reamining fuel
 			remainFuel = Math.max(remainFuel, 0); // It makes sure that the fuel doesn't go below 0
 			
@@ -240,13 +575,459 @@ public class Balloon {
 
 		}
 		
+		/**
+		 * Moves the simulation forward by the given number of seconds. The balloon
+		 * is updated one second at a time until it settles into a state that
+		 * update() can no longer change, then the remaining time is skipped in one
+		 * jump. The balloon has settled when no fuel is being burned, the balloon
+		 * temperature no longer moves, and the altitude is held at the ground or
+		 * at the end of the tether by a force pointing into it. While settled the
+		 * velocity keeps growing by the same acceleration every second, so after a
+		 * jump it is computed as one multiplication instead of repeated additions.
+		 * Everything else ends up exactly as with stepping, but the velocity is
+		 * only approximately equal: the additions round once per second, so the
+		 * two can differ by a relative amount of about seconds times 1e-16.
+		 * With the adaptive integrator the whole interval is integrated at once
+		 * with steps as large as the tolerance allows, and flight listeners
+		 * are told about the events once at the end.
+		 * @param seconds The number of seconds to simulate
+		 */
+		public void advance(long seconds) {
+			if (journal != null) {
+				journal.record(BalloonJournal.ADVANCE, seconds);
+			}
+			if (integrator == Integrator.ADAPTIVE_RK4) {
+				if (seconds > 0) {
+					double oldAltitude = altitude;
+					double oldFuel = remainFuel;
+					simulationTime += seconds;
+					integrate(seconds);
+					if (listeners.length != 0) {
+						fireEvents(oldAltitude, oldFuel);
+					}
+				}
+				return;
+			}
+			while (seconds > 0) {
+				if (isSettled()) {
+					velocity = velocity + netAcceleration(balloonTemp) * seconds;
+					drift(seconds);
+					simulationTime += seconds;
+					fuel = 0;
+					return;
+				}
+				update();
+				seconds--;
+			}
+		}
+		
+		/**
+		 * Calculates the net upward acceleration the balloon would have at its
+		 * current altitude with the given balloon temperature
+		 * @param temp The balloon temperature
+		 * @return The net acceleration in meters per second square
+		 */
+		double accelerationAt(double temp) {
+			sampleAtmosphere();
+			return netAcceleration(temp);
+		}
+		
+		/**
+		 * Checks if the next update() would leave everything but the velocity
+		 * and the simulation time unchanged, and would keep doing so forever
+		 * @return true if the balloon has settled, false otherwise
+		 */
+		boolean isSettled() {
+			if (Math.min(remainFuel, burnRate) != 0) {
+				return false;
+			}
+			sampleAtmosphere();
+			if (balloonTemp + (localAirTemp - balloonTemp) * heatLoss != balloonTemp) {
+				return false;
+			}
+			if (tetherLength < 0) {
+				return false;
+			}
+			double netAcceleration = netAcceleration(balloonTemp);
+			double nextVelocity = velocity + netAcceleration;
+			if (altitude == 0 && netAcceleration <= 0 && nextVelocity <= 0) {
+				return true; // Held on the ground
+			}
+			if (altitude == tetherLength && netAcceleration >= 0 && nextVelocity >= 0) {
+				return true; // Held at the end of the tether
+			}
+			return netAcceleration == 0 && velocity == 0; // Floating in balance
+		}
+		
+		/**
+		 * Takes an immutable copy of the complete state of the balloon,
+		 * including the simulation time, velocity and integrator settings
+		 * @return The snapshot
+		 */
+		public BalloonSnapshot snapshot() {
+			return new BalloonSnapshot(initialAirTemp, initialWindDirection, airTemp, windDirection, balloonTemp,
+					simulationTime, altitude, fuel, remainFuel, burnRate, mass, velocity, tetherLength, integrator,
+					tolerance, stepSize, fastPhysics, atmosphere, windSpeed, east, north);
+		}
+		
+		/**
+		 * Puts the balloon back into the state stored in the given snapshot.
+		 * The snapshot may come from any balloon.
+		 * @param snapshot The state to restore
+		 */
+		public void restore(BalloonSnapshot snapshot) {
+			long timeBefore = simulationTime;
+			initialAirTemp = snapshot.initialAirTemp;
+			initialWindDirection = snapshot.initialWindDirection;
+			airTemp = snapshot.airTemp;
+			windDirection = snapshot.windDirection;
+			balloonTemp = snapshot.balloonTemp;
+			simulationTime = snapshot.simulationTime;
+			altitude = snapshot.altitude;
+			fuel = snapshot.fuel;
+			remainFuel = snapshot.remainFuel;
+			burnRate = snapshot.burnRate;
+			mass = snapshot.mass;
+			velocity = snapshot.velocity;
+			tetherLength = snapshot.tetherLength;
+			integrator = snapshot.integrator;
+			tolerance = snapshot.tolerance;
+			stepSize = snapshot.stepSize;
+			fastPhysics = snapshot.fastPhysics;
+			atmosphere = snapshot.atmosphere;
+			windSpeed = snapshot.windSpeed;
+			east = snapshot.east;
+			north = snapshot.north;
+			updateDrift();
+			sampledAltitude = Double.NaN;
+			windSector = windSector();
+			if (journal != null) {
+				journal.recordState(timeBefore, snapshot);
+			}
+		}
+		
+		/**
+		 * Gets the way the simulation moves forward in time
+		 * @return The integrator in use
+		 */
+		public Integrator getIntegrator() {
+			return integrator;
+		}
+		
+		/**
+		 * Sets the way the simulation moves forward in time. With
+		 * ADAPTIVE_RK4 the temperature, velocity, altitude and fuel are treated
+		 * as continuous and integrated with steps whose size adapts
+		 * to the tolerance: large steps when little is changing and small steps
+		 * after a change of burn rate or air temperature, when the fuel runs out
+		 * and when the balloon reaches the ground or the tether. update() still
+		 * moves forward one second; advance() lets the steps span many seconds.
+		 * The results differ from EULER, which is the original one second model.
+		 * @param integrator The integrator to use
+		 */
+		public void setIntegrator(Integrator integrator) {
+			if (journal != null) {
+				journal.record(BalloonJournal.INTEGRATOR, integrator.ordinal());
+			}
+			this.integrator = integrator;
+			stepSize = INITIAL_STEP;
+		}
+		
+		/**
+		 * Checks if the fast physics mode is on
+		 * @return true if the fast mode is on
+		 */
+		public boolean isFastPhysics() {
+			return fastPhysics;
+		}
+		
+		/**
+		 * Turns the fast physics mode on or off. In fast mode the outside air
+		 * density is only recalculated when the outside air temperature or
+		 * pressure changes and the division by the mass is replaced by a cached
+		 * inverse, which leaves one division per update instead of three.
+		 * The net acceleration is rearranged to lift / mass - gravity, so the
+		 * results only differ from the exact calculation by rounding. After one
+		 * update the velocity differs by a relative amount below 1e-12, the
+		 * bound FastPhysicsTests checks; about 6e-13 is the largest seen.
+		 * 
+		 * @param fast true to use the fast mode
+		 */
+		public void setFastPhysics(boolean fast) {
+			if (journal != null) {
+				journal.record(BalloonJournal.FAST, fast ? 1 : 0);
+			}
+			fastPhysics = fast;
+		}
+		
+		/**
+		 * Gets the model of the air outside the balloon
+		 * @return The atmosphere
+		 */
+		public Atmosphere getAtmosphere() {
+			return atmosphere;
+		}
+		
+		/**
+		 * Sets the model of the air outside the balloon. The outside air
+		 * temperature becomes the temperature on the ground, and every update
+		 * uses the pressure and temperature of the model at the altitude the
+		 * balloon starts the update at, or each adaptive step starts at with
+		 * ADAPTIVE_RK4. Atmosphere.CONSTANT, the default, is
+		 * the original model with the same pressure and temperature at every
+		 * altitude. BalloonEnsemble only supports the constant atmosphere
+		 * @param atmosphere The atmosphere to use
+		 */
+		public void setAtmosphere(Atmosphere atmosphere) {
+			if (atmosphere == null) {
+				throw new IllegalArgumentException("Atmosphere must not be null");
+			}
+			if (journal != null) {
+				journal.record(BalloonJournal.ATMOSPHERE, BalloonJournal.atmosphereCode(atmosphere));
+			}
+			this.atmosphere = atmosphere;
+			sampledAltitude = Double.NaN;
+			stepSize = INITIAL_STEP;
+		}
+		
+		/**
+		 * Looks up the outside air pressure and temperature at the current
+		 * altitude. The lookup is skipped while the altitude stays the same,
+		 * which it does on the ground and at the end of the tether
+		 */
+		private void sampleAtmosphere() {
+			if (altitude != sampledAltitude) {
+				pressure = atmosphere.pressure(altitude);
+				temperatureDrop = atmosphere.temperatureDrop(altitude);
+				sampledAltitude = altitude;
+			}
+			localAirTemp = airTemp - temperatureDrop;
+		}
+		
+		/**
+		 * Gets the error allowed per adaptive step
+		 * @return The tolerance
+		 */
+		public double getTolerance() {
+			return tolerance;
+		}
+		
+		/**
+		 * Sets the error allowed per adaptive step. Each value may be off by
+		 * about tolerance times (1 + its size) per step.
+		 * @param tolerance The tolerance, greater than 0
+		 */
+		public void setTolerance(double tolerance) {
+			if (!(tolerance > 0)) {
+				throw new IllegalArgumentException("Tolerance must be positive: " + tolerance);
+			}
+			if (journal != null) {
+				journal.record(BalloonJournal.TOLERANCE, tolerance);
+			}
+			this.tolerance = tolerance;
+		}
+		
+		/**
+		 * Gets the number of times the forces on the balloon have been
+		 * calculated since it was created
+		 * @return The number of physics evaluations
+		 */
+		public long getPhysicsEvaluations() {
+			return physicsEvaluations;
+		}
+		
+		/**
+		 * Integrates the continuous model over the given number of seconds with
+		 * adaptive Runge-Kutta steps. Each step is taken once in full and once
+		 * as two halves; the difference estimates the error, decides if the step
+		 * is kept and sets the size of the next one. Steps never cross the moment
+		 * the fuel runs out, and they always end exactly on the last second.
+		 * @param seconds The length of time to integrate over
+		 */
+		private void integrate(double seconds) {
+			if (fullStep == null) {
+				fullStep = new double[4];
+				halfSteps = new double[4];
+			}
+			double startFuel = remainFuel;
+			double t = 0;
+			while (t < seconds) {
+				sampleAtmosphere();
+				double h = Math.min(stepSize, seconds - t);
+				boolean burning = burnRate <= 0 || remainFuel > 0;
+				double burn = burning ? burnRate : 0;
+				boolean fuelRunsOut = false;
+				if (burnRate > 0 && remainFuel > 0 && remainFuel / burnRate <= h) {
+					h = remainFuel / burnRate;
+					fuelRunsOut = true;
+				}
+				
+				rungeKutta(balloonTemp, velocity, altitude, remainFuel, burn, h, fullStep);
+				rungeKutta(balloonTemp, velocity, altitude, remainFuel, burn, h / 2, halfSteps);
+				rungeKutta(halfSteps[0], halfSteps[1], halfSteps[2], halfSteps[3], burn, h / 2, halfSteps);
+				double error = 0;
+				for (int i = 0; i < 4; i++) {
+					double scale = 15 * tolerance * (1 + Math.abs(halfSteps[i]));
+					error = Math.max(error, Math.abs(halfSteps[i] - fullStep[i]) / scale);
+				}
+				if (error > 1 && h > MIN_STEP) {
+					stepSize = Math.max(MIN_STEP, h * Math.max(0.1, 0.9 * Math.pow(error, -0.2))); // Try again with a smaller step
+					continue;
+				}
+				
+				balloonTemp = halfSteps[0] + (halfSteps[0] - fullStep[0]) / 15;
+				velocity = halfSteps[1] + (halfSteps[1] - fullStep[1]) / 15;
+				altitude = halfSteps[2] + (halfSteps[2] - fullStep[2]) / 15;
+				altitude = Math.min(Math.max(altitude, 0), tetherLength);
+				drift(h);
+				remainFuel = fuelRunsOut ? 0 : Math.max(halfSteps[3] + (halfSteps[3] - fullStep[3]) / 15, 0);
+				
+				t = h >= seconds - t ? seconds : t + h;
+				double growth = error == 0 ? 4 : Math.min(4, 0.9 * Math.pow(error, -0.2));
+				if (fuelRunsOut) {
+					stepSize = INITIAL_STEP; // Lift starts dropping once the burner stops
+				} else if (h == stepSize || growth < 1) {
+					stepSize = Math.min(MAX_STEP, Math.max(MIN_STEP, h * growth));
+				}
+			}
+			fuel = startFuel - remainFuel;
+		}
+		
+		/**
+		 * Takes one fourth order Runge-Kutta step of the continuous model. The
+		 * temperature equation is linear, so it is solved exactly and the
+		 * Runge-Kutta stages only integrate the velocity and altitude; this keeps
+		 * the fast heat loss from limiting the step size
+		 * @param temp The balloon temperature at the start of the step
+		 * @param v The velocity at the start of the step
+		 * @param alt The altitude at the start of the step
+		 * @param fuelLeft The remaining fuel at the start of the step
+		 * @param burn The burn rate during the step
+		 * @param h The step size in seconds
+		 * @param out Receives the temperature, velocity, altitude and fuel at the end of the step
+		 */
+		private void rungeKutta(double temp, double v, double alt, double fuelLeft, double burn, double h, double[] out) {
+			double settledTemp = localAirTemp + burn / heatLoss; // Temperature the balloon would settle at
+			double tempHalf = settledTemp + (temp - settledTemp) * Math.exp(-heatLoss * h / 2);
+			double tempEnd = settledTemp + (temp - settledTemp) * Math.exp(-heatLoss * h);
+			
+			double k1v = netAcceleration(temp);
+			double k1h = climbRate(alt, v);
+			double k2v = netAcceleration(tempHalf);
+			double k2h = climbRate(alt + h / 2 * k1h, v + h / 2 * k1v);
+			double k3v = k2v;
+			double k3h = climbRate(alt + h / 2 * k2h, v + h / 2 * k2v);
+			double k4v = netAcceleration(tempEnd);
+			double k4h = climbRate(alt + h * k3h, v + h * k3v);
+			
+			physicsEvaluations += 3;
+			out[0] = tempEnd;
+			out[1] = v + h / 6 * (k1v + 2 * k2v + 2 * k3v + k4v);
+			out[2] = alt + h / 6 * (k1h + 2 * k2h + 2 * k3h + k4h);
+			out[3] = fuelLeft - h * burn;
+		}
+		
+		/**
+		 * Calculates how fast the altitude changes, which is zero while the
+		 * ground or the tether holds the balloon in place
+		 * @param alt The altitude
+		 * @param v The velocity
+		 * @return The change in altitude per second
+		 */
+		private double climbRate(double alt, double v) {
+			if ((alt <= 0 && v < 0) || (alt >= tetherLength && v > 0)) {
+				return 0;
+			}
+			return v;
+		}
+		
+		/**
+		 * Calculates the net upward acceleration of the balloon for the given
+		 * balloon temperature and the current outside air temperature and mass
+		 * @param temp The balloon temperature
+		 * @return The net acceleration in meters per second square
+		 */
+		private double netAcceleration(double temp) {
+			if (fastPhysics) {
+				return fastNetAcceleration(temp);
+			}
+			return netAcceleration(pressure, localAirTemp, temp, mass);
+		}
+		
+		/**
+		 * Calculates the net upward acceleration with a single division. The
+		 * outside air density and 1 / mass are kept until the outside air
+		 * temperature or the mass changes, so only the balloon air density is
+		 * calculated every time
+		 * @param temp The balloon temperature
+		 * @return The net acceleration in meters per second square
+		 */
+		private double fastNetAcceleration(double temp) {
+			if (localAirTemp != densityAirTemp || pressure != densityPressure) {
+				airDensity = airDensity(pressure, localAirTemp);
+				densityAirTemp = localAirTemp;
+				densityPressure = pressure;
+			}
+			if (mass != inverseMassOf) {
+				inverseMass = 1 / mass;
+				inverseMassOf = mass;
+			}
+			return fastNetAcceleration(pressure, airDensity, temp, inverseMass);
+		}
+		
+		/**
+		 * Calculates the net upward acceleration of a balloon from plain values.
+		 * Balloon and BalloonState both use it, so they give the same results
+		 * @param pressure The outside air pressure
+		 * @param localAirTemp The outside air temperature at the balloon
+		 * @param temp The balloon temperature
+		 * @param mass The balloon mass
+		 * @return The net acceleration in meters per second square
+		 */
+		static double netAcceleration(double pressure, double localAirTemp, double temp, double mass) {
+			double airDensity = airDensity(pressure, localAirTemp); // Density of the surrounding air in Kilograms per cubic meters
+			double balloonDensity = pressure / (constGas * (temp + KELVIN_AT_ZERO_CELSIUS)); // Density of the balloon air in Kilograms per cubic meters
+			double forceLift = balloonVolume * (airDensity - balloonDensity) * gravity; // Force of lift in Newtons
+			double forceGravity = mass * gravity; // Force of gravity in Newtons
+			double netForce = forceLift - forceGravity; // Net force in upward direction in Newtons
+			return netForce / mass;
+		}
+		
+		/**
+		 * Calculates the net upward acceleration of a balloon from plain values
+		 * the fast way, with the outside air density and 1 / mass worked out
+		 * beforehand
+		 * @param pressure The outside air pressure
+		 * @param airDensity The outside air density, from airDensity()
+		 * @param temp The balloon temperature
+		 * @param inverseMass 1 / the balloon mass
+		 * @return The net acceleration in meters per second square
+		 */
+		static double fastNetAcceleration(double pressure, double airDensity, double temp, double inverseMass) {
+			double balloonDensity = pressure / (constGas * (temp + KELVIN_AT_ZERO_CELSIUS));
+			double forceLift = balloonVolume * (airDensity - balloonDensity) * gravity;
+			return forceLift * inverseMass - gravity;
+		}
+		
+		/**
+		 * Calculates the density of the outside air
+		 * @param pressure The outside air pressure
+		 * @param localAirTemp The outside air temperature
+		 * @return The density in Kilograms per cubic meters
+		 */
+		static double airDensity(double pressure, double localAirTemp) {
+			return pressure / (constGas * (localAirTemp + KELVIN_AT_ZERO_CELSIUS));
+		}
+		
 		/**
 		 * Resets the balloon simulation to its initial state
 		 * Sets all parameters to their initial value
 		 * @author
 		 */
 		public void reset() {
-			
+			if (journal != null) {
+				journal.recordReset();
+			}
 			airTemp = initialAirTemp;
 			windDirection = initialWindDirection;
 			balloonTemp = airTemp;
@@ -258,6 +1039,11 @@ public class Balloon {
 			mass = 0;
 			velocity = 0;
 			tetherLength = 0;
+			windSpeed = 0;
+			east = 0;
+			north = 0;
+			updateDrift();
+			stepSize = INITIAL_STEP;
 		}
 
 }
@@ -0,0 +1,244 @@
+package hw1;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Micro benchmarks for the balloon physics step. Each case is warmed up, then
+ * timed over several measurement rounds. The report shows the time per
+ * operation in the fastest round, which is least disturbed by the JIT and the
+ * garbage collector, the time per operation averaged over all rounds, and the
+ * number of bytes allocated per operation on the measuring thread. Run it
+ * with <code>java hw1.BalloonBenchmark</code>; an optional argument sets the
+ * number of operations per round.
+ *
+ * @author Adam Hmaddi
+ */
+public class BalloonBenchmark {
+
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int MEASURE_ROUNDS = 10;
+	private static final int ENSEMBLE_SIZE = 10_000;
+	private static final int PROXIMITY_FLEET_SIZE = 100_000;
+
+	private static volatile double sink; // Keeps results alive so the JIT cannot drop the work
+
+	/*
+	 * One benchmark case. run() performs the given number of operations.
+	 */
+	private interface Case {
+		void run(long ops);
+	}
+
+	public static void main(String[] args) {
+		long ops = args.length > 0 ? Long.parseLong(args[0]) : 2_000_000;
+		System.out.printf("%-32s %12s %12s %14s%n", "Benchmark", "min ns/op", "mean ns/op", "bytes/op");
+
+		Balloon single = flyingBalloon();
+		report("update", ops, n -> {
+			for (long i = 0; i < n; i++) {
+				single.update();
+			}
+			sink = single.getAltitude();
+		});
+
+		Balloon fast = flyingBalloon();
+		fast.setFastPhysics(true);
+		report("update (fast physics)", ops, n -> {
+			for (long i = 0; i < n; i++) {
+				fast.update();
+			}
+			sink = fast.getAltitude();
+		});
+
+		Balloon high = flyingBalloon();
+		high.setAtmosphere(StandardAtmosphere.ISA);
+		report("update (standard atmosphere)", ops, n -> {
+			for (long i = 0; i < n; i++) {
+				high.update();
+			}
+			sink = high.getAltitude();
+		});
+
+		Balloon driven = flyingBalloon();
+		report("update with inputs", ops, n -> {
+			for (long i = 0; i < n; i++) {
+				driven.setOutsideAirTemp(15 + (i & 7));
+				driven.changeWindDirection(0.5);
+				driven.setFuelBurnRate((i & 63) < 32 ? 8 : 0);
+				driven.update();
+			}
+			sink = driven.getAltitude();
+		});
+
+		Balloon polled = flyingBalloon();
+		report("update and poll getters", ops, n -> {
+			double sum = 0;
+			for (long i = 0; i < n; i++) {
+				polled.update();
+				sum += polled.getAltitude() + polled.getVelocity() + polled.getBalloonTemp()
+						+ polled.getFuelRemaining() + polled.getTetherRemaining() + polled.getWindDirection();
+			}
+			sink = sum;
+		});
+
+		Balloon rerun = new Balloon(15, 0);
+		report("reset and 60s flight", ops / 60, n -> {
+			for (long i = 0; i < n; i++) {
+				rerun.reset();
+				setUp(rerun);
+				for (int t = 0; t < 60; t++) {
+					rerun.update();
+				}
+			}
+			sink = rerun.getAltitude();
+		});
+
+		BalloonEnsemble ensemble = new BalloonEnsemble(ENSEMBLE_SIZE);
+		Balloon[] fleet = new Balloon[ENSEMBLE_SIZE];
+		for (int i = 0; i < ENSEMBLE_SIZE; i++) {
+			fleet[i] = flyingBalloon();
+			fleet[i].setBalloonMass(100 + i % 80);
+			ensemble.add(fleet[i]);
+		}
+		report("ensemble tick (per balloon)", ops / ENSEMBLE_SIZE, ENSEMBLE_SIZE, n -> {
+			for (long i = 0; i < n; i++) {
+				ensemble.update();
+			}
+			sink = ensemble.getAltitude(0);
+		});
+		report("object fleet tick (per balloon)", ops / ENSEMBLE_SIZE, ENSEMBLE_SIZE, n -> {
+			for (long i = 0; i < n; i++) {
+				for (Balloon b : fleet) {
+					b.update();
+				}
+			}
+			sink = fleet[0].getAltitude();
+		});
+
+		// A 20 by 20 km launch field with balloons 63 m apart drifting in different winds
+		BalloonEnsemble wide = new BalloonEnsemble(PROXIMITY_FLEET_SIZE);
+		for (int i = 0; i < PROXIMITY_FLEET_SIZE; i++) {
+			Balloon b = flyingBalloon();
+			b.setPosition(i % 316 * 63.0, i / 316 * 63.0);
+			b.setWindSpeed(2 + i % 7);
+			b.changeWindDirection(i % 360);
+			wide.add(b);
+		}
+		ProximityGrid grid = new ProximityGrid(50);
+		report("proximity tick (per balloon)", ops / PROXIMITY_FLEET_SIZE, PROXIMITY_FLEET_SIZE, n -> {
+			for (long i = 0; i < n; i++) {
+				wide.update();
+				sink = grid.findClosePairs(wide, (first, second, distance) -> {
+				});
+			}
+		});
+
+		AltitudeProfile wave = t -> 120 + 40 * Math.sin(t / 60.0);
+		Autopilot pilot = new Autopilot(wave);
+		Balloon steered = flyingBalloon();
+		report("autopilot decision", ops, n -> {
+			double sum = 0;
+			for (long i = 0; i < n; i++) {
+				sum += pilot.decide(steered);
+			}
+			sink = sum;
+		});
+		report("autopilot steer and update", ops, n -> {
+			for (long i = 0; i < n; i++) {
+				pilot.steer(steered);
+				steered.update();
+			}
+			sink = steered.getAltitude();
+		});
+		reportTracking("autopilot tracking, constant", AltitudeProfile.constant(150));
+		reportTracking("autopilot tracking, wave", wave);
+	}
+
+	/*
+	 * Times a case where each operation is one unit of work.
+	 */
+	private static void report(String name, long ops, Case c) {
+		report(name, ops, 1, c);
+	}
+
+	/*
+	 * Times a case where each operation is made of the given number of units
+	 * and prints the cost per unit.
+	 */
+	private static void report(String name, long ops, int unitsPerOp, Case c) {
+		ops = Math.max(ops, 1);
+		for (int r = 0; r < WARMUP_ROUNDS; r++) {
+			c.run(ops);
+		}
+		long best = Long.MAX_VALUE;
+		long total = 0;
+		long bytes = 0;
+		for (int r = 0; r < MEASURE_ROUNDS; r++) {
+			long allocatedBefore = allocatedBytes();
+			long start = System.nanoTime();
+			c.run(ops);
+			long elapsed = System.nanoTime() - start;
+			bytes += allocatedBytes() - allocatedBefore;
+			best = Math.min(best, elapsed);
+			total += elapsed;
+		}
+		double units = (double) ops * unitsPerOp;
+		System.out.printf("%-32s %12.2f %12.2f %14.3f%n", name, best / units, total / (units * MEASURE_ROUNDS),
+				bytes / (units * MEASURE_ROUNDS));
+	}
+
+	/*
+	 * Flies a balloon under the autopilot for two hours and prints how far it
+	 * was from the profile after the first ten minutes.
+	 */
+	private static void reportTracking(String name, AltitudeProfile profile) {
+		Balloon b = flyingBalloon();
+		Autopilot pilot = new Autopilot(profile);
+		double sumSquares = 0;
+		double worst = 0;
+		int count = 0;
+		for (int t = 0; t < 7200; t++) {
+			pilot.steer(b);
+			b.update();
+			if (t >= 600) {
+				double error = b.getAltitude() - profile.altitudeAt(b.getSimulationTime());
+				sumSquares += error * error;
+				worst = Math.max(worst, Math.abs(error));
+				count++;
+			}
+		}
+		System.out.printf("%-32s rms %.4f m, max %.4f m%n", name, Math.sqrt(sumSquares / count), worst);
+	}
+
+	/*
+	 * Gets the number of bytes allocated so far by the current thread, or 0
+	 * if the JVM cannot tell.
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	/*
+	 * Creates a balloon that lifts off and reaches its tether.
+	 */
+	private static Balloon flyingBalloon() {
+		Balloon b = new Balloon(15, 0);
+		setUp(b);
+		return b;
+	}
+
+	/*
+	 * Gives the balloon plenty of fuel, a burn rate and a tether.
+	 */
+	private static void setUp(Balloon b) {
+		b.setBalloonMass(150);
+		b.setFuelRemaning(1e12);
+		b.setFuelBurnRate(10);
+		b.setTetherLength(200);
+	}
+}
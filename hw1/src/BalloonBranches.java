@@ -0,0 +1,63 @@
+package hw1;
+
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Helpers for what-if simulations. A flight is forked into several copies
+ * from one snapshot, each copy can be given different inputs, and the copies
+ * are then advanced in parallel. For example branch 0 can burn now while
+ * branch 1 waits 30 seconds, without replaying the flight from the start.
+ *
+ * @author Adam Hmaddi
+ */
+public class BalloonBranches {
+
+	private BalloonBranches() {
+	}
+
+	/**
+	 * Creates the given number of balloons, each in the state of the snapshot.
+	 *
+	 * @param from  the state every branch starts in
+	 * @param count the number of branches
+	 * @return the new balloons
+	 */
+	public static Balloon[] fork(BalloonSnapshot from, int count) {
+		Balloon[] branches = new Balloon[count];
+		for (int i = 0; i < count; i++) {
+			branches[i] = new Balloon(from);
+		}
+		return branches;
+	}
+
+	/**
+	 * Advances every branch by the given number of seconds, in parallel.
+	 *
+	 * @param branches the balloons to advance
+	 * @param seconds  the number of seconds to simulate
+	 */
+	public static void advanceAll(Balloon[] branches, long seconds) {
+		IntStream.range(0, branches.length).parallel().forEach(i -> branches[i].advance(seconds));
+	}
+
+	/**
+	 * Forks the given number of branches, lets the setup change the inputs of
+	 * each one, and advances them all in parallel.
+	 *
+	 * @param from    the state every branch starts in
+	 * @param count   the number of branches
+	 * @param setup   called with each balloon and its branch number before it
+	 *                is advanced
+	 * @param seconds the number of seconds to simulate
+	 * @return the branches after advancing
+	 */
+	public static Balloon[] branch(BalloonSnapshot from, int count, ObjIntConsumer<Balloon> setup, long seconds) {
+		Balloon[] branches = fork(from, count);
+		IntStream.range(0, count).parallel().forEach(i -> {
+			setup.accept(branches[i], i);
+			branches[i].advance(seconds);
+		});
+		return branches;
+	}
+}
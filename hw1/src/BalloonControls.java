@@ -0,0 +1,174 @@
+package hw1;
+
+/**
+ * The inputs of a balloon that update() reads but never changes: the outside
+ * air, the burner, the load, the tether and the wind. Together with a
+ * BalloonState they are everything BalloonState.step() needs. Controls are
+ * immutable, so one object can be shared by any number of flights and
+ * threads.
+ *
+ * @author Adam Hmaddi
+ */
+public final class BalloonControls {
+
+	final double airTemp; // Outside air temperature on the ground
+	final double burnRate; // Fuel burned per second while there is fuel
+	final double mass; // Balloon mass
+	final double tetherLength; // Tether length
+	final double windDirection; // Direction the wind blows from
+	final double windSpeed; // Wind speed
+	final boolean fastPhysics; // Fast physics mode
+	final Atmosphere atmosphere; // Model of the outside air
+	final double driftEast; // Eastward drift per second
+	final double driftNorth; // Northward drift per second
+	private final int hash; // Hash code of the values above
+
+	/**
+	 * Creates controls for the original model: constant atmosphere and exact
+	 * physics.
+	 *
+	 * @param airTemp       the outside air temperature
+	 * @param burnRate      the fuel burn rate
+	 * @param mass          the balloon mass
+	 * @param tetherLength  the tether length
+	 * @param windDirection the direction the wind blows from, in degrees
+	 * @param windSpeed     the wind speed in meters per second
+	 */
+	public BalloonControls(double airTemp, double burnRate, double mass, double tetherLength, double windDirection,
+			double windSpeed) {
+		this(airTemp, burnRate, mass, tetherLength, windDirection, windSpeed, false, Atmosphere.CONSTANT);
+	}
+
+	/**
+	 * Creates controls.
+	 *
+	 * @param airTemp       the outside air temperature on the ground
+	 * @param burnRate      the fuel burn rate
+	 * @param mass          the balloon mass
+	 * @param tetherLength  the tether length
+	 * @param windDirection the direction the wind blows from, in degrees
+	 * @param windSpeed     the wind speed in meters per second
+	 * @param fastPhysics   true for the fast physics mode of Balloon
+	 * @param atmosphere    the model of the outside air
+	 */
+	public BalloonControls(double airTemp, double burnRate, double mass, double tetherLength, double windDirection,
+			double windSpeed, boolean fastPhysics, Atmosphere atmosphere) {
+		if (atmosphere == null) {
+			throw new IllegalArgumentException("Atmosphere must not be null");
+		}
+		this.airTemp = airTemp;
+		this.burnRate = burnRate;
+		this.mass = mass;
+		this.tetherLength = tetherLength;
+		this.windDirection = windDirection;
+		this.windSpeed = windSpeed;
+		this.fastPhysics = fastPhysics;
+		this.atmosphere = atmosphere;
+		driftEast = Balloon.driftEast(windSpeed, windDirection);
+		driftNorth = Balloon.driftNorth(windSpeed, windDirection);
+		long h = Double.doubleToLongBits(airTemp);
+		h = 31 * h + Double.doubleToLongBits(burnRate);
+		h = 31 * h + Double.doubleToLongBits(mass);
+		h = 31 * h + Double.doubleToLongBits(tetherLength);
+		h = 31 * h + Double.doubleToLongBits(windDirection);
+		h = 31 * h + Double.doubleToLongBits(windSpeed);
+		h = 31 * h + (fastPhysics ? 1 : 0);
+		h = 31 * h + atmosphere.hashCode();
+		hash = Long.hashCode(h);
+	}
+
+	/**
+	 * Gets the outside air temperature on the ground.
+	 *
+	 * @return the air temperature
+	 */
+	public double getAirTemp() {
+		return airTemp;
+	}
+
+	/**
+	 * Gets the fuel burn rate.
+	 *
+	 * @return the burn rate
+	 */
+	public double getBurnRate() {
+		return burnRate;
+	}
+
+	/**
+	 * Gets the balloon mass.
+	 *
+	 * @return the mass
+	 */
+	public double getMass() {
+		return mass;
+	}
+
+	/**
+	 * Gets the tether length.
+	 *
+	 * @return the tether length
+	 */
+	public double getTetherLength() {
+		return tetherLength;
+	}
+
+	/**
+	 * Gets the direction the wind blows from.
+	 *
+	 * @return the wind direction in degrees
+	 */
+	public double getWindDirection() {
+		return windDirection;
+	}
+
+	/**
+	 * Gets the wind speed.
+	 *
+	 * @return the wind speed in meters per second
+	 */
+	public double getWindSpeed() {
+		return windSpeed;
+	}
+
+	/**
+	 * Creates the same controls with another burn rate.
+	 *
+	 * @param burnRate the new burn rate
+	 * @return the new controls
+	 */
+	public BalloonControls withBurnRate(double burnRate) {
+		return new BalloonControls(airTemp, burnRate, mass, tetherLength, windDirection, windSpeed, fastPhysics,
+				atmosphere);
+	}
+
+	/**
+	 * Checks if the other object holds exactly the same controls. Two doubles
+	 * are the same when their bits are the same.
+	 *
+	 * @param obj the object to compare with
+	 * @return true if every value matches, false otherwise
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BalloonControls)) {
+			return false;
+		}
+		BalloonControls o = (BalloonControls) obj;
+		return hash == o.hash && same(airTemp, o.airTemp) && same(burnRate, o.burnRate) && same(mass, o.mass)
+				&& same(tetherLength, o.tetherLength) && same(windDirection, o.windDirection)
+				&& same(windSpeed, o.windSpeed) && fastPhysics == o.fastPhysics && atmosphere == o.atmosphere;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	private static boolean same(double a, double b) {
+		return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+	}
+}
@@ -0,0 +1,373 @@
+package hw1;
+
+import java.util.Arrays;
+
+/**
+ * A fleet of hot air balloons stored column by column. Each piece of state
+ * is kept in its own array of doubles so that one call to update() can move
+ * every member forward one second in a single loop, using the same physics
+ * as Balloon.update(). Members can be copied in from and out to ordinary
+ * Balloon objects and give the exact same results. Only balloons with the
+ * constant atmosphere, the exact physics and the EULER integrator can be
+ * copied in.
+ *
+ * @author Adam Hmaddi
+ */
+public class BalloonEnsemble {
+
+	private double[] balloonTemp; // Temperature inside each balloon
+	private double[] altitude; // Altitude of each balloon
+	private double[] velocity; // Velocity of each balloon
+	private double[] remainFuel; // Remaining fuel of each balloon
+	private double[] burnRate; // Rate at which each balloon burns fuel
+	private double[] mass; // Mass of each balloon
+	private double[] tetherLength; // Tether length of each balloon
+	private double[] airTemp; // Air temperature outside each balloon
+	private double[] windDirection; // Wind direction of each balloon
+	private long[] simulationTime; // Seconds passed for each balloon
+	private double[] windSpeed; // Wind speed of each balloon
+	private double[] east; // Distance each balloon is east of the origin
+	private double[] north; // Distance each balloon is north of the origin
+	private double[] driftEast; // Eastward drift per second of each balloon
+	private double[] driftNorth; // Northward drift per second of each balloon
+	private int size; // Number of balloons in the ensemble
+
+	/**
+	 * Constructs an empty ensemble that can hold the given number of balloons
+	 * without growing.
+	 *
+	 * @param capacity the initial number of balloons to make room for
+	 */
+	public BalloonEnsemble(int capacity) {
+		capacity = Math.max(capacity, 1);
+		balloonTemp = new double[capacity];
+		altitude = new double[capacity];
+		velocity = new double[capacity];
+		remainFuel = new double[capacity];
+		burnRate = new double[capacity];
+		mass = new double[capacity];
+		tetherLength = new double[capacity];
+		airTemp = new double[capacity];
+		windDirection = new double[capacity];
+		simulationTime = new long[capacity];
+		windSpeed = new double[capacity];
+		east = new double[capacity];
+		north = new double[capacity];
+		driftEast = new double[capacity];
+		driftNorth = new double[capacity];
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of balloons in the ensemble.
+	 *
+	 * @return the number of balloons
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds a copy of the given balloon's state to the end of the ensemble.
+	 *
+	 * @param b the balloon to copy
+	 * @return the index of the new member
+	 */
+	public int add(Balloon b) {
+		checkModel(b);
+		if (size == altitude.length) {
+			grow(size * 2);
+		}
+		size++;
+		importFrom(size - 1, b);
+		return size - 1;
+	}
+
+	/**
+	 * Overwrites the member at the given index with the state of the given
+	 * balloon.
+	 *
+	 * @param index the member to overwrite
+	 * @param b     the balloon to copy
+	 */
+	public void importFrom(int index, Balloon b) {
+		checkIndex(index);
+		checkModel(b);
+		balloonTemp[index] = b.getBalloonTemp();
+		altitude[index] = b.getAltitude();
+		velocity[index] = b.getVelocity();
+		remainFuel[index] = b.getFuelRemaining();
+		burnRate[index] = b.getFuelBurnRate();
+		mass[index] = b.getBalloonMass();
+		tetherLength[index] = b.getTetherLength();
+		airTemp[index] = b.getOutsideAirTemp();
+		windDirection[index] = b.getWindDirection();
+		simulationTime[index] = b.getSimulationTime();
+		windSpeed[index] = b.getWindSpeed();
+		east[index] = b.getEast();
+		north[index] = b.getNorth();
+		updateDrift(index);
+	}
+
+	/**
+	 * Copies the state of the member at the given index into the given balloon.
+	 * The balloon keeps its own initial air temperature and wind direction, so
+	 * reset() still returns it to the values it was constructed with. The
+	 * balloon must use the same model as the ensemble, or it would not carry
+	 * on from the copied state the way the member does.
+	 *
+	 * @param index the member to copy
+	 * @param b     the balloon to overwrite
+	 * @throws IllegalArgumentException if the balloon does not use the constant
+	 *                                  atmosphere, the exact physics and the
+	 *                                  EULER integrator
+	 */
+	public void exportTo(int index, Balloon b) {
+		checkIndex(index);
+		checkModel(b);
+		b.setBalloonTemp(balloonTemp[index]);
+		b.setFuelRemaning(remainFuel[index]);
+		b.setFuelBurnRate(burnRate[index]);
+		b.setBalloonMass(mass[index]);
+		b.setTetherLength(tetherLength[index]);
+		b.setOutsideAirTemp(airTemp[index]);
+		b.setWindSpeed(windSpeed[index]);
+		b.setMotion(altitude[index], velocity[index], windDirection[index], simulationTime[index]);
+		b.setPosition(east[index], north[index]);
+	}
+
+	/**
+	 * Updates every balloon in the ensemble by one time step. The arithmetic is
+	 * written in the same order as Balloon.update() so each member gives the
+	 * exact same result as the matching Balloon would.
+	 */
+	public void update() {
+		final double[] balloonTemp = this.balloonTemp;
+		final double[] altitude = this.altitude;
+		final double[] velocity = this.velocity;
+		final double[] remainFuel = this.remainFuel;
+		final double[] burnRate = this.burnRate;
+		final double[] mass = this.mass;
+		final double[] tetherLength = this.tetherLength;
+		final double[] airTemp = this.airTemp;
+		final long[] simulationTime = this.simulationTime;
+		final double[] east = this.east;
+		final double[] north = this.north;
+		final double[] driftEast = this.driftEast;
+		final double[] driftNorth = this.driftNorth;
+
+		for (int i = 0; i < size; i++) {
+			simulationTime[i] += 1;
+			double fuel = Math.min(remainFuel[i], burnRate[i]);
+
+			double differenceT = fuel + (airTemp[i] - balloonTemp[i]) * Balloon.heatLoss;
+			double temp = balloonTemp[i] + differenceT;
+			balloonTemp[i] = temp;
+			double airDensity = Balloon.STANDARD_PRESSURE
+					/ (Balloon.constGas * (airTemp[i] + Balloon.KELVIN_AT_ZERO_CELSIUS));
+			double balloonDensity = Balloon.STANDARD_PRESSURE
+					/ (Balloon.constGas * (temp + Balloon.KELVIN_AT_ZERO_CELSIUS));
+			double forceLift = Balloon.balloonVolume * (airDensity - balloonDensity) * Balloon.gravity;
+			double forceGravity = mass[i] * Balloon.gravity;
+			double netForce = forceLift - forceGravity;
+			double netAcceleration = netForce / mass[i];
+			double v = velocity[i] + netAcceleration;
+			velocity[i] = v;
+			double alt = altitude[i] + v;
+
+			alt = Math.max(alt, 0);
+			alt = Math.min(alt, tetherLength[i]);
+			altitude[i] = alt;
+			if (alt > 0) {
+				east[i] = east[i] + driftEast[i];
+				north[i] = north[i] + driftNorth[i];
+			}
+			double left = remainFuel[i] - fuel;
+			remainFuel[i] = Math.max(left, 0);
+		}
+	}
+
+	/**
+	 * Updates every balloon in the ensemble by the given number of time steps.
+	 *
+	 * @param ticks the number of seconds to simulate
+	 */
+	public void update(int ticks) {
+		for (int t = 0; t < ticks; t++) {
+			update();
+		}
+	}
+
+	/**
+	 * Gets the altitude of a member.
+	 *
+	 * @param index the member
+	 * @return the altitude of that balloon
+	 */
+	public double getAltitude(int index) {
+		checkIndex(index);
+		return altitude[index];
+	}
+
+	/**
+	 * Gets the velocity of a member.
+	 *
+	 * @param index the member
+	 * @return the velocity of that balloon
+	 */
+	public double getVelocity(int index) {
+		checkIndex(index);
+		return velocity[index];
+	}
+
+	/**
+	 * Gets the temperature inside a member.
+	 *
+	 * @param index the member
+	 * @return the balloon temperature
+	 */
+	public double getBalloonTemp(int index) {
+		checkIndex(index);
+		return balloonTemp[index];
+	}
+
+	/**
+	 * Gets the remaining fuel of a member.
+	 *
+	 * @param index the member
+	 * @return the remaining fuel
+	 */
+	public double getFuelRemaining(int index) {
+		checkIndex(index);
+		return remainFuel[index];
+	}
+
+	/**
+	 * Sets the burn rate of a member.
+	 *
+	 * @param index the member
+	 * @param rate  the new burn rate
+	 */
+	public void setFuelBurnRate(int index, double rate) {
+		checkIndex(index);
+		burnRate[index] = rate;
+	}
+
+	/**
+	 * Sets the outside air temperature of a member.
+	 *
+	 * @param index the member
+	 * @param temp  the new outside air temperature
+	 */
+	public void setOutsideAirTemp(int index, double temp) {
+		checkIndex(index);
+		airTemp[index] = temp;
+	}
+
+	/**
+	 * Sets the wind speed of a member.
+	 *
+	 * @param index the member
+	 * @param speed the new wind speed in meters per second
+	 */
+	public void setWindSpeed(int index, double speed) {
+		checkIndex(index);
+		windSpeed[index] = speed;
+		updateDrift(index);
+	}
+
+	/**
+	 * Gets how far a member is east of the origin.
+	 *
+	 * @param index the member
+	 * @return the distance in meters
+	 */
+	public double getEast(int index) {
+		checkIndex(index);
+		return east[index];
+	}
+
+	/**
+	 * Gets how far a member is north of the origin.
+	 *
+	 * @param index the member
+	 * @return the distance in meters
+	 */
+	public double getNorth(int index) {
+		checkIndex(index);
+		return north[index];
+	}
+
+	/*
+	 * Columns read by ProximityGrid without copying. Only the first size()
+	 * entries belong to members.
+	 */
+	double[] eastColumn() {
+		return east;
+	}
+
+	double[] northColumn() {
+		return north;
+	}
+
+	double[] altitudeColumn() {
+		return altitude;
+	}
+
+	/*
+	 * Recalculates the drift per second of a member the same way Balloon
+	 * does.
+	 */
+	private void updateDrift(int index) {
+		driftEast[index] = Balloon.driftEast(windSpeed[index], windDirection[index]);
+		driftNorth[index] = Balloon.driftNorth(windSpeed[index], windDirection[index]);
+	}
+
+	/*
+	 * Makes sure the index refers to a member of the ensemble.
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+		}
+	}
+
+	/*
+	 * Resizes every column to the given capacity.
+	 */
+	private void grow(int capacity) {
+		balloonTemp = Arrays.copyOf(balloonTemp, capacity);
+		altitude = Arrays.copyOf(altitude, capacity);
+		velocity = Arrays.copyOf(velocity, capacity);
+		remainFuel = Arrays.copyOf(remainFuel, capacity);
+		burnRate = Arrays.copyOf(burnRate, capacity);
+		mass = Arrays.copyOf(mass, capacity);
+		tetherLength = Arrays.copyOf(tetherLength, capacity);
+		airTemp = Arrays.copyOf(airTemp, capacity);
+		windDirection = Arrays.copyOf(windDirection, capacity);
+		simulationTime = Arrays.copyOf(simulationTime, capacity);
+		windSpeed = Arrays.copyOf(windSpeed, capacity);
+		east = Arrays.copyOf(east, capacity);
+		north = Arrays.copyOf(north, capacity);
+		driftEast = Arrays.copyOf(driftEast, capacity);
+		driftNorth = Arrays.copyOf(driftNorth, capacity);
+	}
+
+	/*
+	 * The ensemble update is the exact one second Euler step with the
+	 * constant pressure and temperature of the original model, so balloons
+	 * using another atmosphere, the fast physics or another integrator
+	 * cannot join.
+	 */
+	private static void checkModel(Balloon b) {
+		if (b.getAtmosphere() != Atmosphere.CONSTANT) {
+			throw new IllegalArgumentException("An ensemble only models the constant atmosphere");
+		}
+		if (b.isFastPhysics()) {
+			throw new IllegalArgumentException("An ensemble only models the exact physics");
+		}
+		if (b.getIntegrator() != Integrator.EULER) {
+			throw new IllegalArgumentException("An ensemble only models the " + Integrator.EULER + " integrator");
+		}
+	}
+}
@@ -0,0 +1,415 @@
+package hw1;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Records every call that changes a Balloon's inputs, together with the
+ * second it happened at, so the flight can be reproduced exactly with
+ * JournalReplay. Seconds that pass through update() are not written at all;
+ * they are implied by the gap between two records.
+ *
+ * <p>
+ * The journal starts with the complete state of the balloon. Each record is
+ * then the number of seconds since the previous record as a variable length
+ * integer, one byte holding the kind of call and how its value is stored, and
+ * the value. Values with at most three decimals, like most control inputs, are
+ * stored as a small whole number and a scale; other values take eight bytes.
+ * A typical record takes four to six bytes, so a balloon whose burner changes
+ * every ten seconds for a week writes about 220 KB. close() adds the final
+ * state, which the replay is checked against. Only the built-in atmospheres
+ * can be recorded.
+ *
+ * @author Adam Hmaddi
+ */
+public class BalloonJournal implements Closeable {
+
+	static final int AIR = 0; // setOutsideAirTemp
+	static final int BURN = 1; // setFuelBurnRate
+	static final int FUEL = 2; // setFuelRemaning
+	static final int MASS = 3; // setBalloonMass
+	static final int TETHER = 4; // setTetherLength
+	static final int WIND = 5; // changeWindDirection
+	static final int TEMP = 6; // setBalloonTemp
+	static final int INTEGRATOR = 7; // setIntegrator, the ordinal
+	static final int FAST = 8; // setFastPhysics, 1 for true
+	static final int TOLERANCE = 9; // setTolerance
+	static final int ADVANCE = 10; // advance, the number of seconds
+	static final int RESET = 11; // reset
+	static final int STATE = 12; // restore, followed by the complete state
+	static final int END = 13; // close, followed by the final state
+	static final int ATMOSPHERE = 14; // setAtmosphere, the code from atmosphereCode()
+	static final int WIND_SPEED = 15; // setWindSpeed
+
+	static final int MAGIC = 0x424A4E4C; // "BJNL"
+	static final int VERSION = 3;
+
+	static final int RAW = 4; // Value stored as the eight bytes of the double
+	static final int NONE = 5; // No value
+	private static final double[] SCALES = { 1, 10, 100, 1000 }; // Decimal scales, by code
+
+	private final Balloon balloon; // Balloon being recorded
+	private final OutputStream out; // Destination of the journal
+	private final byte[] buffer = new byte[1 << 16]; // Bytes not yet written to out
+	private int length; // Number of bytes in the buffer
+	private long lastTime; // Simulation time after the previous record
+	private long records; // Number of records written
+	private long bytes; // Number of bytes written, including the buffer
+	private boolean closed;
+
+	/**
+	 * Starts recording the given balloon. The current state of the balloon is
+	 * written first, so recording can start at any point of a flight.
+	 *
+	 * @param balloon the balloon to record, which must not already be recorded
+	 * @param out     receives the journal
+	 * @throws IOException if the journal cannot be written
+	 */
+	public BalloonJournal(Balloon balloon, OutputStream out) throws IOException {
+		this.balloon = balloon;
+		this.out = out;
+		balloon.setJournal(this);
+		BalloonSnapshot start = balloon.snapshot();
+		lastTime = start.simulationTime;
+		try {
+			writeInt(MAGIC);
+			writeByte(VERSION);
+			writeState(start);
+		} catch (IOException | RuntimeException e) {
+			balloon.setJournal(null);
+			throw e;
+		}
+	}
+
+	/**
+	 * Gets the number of records written so far, not counting the starting
+	 * state.
+	 *
+	 * @return the number of records
+	 */
+	public long getRecords() {
+		return records;
+	}
+
+	/**
+	 * Gets the size of the journal so far in bytes.
+	 *
+	 * @return the number of bytes
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Writes the buffered records to the output stream.
+	 *
+	 * @throws IOException if they cannot be written
+	 */
+	public void flush() throws IOException {
+		drain();
+		out.flush();
+	}
+
+	/**
+	 * Stops recording, writes the final state of the balloon and closes the
+	 * output stream.
+	 *
+	 * @throws IOException if the journal cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		balloon.setJournal(null);
+		BalloonSnapshot end = balloon.snapshot();
+		writeHeader(end.simulationTime, END, NONE);
+		writeState(end);
+		drain();
+		out.close();
+	}
+
+	/**
+	 * Records a call that changes one value of the balloon. Called by the
+	 * balloon before the change is made.
+	 *
+	 * @param kind  the kind of call
+	 * @param value the argument of the call
+	 */
+	void record(int kind, double value) {
+		try {
+			long time = balloon.getSimulationTime();
+			int code = RAW;
+			long mantissa = 0;
+			for (int scale = 0; scale < SCALES.length; scale++) {
+				double scaled = value * SCALES[scale];
+				if (Math.abs(scaled) < 0x1p53) {
+					long m = Math.round(scaled);
+					if (Double.doubleToRawLongBits(m / SCALES[scale]) == Double.doubleToRawLongBits(value)) {
+						code = scale;
+						mantissa = m;
+						break;
+					}
+				}
+			}
+			writeHeader(time, kind, code);
+			if (code == RAW) {
+				writeLong(Double.doubleToRawLongBits(value));
+			} else {
+				writeVarLong((mantissa << 1) ^ (mantissa >> 63));
+			}
+			if (kind == ADVANCE && value > 0) {
+				lastTime = time + (long) value;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Records a call to reset(). Called by the balloon before the reset.
+	 */
+	void recordReset() {
+		try {
+			writeHeader(balloon.getSimulationTime(), RESET, NONE);
+			lastTime = 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Records that the complete state of the balloon was replaced. Called by
+	 * the balloon after the change.
+	 *
+	 * @param timeBefore the simulation time before the change
+	 * @param state      the new state
+	 */
+	void recordState(long timeBefore, BalloonSnapshot state) {
+		try {
+			writeHeader(timeBefore, STATE, NONE);
+			writeState(state);
+			lastTime = state.simulationTime;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Reads a complete state written by writeState().
+	 *
+	 * @param in the journal
+	 * @return the state
+	 * @throws IOException if it cannot be read
+	 */
+	static BalloonSnapshot readState(DataInputStream in) throws IOException {
+		double initialAirTemp = in.readDouble();
+		double initialWindDirection = in.readDouble();
+		double airTemp = in.readDouble();
+		double windDirection = in.readDouble();
+		double balloonTemp = in.readDouble();
+		long simulationTime = in.readLong();
+		double altitude = in.readDouble();
+		double fuel = in.readDouble();
+		double remainFuel = in.readDouble();
+		double burnRate = in.readDouble();
+		double mass = in.readDouble();
+		double velocity = in.readDouble();
+		double tetherLength = in.readDouble();
+		int integrator = in.readUnsignedByte();
+		double tolerance = in.readDouble();
+		double stepSize = in.readDouble();
+		boolean fastPhysics = in.readBoolean();
+		Atmosphere atmosphere = atmosphereFor(in.readUnsignedByte());
+		double windSpeed = in.readDouble();
+		double east = in.readDouble();
+		double north = in.readDouble();
+		if (integrator >= Integrator.values().length) {
+			throw new IOException("Unknown integrator " + integrator);
+		}
+		return new BalloonSnapshot(initialAirTemp, initialWindDirection, airTemp, windDirection, balloonTemp,
+				simulationTime, altitude, fuel, remainFuel, burnRate, mass, velocity, tetherLength,
+				Integrator.values()[integrator], tolerance, stepSize, fastPhysics, atmosphere, windSpeed, east, north);
+	}
+
+	/**
+	 * Writes a complete state in the format readState() reads, for files other
+	 * than journals that need to hold the state of a balloon.
+	 *
+	 * @param out receives the state
+	 * @param s   the state
+	 * @throws IOException if it cannot be written
+	 */
+	static void writeState(DataOutputStream out, BalloonSnapshot s) throws IOException {
+		out.writeDouble(s.initialAirTemp);
+		out.writeDouble(s.initialWindDirection);
+		out.writeDouble(s.airTemp);
+		out.writeDouble(s.windDirection);
+		out.writeDouble(s.balloonTemp);
+		out.writeLong(s.simulationTime);
+		out.writeDouble(s.altitude);
+		out.writeDouble(s.fuel);
+		out.writeDouble(s.remainFuel);
+		out.writeDouble(s.burnRate);
+		out.writeDouble(s.mass);
+		out.writeDouble(s.velocity);
+		out.writeDouble(s.tetherLength);
+		out.writeByte(s.integrator.ordinal());
+		out.writeDouble(s.tolerance);
+		out.writeDouble(s.stepSize);
+		out.writeBoolean(s.fastPhysics);
+		out.writeByte(atmosphereCode(s.atmosphere));
+		out.writeDouble(s.windSpeed);
+		out.writeDouble(s.east);
+		out.writeDouble(s.north);
+	}
+
+	/**
+	 * Gets the code a built-in atmosphere is recorded with.
+	 *
+	 * @param atmosphere the atmosphere
+	 * @return the code
+	 * @throws IllegalArgumentException if the atmosphere is not built in
+	 */
+	static int atmosphereCode(Atmosphere atmosphere) {
+		if (atmosphere == Atmosphere.CONSTANT) {
+			return 0;
+		}
+		if (atmosphere == StandardAtmosphere.ISA) {
+			return 1;
+		}
+		throw new IllegalArgumentException("Only the built-in atmospheres can be recorded: " + atmosphere);
+	}
+
+	/**
+	 * Gets the built-in atmosphere recorded with the given code.
+	 *
+	 * @param code the code from atmosphereCode()
+	 * @return the atmosphere
+	 * @throws IOException if the code is unknown
+	 */
+	static Atmosphere atmosphereFor(double code) throws IOException {
+		if (code == 0) {
+			return Atmosphere.CONSTANT;
+		}
+		if (code == 1) {
+			return StandardAtmosphere.ISA;
+		}
+		throw new IOException("Unknown atmosphere " + code);
+	}
+
+	/**
+	 * Reads a value written by record().
+	 *
+	 * @param in   the journal
+	 * @param code how the value is stored
+	 * @return the value
+	 * @throws IOException if it cannot be read
+	 */
+	static double readValue(DataInputStream in, int code) throws IOException {
+		if (code == RAW) {
+			return in.readDouble();
+		}
+		if (code >= SCALES.length) {
+			throw new IOException("Unknown value code " + code);
+		}
+		long zigzag = readVarLong(in);
+		long mantissa = (zigzag >>> 1) ^ -(zigzag & 1);
+		return mantissa / SCALES[code];
+	}
+
+	/**
+	 * Reads a variable length integer written by writeVarLong().
+	 *
+	 * @param in the journal
+	 * @return the number
+	 * @throws IOException if it cannot be read
+	 */
+	static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if (b < 0x80) {
+				return value;
+			}
+		}
+		throw new IOException("Variable length integer is too long");
+	}
+
+	/*
+	 * Writes the seconds since the previous record and the byte holding the
+	 * kind of call and the value code.
+	 */
+	private void writeHeader(long time, int kind, int code) throws IOException {
+		if (closed && kind != END) {
+			throw new IOException("Journal is closed");
+		}
+		writeVarLong(time - lastTime);
+		lastTime = time;
+		writeByte(code << 4 | kind);
+		records++;
+	}
+
+	private void writeState(BalloonSnapshot s) throws IOException {
+		writeLong(Double.doubleToRawLongBits(s.initialAirTemp));
+		writeLong(Double.doubleToRawLongBits(s.initialWindDirection));
+		writeLong(Double.doubleToRawLongBits(s.airTemp));
+		writeLong(Double.doubleToRawLongBits(s.windDirection));
+		writeLong(Double.doubleToRawLongBits(s.balloonTemp));
+		writeLong(s.simulationTime);
+		writeLong(Double.doubleToRawLongBits(s.altitude));
+		writeLong(Double.doubleToRawLongBits(s.fuel));
+		writeLong(Double.doubleToRawLongBits(s.remainFuel));
+		writeLong(Double.doubleToRawLongBits(s.burnRate));
+		writeLong(Double.doubleToRawLongBits(s.mass));
+		writeLong(Double.doubleToRawLongBits(s.velocity));
+		writeLong(Double.doubleToRawLongBits(s.tetherLength));
+		writeByte(s.integrator.ordinal());
+		writeLong(Double.doubleToRawLongBits(s.tolerance));
+		writeLong(Double.doubleToRawLongBits(s.stepSize));
+		writeByte(s.fastPhysics ? 1 : 0);
+		writeByte(atmosphereCode(s.atmosphere));
+		writeLong(Double.doubleToRawLongBits(s.windSpeed));
+		writeLong(Double.doubleToRawLongBits(s.east));
+		writeLong(Double.doubleToRawLongBits(s.north));
+	}
+
+	private void writeVarLong(long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		writeByte((int) value);
+	}
+
+	private void writeLong(long value) throws IOException {
+		writeInt((int) (value >>> 32));
+		writeInt((int) value);
+	}
+
+	private void writeInt(int value) throws IOException {
+		writeByte(value >>> 24);
+		writeByte(value >>> 16);
+		writeByte(value >>> 8);
+		writeByte(value);
+	}
+
+	private void writeByte(int b) throws IOException {
+		if (length == buffer.length) {
+			drain();
+		}
+		buffer[length++] = (byte) b;
+		bytes++;
+	}
+
+	private void drain() throws IOException {
+		out.write(buffer, 0, length);
+		length = 0;
+	}
+}
@@ -0,0 +1,246 @@
+package hw1;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs many balloon flights with uncertain outside air temperature, balloon
+ * mass and wind shifts, and reports how the altitude is spread over time.
+ *
+ * <p>
+ * Runs are split across a ForkJoinPool in fixed blocks. Each block takes its
+ * random numbers from a SplittableRandom that is split off in a fixed pattern
+ * from the seed, so the same seed gives the same numbers for every run no
+ * matter how many threads take part. Every worker thread adds the altitude of
+ * each tick to its own QuantileSketch for that tick, and the sketches are
+ * merged at the end. Merging only adds counts, so the results are the same for
+ * any number of threads, and memory depends on the number of ticks and
+ * threads, not on the number of runs.
+ *
+ * @author Adam Hmaddi
+ */
+public class BalloonMonteCarlo {
+
+	private static final long BLOCK_RUNS = 1024; // Runs handled by one block
+
+	private double airTemp = 15; // Mean outside air temperature
+	private double airTempSpread = 0; // Standard deviation of the outside air temperature
+	private double mass = 150; // Mean balloon mass
+	private double massSpread = 0; // Standard deviation of the balloon mass
+	private double windShiftSpread = 0; // Standard deviation of the wind change per second
+	private double windDirection = 0; // Starting wind direction
+	private double fuel = 3000; // Starting fuel
+	private double burnRate = 10; // Burn rate
+	private double tetherLength = 200; // Tether length
+	private double relativeAccuracy = 0.01; // Accuracy of the quantile sketches
+
+	/**
+	 * Sets the outside air temperature of each run, drawn from a normal
+	 * distribution.
+	 *
+	 * @param mean   the mean temperature
+	 * @param spread the standard deviation
+	 */
+	public void setAirTemp(double mean, double spread) {
+		airTemp = mean;
+		airTempSpread = spread;
+	}
+
+	/**
+	 * Sets the balloon mass of each run, drawn from a normal distribution.
+	 *
+	 * @param mean   the mean mass
+	 * @param spread the standard deviation
+	 */
+	public void setBalloonMass(double mean, double spread) {
+		mass = mean;
+		massSpread = spread;
+	}
+
+	/**
+	 * Sets the starting wind direction and the standard deviation of the
+	 * random change of wind direction applied every second.
+	 *
+	 * @param direction the starting wind direction
+	 * @param spread    the standard deviation of the change per second
+	 */
+	public void setWind(double direction, double spread) {
+		windDirection = direction;
+		windShiftSpread = spread;
+	}
+
+	/**
+	 * Sets the fuel, burn rate and tether length shared by all runs.
+	 *
+	 * @param fuel         the starting fuel
+	 * @param burnRate     the burn rate
+	 * @param tetherLength the tether length
+	 */
+	public void setFlight(double fuel, double burnRate, double tetherLength) {
+		this.fuel = fuel;
+		this.burnRate = burnRate;
+		this.tetherLength = tetherLength;
+	}
+
+	/**
+	 * Sets the relative accuracy of the reported quantiles. Smaller values use
+	 * more memory.
+	 *
+	 * @param relativeAccuracy the accuracy, between 0 and 1
+	 */
+	public void setRelativeAccuracy(double relativeAccuracy) {
+		this.relativeAccuracy = relativeAccuracy;
+	}
+
+	/**
+	 * Runs the given number of flights on the common ForkJoinPool.
+	 *
+	 * @param runs  the number of flights
+	 * @param ticks the number of seconds in each flight
+	 * @param seed  the seed of the random numbers
+	 * @return the altitude and fuel distributions
+	 */
+	public MonteCarloResult run(long runs, int ticks, long seed) {
+		return run(ForkJoinPool.commonPool(), runs, ticks, seed);
+	}
+
+	/**
+	 * Runs the given number of flights on the given pool.
+	 *
+	 * @param pool  the pool whose threads run the flights
+	 * @param runs  the number of flights
+	 * @param ticks the number of seconds in each flight
+	 * @param seed  the seed of the random numbers
+	 * @return the altitude and fuel distributions
+	 */
+	public MonteCarloResult run(ForkJoinPool pool, long runs, int ticks, long seed) {
+		if (runs < 0 || ticks < 0) {
+			throw new IllegalArgumentException("runs and ticks must not be negative");
+		}
+		ConcurrentLinkedQueue<Accumulator> all = new ConcurrentLinkedQueue<>();
+		ThreadLocal<Accumulator> local = ThreadLocal.withInitial(() -> {
+			Accumulator a = new Accumulator(ticks);
+			all.add(a);
+			return a;
+		});
+		long blocks = (runs + BLOCK_RUNS - 1) / BLOCK_RUNS;
+		long start = System.nanoTime();
+		pool.invoke(new BlockTask(0, blocks, runs, ticks, new SplittableRandom(seed), local));
+		long elapsed = System.nanoTime() - start;
+
+		Accumulator total = new Accumulator(ticks);
+		for (Accumulator a : all) {
+			for (int t = 0; t < ticks; t++) {
+				total.altitude[t].merge(a.altitude[t]);
+			}
+			total.fuelOut.merge(a.fuelOut);
+			total.neverOut += a.neverOut;
+		}
+		double[] p5 = new double[ticks];
+		double[] p50 = new double[ticks];
+		double[] p95 = new double[ticks];
+		for (int t = 0; t < ticks; t++) {
+			p5[t] = total.altitude[t].quantile(0.05);
+			p50[t] = total.altitude[t].quantile(0.5);
+			p95[t] = total.altitude[t].quantile(0.95);
+		}
+		return new MonteCarloResult(runs, elapsed, p5, p50, p95, total.fuelOut, total.neverOut);
+	}
+
+	/*
+	 * Simulates one flight with the given random numbers and adds it to the
+	 * accumulator.
+	 */
+	private void runFlight(Balloon b, SplittableRandom rng, int ticks, Accumulator acc) {
+		double temp = airTemp + airTempSpread * rng.nextGaussian();
+		b.reset();
+		b.setOutsideAirTemp(temp);
+		b.setBalloonTemp(temp);
+		b.setBalloonMass(mass + massSpread * rng.nextGaussian());
+		b.setFuelRemaning(fuel);
+		b.setFuelBurnRate(burnRate);
+		b.setTetherLength(tetherLength);
+
+		long fuelOut = -1;
+		for (int t = 0; t < ticks; t++) {
+			if (windShiftSpread != 0) {
+				b.changeWindDirection(windShiftSpread * rng.nextGaussian());
+			}
+			b.update();
+			acc.altitude[t].add(b.getAltitude());
+			if (fuelOut < 0 && b.getFuelRemaining() <= 0) {
+				fuelOut = t + 1;
+			}
+		}
+		if (fuelOut < 0) {
+			acc.neverOut++;
+		} else {
+			acc.fuelOut.add(fuelOut);
+		}
+	}
+
+	/*
+	 * The sketches filled by one worker thread.
+	 */
+	private class Accumulator {
+		final QuantileSketch[] altitude; // Altitude sketch for each tick
+		final QuantileSketch fuelOut; // Second at which the fuel ran out
+		long neverOut; // Runs that still had fuel at the end
+
+		Accumulator(int ticks) {
+			double top = Math.max(tetherLength, 1);
+			altitude = new QuantileSketch[ticks];
+			for (int t = 0; t < ticks; t++) {
+				altitude[t] = new QuantileSketch(relativeAccuracy, 0.01, top);
+			}
+			fuelOut = new QuantileSketch(relativeAccuracy, 1, Math.max(ticks, 2));
+		}
+	}
+
+	/*
+	 * Splits a range of blocks in half, giving the second half a random
+	 * generator split off from the first. The split points only depend on the
+	 * range, so every block gets the same generator on any number of threads.
+	 */
+	private class BlockTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long from; // First block of the range
+		private final long to; // One past the last block of the range
+		private final long runs; // Total number of runs
+		private final int ticks; // Seconds per run
+		private final SplittableRandom rng; // Generator for this range
+		private final ThreadLocal<Accumulator> local; // Sketches of each worker
+
+		BlockTask(long from, long to, long runs, int ticks, SplittableRandom rng, ThreadLocal<Accumulator> local) {
+			this.from = from;
+			this.to = to;
+			this.runs = runs;
+			this.ticks = ticks;
+			this.rng = rng;
+			this.local = local;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= 1) {
+				if (from < to) {
+					Accumulator acc = local.get();
+					Balloon b = new Balloon(airTemp, windDirection);
+					long end = Math.min(runs, (from + 1) * BLOCK_RUNS);
+					for (long r = from * BLOCK_RUNS; r < end; r++) {
+						runFlight(b, rng.split(), ticks, acc);
+					}
+				}
+			} else {
+				long mid = (from + to) >>> 1;
+				SplittableRandom right = rng.split();
+				invokeAll(new BlockTask(from, mid, runs, ticks, rng, local),
+						new BlockTask(mid, to, runs, ticks, right, local));
+			}
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package hw1;
+
+/**
+ * An immutable copy of the complete state of a Balloon at one moment,
+ * including the parts that have no getter. A snapshot is taken with
+ * Balloon.snapshot() and can be put back into any balloon with
+ * Balloon.restore(), so a flight can be rewound or branched without
+ * replaying it from the start.
+ *
+ * @author Adam Hmaddi
+ */
+public final class BalloonSnapshot {
+
+	final double initialAirTemp; // Air temperature reset() returns to
+	final double initialWindDirection; // Wind direction reset() returns to
+	final double airTemp; // Outside air temperature
+	final double windDirection; // Wind direction
+	final double balloonTemp; // Balloon temperature
+	final long simulationTime; // Seconds passed
+	final double altitude; // Altitude
+	final double fuel; // Fuel burned in the last update
+	final double remainFuel; // Remaining fuel
+	final double burnRate; // Burn rate
+	final double mass; // Balloon mass
+	final double velocity; // Velocity
+	final double tetherLength; // Tether length
+	final Integrator integrator; // Integrator in use
+	final double tolerance; // Adaptive integrator tolerance
+	final double stepSize; // Next adaptive step size
+	final boolean fastPhysics; // Fast physics mode
+	final Atmosphere atmosphere; // Model of the outside air
+	final double windSpeed; // Wind speed
+	final double east; // Distance drifted east of the starting point
+	final double north; // Distance drifted north of the starting point
+
+	BalloonSnapshot(double initialAirTemp, double initialWindDirection, double airTemp, double windDirection,
+			double balloonTemp, long simulationTime, double altitude, double fuel, double remainFuel, double burnRate,
+			double mass, double velocity, double tetherLength, Integrator integrator, double tolerance,
+			double stepSize, boolean fastPhysics, Atmosphere atmosphere, double windSpeed, double east, double north) {
+		this.initialAirTemp = initialAirTemp;
+		this.initialWindDirection = initialWindDirection;
+		this.airTemp = airTemp;
+		this.windDirection = windDirection;
+		this.balloonTemp = balloonTemp;
+		this.simulationTime = simulationTime;
+		this.altitude = altitude;
+		this.fuel = fuel;
+		this.remainFuel = remainFuel;
+		this.burnRate = burnRate;
+		this.mass = mass;
+		this.velocity = velocity;
+		this.tetherLength = tetherLength;
+		this.integrator = integrator;
+		this.tolerance = tolerance;
+		this.stepSize = stepSize;
+		this.fastPhysics = fastPhysics;
+		this.atmosphere = atmosphere;
+		this.windSpeed = windSpeed;
+		this.east = east;
+		this.north = north;
+	}
+
+	/**
+	 * Gets the total number of seconds that had passed when the snapshot was
+	 * taken.
+	 *
+	 * @return the simulation time in seconds
+	 */
+	public long getSimulationTime() {
+		return simulationTime;
+	}
+
+	/**
+	 * Gets the altitude at the time of the snapshot.
+	 *
+	 * @return the altitude
+	 */
+	public double getAltitude() {
+		return altitude;
+	}
+
+	/**
+	 * Gets the velocity at the time of the snapshot.
+	 *
+	 * @return the velocity
+	 */
+	public double getVelocity() {
+		return velocity;
+	}
+
+	/**
+	 * Gets the balloon temperature at the time of the snapshot.
+	 *
+	 * @return the balloon temperature
+	 */
+	public double getBalloonTemp() {
+		return balloonTemp;
+	}
+
+	/**
+	 * Gets the remaining fuel at the time of the snapshot.
+	 *
+	 * @return the remaining fuel
+	 */
+	public double getFuelRemaining() {
+		return remainFuel;
+	}
+
+	/**
+	 * Checks if the other object is a snapshot of exactly the same state. Two
+	 * doubles are the same when their bits are the same.
+	 *
+	 * @param obj the object to compare with
+	 * @return true if every value matches, false otherwise
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BalloonSnapshot)) {
+			return false;
+		}
+		BalloonSnapshot o = (BalloonSnapshot) obj;
+		return same(initialAirTemp, o.initialAirTemp) && same(initialWindDirection, o.initialWindDirection)
+				&& same(airTemp, o.airTemp) && same(windDirection, o.windDirection)
+				&& same(balloonTemp, o.balloonTemp) && simulationTime == o.simulationTime
+				&& same(altitude, o.altitude) && same(fuel, o.fuel) && same(remainFuel, o.remainFuel)
+				&& same(burnRate, o.burnRate) && same(mass, o.mass) && same(velocity, o.velocity)
+				&& same(tetherLength, o.tetherLength) && integrator == o.integrator
+				&& same(tolerance, o.tolerance) && same(stepSize, o.stepSize) && fastPhysics == o.fastPhysics
+				&& atmosphere == o.atmosphere && same(windSpeed, o.windSpeed) && same(east, o.east)
+				&& same(north, o.north);
+	}
+
+	@Override
+	public int hashCode() {
+		long h = simulationTime;
+		h = 31 * h + Double.doubleToLongBits(altitude);
+		h = 31 * h + Double.doubleToLongBits(velocity);
+		h = 31 * h + Double.doubleToLongBits(balloonTemp);
+		h = 31 * h + Double.doubleToLongBits(remainFuel);
+		return Long.hashCode(h);
+	}
+
+	/**
+	 * Returns a one-line description of the main values of the snapshot.
+	 *
+	 * @return the time, altitude, velocity, temperature and fuel
+	 */
+	@Override
+	public String toString() {
+		return String.format("t=%ds altitude=%s velocity=%s balloonTemp=%s fuel=%s", simulationTime, altitude,
+				velocity, balloonTemp, remainFuel);
+	}
+
+	private static boolean same(double a, double b) {
+		return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+	}
+}
@@ -0,0 +1,231 @@
+package hw1;
+
+/**
+ * The part of a balloon that update() changes, as an immutable value: the
+ * time, the balloon temperature, the motion, the fuel and the position.
+ * step() is update() written as a pure function from a state and the
+ * BalloonControls to the next state, so states can be kept, shared between
+ * threads and used as keys, for example by a StepCache.
+ *
+ * <p>
+ * step() uses the one second EULER model with the same arithmetic in the same
+ * order as Balloon.update(), so stepping a state gives the exact same values
+ * as updating a Balloon with the same state and controls. It allocates one
+ * state per second, so a Balloon stays the faster choice for a long flight.
+ *
+ * @author Adam Hmaddi
+ */
+public final class BalloonState {
+
+	final long simulationTime; // Seconds passed
+	final double balloonTemp; // Balloon temperature
+	final double altitude; // Altitude
+	final double velocity; // Velocity
+	final double remainFuel; // Remaining fuel
+	final double fuel; // Fuel burned in the last second
+	final double east; // Distance east of the origin
+	final double north; // Distance north of the origin
+
+	/**
+	 * Creates a state.
+	 *
+	 * @param simulationTime the number of seconds passed
+	 * @param balloonTemp    the balloon temperature
+	 * @param altitude       the altitude
+	 * @param velocity       the velocity
+	 * @param remainFuel     the remaining fuel
+	 * @param fuel           the fuel burned in the last second
+	 * @param east           the distance east of the origin
+	 * @param north          the distance north of the origin
+	 */
+	public BalloonState(long simulationTime, double balloonTemp, double altitude, double velocity, double remainFuel,
+			double fuel, double east, double north) {
+		this.simulationTime = simulationTime;
+		this.balloonTemp = balloonTemp;
+		this.altitude = altitude;
+		this.velocity = velocity;
+		this.remainFuel = remainFuel;
+		this.fuel = fuel;
+		this.east = east;
+		this.north = north;
+	}
+
+	/**
+	 * Moves the state forward by one second.
+	 *
+	 * @param s the state before the second
+	 * @param c the controls during the second
+	 * @return the state after the second
+	 */
+	public static BalloonState step(BalloonState s, BalloonControls c) {
+		double pressure = c.atmosphere.pressure(s.altitude);
+		double localAirTemp = c.airTemp - c.atmosphere.temperatureDrop(s.altitude);
+		double fuel = Math.min(s.remainFuel, c.burnRate);
+
+		double differenceT = fuel + (localAirTemp - s.balloonTemp) * Balloon.heatLoss;
+		double balloonTemp = s.balloonTemp + differenceT;
+		double netAcceleration = netAcceleration(pressure, localAirTemp, balloonTemp, c);
+		double velocity = s.velocity + netAcceleration;
+		double altitude = s.altitude + velocity;
+
+		altitude = Math.max(altitude, 0);
+		altitude = Math.min(altitude, c.tetherLength);
+		double east = s.east;
+		double north = s.north;
+		if (altitude > 0) {
+			east = east + c.driftEast;
+			north = north + c.driftNorth;
+		}
+		double remainFuel = s.remainFuel - fuel;
+		remainFuel = Math.max(remainFuel, 0);
+		return new BalloonState(s.simulationTime + 1, balloonTemp, altitude, velocity, remainFuel, fuel, east, north);
+	}
+
+	/**
+	 * Moves the state forward by the given number of seconds with the same
+	 * controls.
+	 *
+	 * @param s       the starting state
+	 * @param c       the controls
+	 * @param seconds the number of seconds
+	 * @return the state after those seconds
+	 */
+	public static BalloonState step(BalloonState s, BalloonControls c, long seconds) {
+		for (long i = 0; i < seconds; i++) {
+			s = step(s, c);
+		}
+		return s;
+	}
+
+	/**
+	 * Gets the total number of seconds passed.
+	 *
+	 * @return the simulation time in seconds
+	 */
+	public long getSimulationTime() {
+		return simulationTime;
+	}
+
+	/**
+	 * Gets the balloon temperature.
+	 *
+	 * @return the balloon temperature
+	 */
+	public double getBalloonTemp() {
+		return balloonTemp;
+	}
+
+	/**
+	 * Gets the altitude.
+	 *
+	 * @return the altitude
+	 */
+	public double getAltitude() {
+		return altitude;
+	}
+
+	/**
+	 * Gets the velocity.
+	 *
+	 * @return the velocity
+	 */
+	public double getVelocity() {
+		return velocity;
+	}
+
+	/**
+	 * Gets the remaining fuel.
+	 *
+	 * @return the remaining fuel
+	 */
+	public double getFuelRemaining() {
+		return remainFuel;
+	}
+
+	/**
+	 * Gets the distance east of the origin.
+	 *
+	 * @return the distance in meters
+	 */
+	public double getEast() {
+		return east;
+	}
+
+	/**
+	 * Gets the distance north of the origin.
+	 *
+	 * @return the distance in meters
+	 */
+	public double getNorth() {
+		return north;
+	}
+
+	/**
+	 * Creates the same state at another time.
+	 *
+	 * @param simulationTime the number of seconds passed
+	 * @return the new state
+	 */
+	public BalloonState withTime(long simulationTime) {
+		return new BalloonState(simulationTime, balloonTemp, altitude, velocity, remainFuel, fuel, east, north);
+	}
+
+	/**
+	 * Checks if the other object is exactly the same state. Two doubles are
+	 * the same when their bits are the same.
+	 *
+	 * @param obj the object to compare with
+	 * @return true if every value matches, false otherwise
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BalloonState)) {
+			return false;
+		}
+		BalloonState o = (BalloonState) obj;
+		return simulationTime == o.simulationTime && same(balloonTemp, o.balloonTemp) && same(altitude, o.altitude)
+				&& same(velocity, o.velocity) && same(remainFuel, o.remainFuel) && same(fuel, o.fuel)
+				&& same(east, o.east) && same(north, o.north);
+	}
+
+	@Override
+	public int hashCode() {
+		long h = simulationTime;
+		h = 31 * h + Double.doubleToLongBits(balloonTemp);
+		h = 31 * h + Double.doubleToLongBits(altitude);
+		h = 31 * h + Double.doubleToLongBits(velocity);
+		h = 31 * h + Double.doubleToLongBits(remainFuel);
+		h = 31 * h + Double.doubleToLongBits(east);
+		h = 31 * h + Double.doubleToLongBits(north);
+		return Long.hashCode(h);
+	}
+
+	/**
+	 * Returns a one-line description of the state.
+	 *
+	 * @return the time, altitude, velocity, temperature and fuel
+	 */
+	@Override
+	public String toString() {
+		return String.format("t=%ds altitude=%s velocity=%s balloonTemp=%s fuel=%s", simulationTime, altitude,
+				velocity, balloonTemp, remainFuel);
+	}
+
+	/*
+	 * Calculates the net upward acceleration with the same helpers as
+	 * Balloon, either exactly or the fast way.
+	 */
+	private static double netAcceleration(double pressure, double localAirTemp, double temp, BalloonControls c) {
+		if (c.fastPhysics) {
+			return Balloon.fastNetAcceleration(pressure, Balloon.airDensity(pressure, localAirTemp), temp, 1 / c.mass);
+		}
+		return Balloon.netAcceleration(pressure, localAirTemp, temp, c.mass);
+	}
+
+	private static boolean same(double a, double b) {
+		return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+	}
+}
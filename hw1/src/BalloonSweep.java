@@ -0,0 +1,562 @@
+package hw1;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a balloon flight for every combination of burn rate, mass, outside air
+ * temperature and tether length in a grid. The grid is split across the
+ * threads of a ForkJoinPool, every worker thread reuses a single Balloon by
+ * calling reset() between scenarios, and each result is handed to a SweepSink
+ * as soon as it is known, so the results never have to be kept in memory.
+ *
+ * <p>
+ * A long sweep can write its progress to a checkpoint file every so often and
+ * be resumed from it after the process was stopped; the resumed run hands the
+ * sink exactly the results that were missing, and they are the same to the
+ * bit as those of an uninterrupted run. Every scenario in progress is saved
+ * with the complete state of its balloon, so even scenarios that run for days
+ * continue where they were. A checkpoint is taken by copying the progress of
+ * each worker while it is between two slices of its work, which holds it up
+ * for about a microsecond, and the file is written by a background thread.
+ *
+ * @author Adam Hmaddi
+ */
+public class BalloonSweep {
+
+	private final double[] burnRates; // Burn rates to try
+	private final double[] masses; // Balloon masses to try
+	private final double[] airTemps; // Outside air temperatures to try
+	private final double[] tetherLengths; // Tether lengths to try
+	private final double initialFuel; // Fuel every scenario starts with
+	private final long maxSeconds; // Longest time a scenario is simulated for
+
+	private static final long SLICE = 4096; // Seconds a checkpointed worker simulates before it can be copied
+
+	/**
+	 * Constructs a sweep over every combination of the given values.
+	 *
+	 * @param burnRates     the fuel burn rates to try
+	 * @param masses        the balloon masses to try
+	 * @param airTemps      the outside air temperatures to try
+	 * @param tetherLengths the tether lengths to try
+	 * @param initialFuel   the fuel each scenario starts with
+	 * @param maxSeconds    the number of seconds each scenario is simulated for
+	 */
+	public BalloonSweep(double[] burnRates, double[] masses, double[] airTemps, double[] tetherLengths,
+			double initialFuel, long maxSeconds) {
+		if (maxSeconds < 0) {
+			throw new IllegalArgumentException("maxSeconds must not be negative: " + maxSeconds);
+		}
+		this.burnRates = burnRates.clone();
+		this.masses = masses.clone();
+		this.airTemps = airTemps.clone();
+		this.tetherLengths = tetherLengths.clone();
+		this.initialFuel = initialFuel;
+		this.maxSeconds = maxSeconds;
+	}
+
+	/**
+	 * Gets the number of scenarios in the grid.
+	 *
+	 * @return the number of combinations
+	 */
+	public long size() {
+		return (long) burnRates.length * masses.length * airTemps.length * tetherLengths.length;
+	}
+
+	/**
+	 * Gets the number of seconds each scenario is simulated for.
+	 *
+	 * @return the length of a scenario in seconds
+	 */
+	public long getMaxSeconds() {
+		return maxSeconds;
+	}
+
+	/**
+	 * Gets the burn rate used by the scenario at the given index.
+	 *
+	 * @param index the scenario
+	 * @return its burn rate
+	 */
+	public double burnRateOf(long index) {
+		return burnRates[(int) (index / ((long) masses.length * airTemps.length * tetherLengths.length))];
+	}
+
+	/**
+	 * Gets the balloon mass used by the scenario at the given index.
+	 *
+	 * @param index the scenario
+	 * @return its mass
+	 */
+	public double massOf(long index) {
+		return masses[(int) (index / ((long) airTemps.length * tetherLengths.length) % masses.length)];
+	}
+
+	/**
+	 * Gets the outside air temperature used by the scenario at the given index.
+	 *
+	 * @param index the scenario
+	 * @return its outside air temperature
+	 */
+	public double airTempOf(long index) {
+		return airTemps[(int) (index / tetherLengths.length % airTemps.length)];
+	}
+
+	/**
+	 * Gets the tether length used by the scenario at the given index.
+	 *
+	 * @param index the scenario
+	 * @return its tether length
+	 */
+	public double tetherLengthOf(long index) {
+		return tetherLengths[(int) (index % tetherLengths.length)];
+	}
+
+	/**
+	 * Puts the given balloon into the starting state of a scenario.
+	 *
+	 * @param b     the balloon to reuse
+	 * @param index the scenario
+	 */
+	public void setUp(Balloon b, long index) {
+		double airTemp = airTempOf(index);
+		b.reset();
+		b.setOutsideAirTemp(airTemp);
+		b.setBalloonTemp(airTemp);
+		b.setFuelRemaning(initialFuel);
+		b.setFuelBurnRate(burnRateOf(index));
+		b.setBalloonMass(massOf(index));
+		b.setTetherLength(tetherLengthOf(index));
+	}
+
+	/**
+	 * Runs every scenario on the common ForkJoinPool.
+	 *
+	 * @param sink receives the result of each scenario
+	 * @return the number of scenarios, elapsed time and throughput
+	 */
+	public SweepStats run(SweepSink sink) {
+		return run(ForkJoinPool.commonPool(), sink);
+	}
+
+	/**
+	 * Runs every scenario on the given pool and waits until they are done.
+	 *
+	 * @param pool the pool whose threads run the scenarios
+	 * @param sink receives the result of each scenario
+	 * @return the number of scenarios, elapsed time and throughput
+	 */
+	public SweepStats run(ForkJoinPool pool, SweepSink sink) {
+		long size = size();
+		long grain = grainFor(pool);
+		ThreadLocal<Balloon> balloons = ThreadLocal.withInitial(() -> new Balloon(0, 0));
+		long start = System.nanoTime();
+		pool.invoke(new SweepTask(0, size, grain, balloons, sink));
+		return new SweepStats(size, System.nanoTime() - start);
+	}
+
+	/**
+	 * Runs every scenario on the given pool and writes the progress to the
+	 * given file every interval and once more at the end, also when the run
+	 * fails. A file left by an earlier run is replaced.
+	 *
+	 * @param pool           the pool whose threads run the scenarios
+	 * @param sink           receives the result of each scenario
+	 * @param checkpoint     the checkpoint file
+	 * @param intervalMillis the time between two checkpoints in milliseconds
+	 * @return the number of scenarios, elapsed time and throughput
+	 * @throws IOException if a checkpoint cannot be written
+	 */
+	public SweepStats run(ForkJoinPool pool, SweepSink sink, Path checkpoint, long intervalMillis)
+			throws IOException {
+		return runFrom(SweepCheckpoint.start(this, grainFor(pool)), pool, sink, checkpoint, intervalMillis);
+	}
+
+	/**
+	 * Continues a run from the progress saved in the given file, and keeps
+	 * writing the progress to it like run() does. The sink only receives the
+	 * scenarios whose results were not handed out before the checkpoint was
+	 * taken; when the earlier run was killed, that includes the ones finished
+	 * after its last checkpoint.
+	 *
+	 * @param pool           the pool whose threads run the scenarios
+	 * @param sink           receives the result of each remaining scenario
+	 * @param checkpoint     the checkpoint file
+	 * @param intervalMillis the time between two checkpoints in milliseconds
+	 * @return the number of scenarios run now, elapsed time and throughput
+	 * @throws IOException if the checkpoint cannot be read or written, or
+	 *                     belongs to a different sweep
+	 */
+	public SweepStats resume(ForkJoinPool pool, SweepSink sink, Path checkpoint, long intervalMillis)
+			throws IOException {
+		SweepCheckpoint saved = SweepCheckpoint.read(checkpoint);
+		if (!saved.belongsTo(this)) {
+			throw new IOException("Checkpoint belongs to a different sweep: " + checkpoint);
+		}
+		return runFrom(saved, pool, sink, checkpoint, intervalMillis);
+	}
+
+	/**
+	 * Gets a number that changes when the grid or the length of the
+	 * scenarios changes, used to match a checkpoint to its sweep.
+	 *
+	 * @return the fingerprint
+	 */
+	long fingerprint() {
+		long h = Arrays.hashCode(burnRates);
+		h = 31 * h + Arrays.hashCode(masses);
+		h = 31 * h + Arrays.hashCode(airTemps);
+		h = 31 * h + Arrays.hashCode(tetherLengths);
+		h = 31 * h + Double.hashCode(initialFuel);
+		return 31 * h + maxSeconds;
+	}
+
+	/*
+	 * Gets the number of scenarios one task runs without splitting, enough
+	 * for sixteen tasks per thread.
+	 */
+	private long grainFor(ForkJoinPool pool) {
+		return Math.max(1, size() / (pool.getParallelism() * 16L));
+	}
+
+	/*
+	 * Runs the scenarios the given progress has not handed out, one task per
+	 * chunk, while a background thread writes checkpoints.
+	 */
+	private SweepStats runFrom(SweepCheckpoint saved, ForkJoinPool pool, SweepSink sink, Path file,
+			long intervalMillis) throws IOException {
+		if (intervalMillis <= 0) {
+			throw new IllegalArgumentException("intervalMillis must be positive: " + intervalMillis);
+		}
+		Checkpointed run = new Checkpointed(saved, sink);
+		long scenarios = saved.remaining();
+		long start = System.nanoTime();
+		Thread writer = new Thread(() -> run.writeEvery(file, intervalMillis * 1_000_000L), "sweep-checkpoint");
+		writer.setDaemon(true);
+		writer.start();
+		try {
+			pool.invoke(run.new ChunkTask(0, run.chunks.length));
+		} finally {
+			run.stopWriting(writer);
+			run.capture().write(file);
+		}
+		if (run.writeError != null) {
+			throw run.writeError;
+		}
+		return new SweepStats(scenarios, System.nanoTime() - start);
+	}
+
+	/*
+	 * What has been seen of one scenario so far. Simulating a scenario in
+	 * slices gives the same result as in one go, because the balloon is
+	 * checked for having settled before every second either way.
+	 */
+	private final class Flight {
+
+		private long index; // The scenario
+		private double tether; // Its tether length
+		private long seconds; // Seconds simulated so far
+		private double peak; // Highest altitude so far
+		private long secondsToTether; // First second at the tether, or -1
+		private long secondsToFuelOut; // First second without fuel, or -1
+
+		/*
+		 * Puts the balloon into the starting state of the scenario.
+		 */
+		void start(Balloon b, long index) {
+			setUp(b, index);
+			this.index = index;
+			tether = b.getTetherLength();
+			seconds = 0;
+			peak = b.getAltitude();
+			secondsToTether = peak >= tether ? 0 : -1;
+			secondsToFuelOut = b.getFuelRemaining() <= 0 ? 0 : -1;
+		}
+
+		/*
+		 * Continues the scenario from a checkpoint.
+		 */
+		void resume(Balloon b, long index, SweepCheckpoint.InFlight saved) {
+			b.restore(saved.state);
+			this.index = index;
+			tether = b.getTetherLength();
+			seconds = saved.seconds;
+			peak = saved.peak;
+			secondsToTether = saved.secondsToTether;
+			secondsToFuelOut = saved.secondsToFuelOut;
+		}
+
+		/*
+		 * Simulates at most the given number of seconds. Returns true once
+		 * the scenario is over: the balloon has settled, so the altitude and
+		 * fuel cannot change any more, or it has run for maxSeconds.
+		 */
+		boolean fly(Balloon b, long limit) {
+			long end = seconds + Math.min(limit, maxSeconds - seconds);
+			while (seconds < end) {
+				if (b.isSettled()) {
+					return true;
+				}
+				b.update();
+				seconds++;
+				double altitude = b.getAltitude();
+				if (altitude > peak) {
+					peak = altitude;
+				}
+				if (secondsToTether < 0 && altitude >= tether) {
+					secondsToTether = seconds;
+				}
+				if (secondsToFuelOut < 0 && b.getFuelRemaining() <= 0) {
+					secondsToFuelOut = seconds;
+				}
+			}
+			return seconds >= maxSeconds;
+		}
+
+		/*
+		 * Passes the result of the finished scenario to the sink.
+		 */
+		void report(Balloon b, SweepSink sink) {
+			sink.accept(index, b.getFuelBurnRate(), b.getBalloonMass(), b.getOutsideAirTemp(), tether, peak,
+					secondsToTether, secondsToFuelOut);
+		}
+
+		/*
+		 * Copies the progress of the scenario.
+		 */
+		SweepCheckpoint.InFlight save(Balloon b) {
+			return new SweepCheckpoint.InFlight(b.snapshot(), seconds, peak, secondsToTether, secondsToFuelOut);
+		}
+	}
+
+	/*
+	 * Simulates one scenario on the given balloon and passes the result to the
+	 * sink.
+	 */
+	private void runScenario(Balloon b, Flight flight, long index, SweepSink sink) {
+		flight.start(b, index);
+		flight.fly(b, maxSeconds);
+		flight.report(b, sink);
+	}
+
+	/*
+	 * One chunk of a checkpointed run. The worker holds the lock of the chunk
+	 * while it simulates a slice or reports a result, and the checkpoint
+	 * writer holds it while it copies the progress, so a copy never sees half
+	 * a slice.
+	 */
+	private final class Chunk {
+
+		private final long end; // One past the last scenario of the chunk
+		private long next; // First scenario not handed to the sink
+		private SweepCheckpoint.InFlight saved; // Scenario to continue from the checkpoint, or null
+		private final Flight flight = new Flight(); // Scenario in progress
+		private Balloon balloon; // Balloon flying it, or null if none is in progress
+
+		Chunk(long next, long end, SweepCheckpoint.InFlight saved) {
+			this.next = next;
+			this.end = end;
+			this.saved = saved;
+		}
+
+		/*
+		 * Simulates the next slice of the chunk. Returns false once every
+		 * scenario of the chunk has been handed to the sink.
+		 */
+		synchronized boolean runSlice(Balloon b, SweepSink sink) {
+			if (balloon == null) {
+				if (next >= end) {
+					return false;
+				}
+				if (saved != null) {
+					flight.resume(b, next, saved);
+					saved = null;
+				} else {
+					flight.start(b, next);
+				}
+				balloon = b;
+			}
+			if (flight.fly(b, SLICE)) {
+				flight.report(b, sink);
+				balloon = null;
+				next++;
+			}
+			return true;
+		}
+
+		/*
+		 * Copies the progress of the scenario in progress, or null if there
+		 * is none.
+		 */
+		synchronized SweepCheckpoint.InFlight save() {
+			return balloon != null ? flight.save(balloon) : saved;
+		}
+	}
+
+	/*
+	 * The state of a checkpointed run.
+	 */
+	private final class Checkpointed {
+
+		private final SweepCheckpoint layout; // Where the chunks start and end
+		private final Chunk[] chunks; // Progress of every chunk
+		private final SweepSink sink; // Receives the results
+		private final ThreadLocal<Balloon> balloons = ThreadLocal.withInitial(() -> new Balloon(0, 0)); // One balloon per worker thread
+		private volatile boolean stopped; // True once a worker failed or the run is over
+		private volatile IOException writeError; // First checkpoint that could not be written
+
+		Checkpointed(SweepCheckpoint saved, SweepSink sink) {
+			layout = saved;
+			this.sink = sink;
+			chunks = new Chunk[saved.next.length];
+			for (int i = 0; i < chunks.length; i++) {
+				chunks[i] = new Chunk(saved.next[i], saved.chunkEnd(i), saved.flights[i]);
+			}
+		}
+
+		/*
+		 * Runs the chunk until it is done or another worker has failed, in
+		 * which case the other chunks stop after their current slice so the
+		 * final checkpoint sees them as they were.
+		 */
+		void runChunk(Chunk chunk) {
+			Balloon b = balloons.get();
+			try {
+				while (!stopped && chunk.runSlice(b, sink)) {
+				}
+			} catch (RuntimeException | Error e) {
+				stopped = true;
+				throw e;
+			}
+		}
+
+		/*
+		 * Copies the progress of every chunk.
+		 */
+		SweepCheckpoint capture() {
+			long[] next = new long[chunks.length];
+			SweepCheckpoint.InFlight[] flights = new SweepCheckpoint.InFlight[chunks.length];
+			for (int i = 0; i < chunks.length; i++) {
+				Chunk chunk = chunks[i];
+				synchronized (chunk) {
+					next[i] = chunk.next;
+					flights[i] = chunk.save();
+				}
+			}
+			return new SweepCheckpoint(layout.size, layout.fingerprint, layout.grain, next, flights);
+		}
+
+		/*
+		 * Writes a checkpoint every interval until the run is over. A write
+		 * that fails is kept to be thrown at the end; the run goes on, since
+		 * the next write may work.
+		 */
+		void writeEvery(Path file, long intervalNanos) {
+			long deadline = System.nanoTime() + intervalNanos;
+			while (!stopped) {
+				long wait = deadline - System.nanoTime();
+				if (wait > 0) {
+					LockSupport.parkNanos(wait);
+					continue;
+				}
+				try {
+					capture().write(file);
+				} catch (IOException e) {
+					if (writeError == null) {
+						writeError = e;
+					}
+				}
+				deadline += intervalNanos;
+			}
+		}
+
+		/*
+		 * Stops the checkpoint writer and waits for a write in progress.
+		 */
+		void stopWriting(Thread writer) {
+			stopped = true;
+			LockSupport.unpark(writer);
+			boolean interrupted = false;
+			while (writer.isAlive()) {
+				try {
+					writer.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/*
+		 * Splits a range of chunks in half until a single chunk is left.
+		 */
+		private class ChunkTask extends RecursiveAction {
+
+			private static final long serialVersionUID = 1L;
+
+			private final int from; // First chunk of the range
+			private final int to; // One past the last chunk of the range
+
+			ChunkTask(int from, int to) {
+				this.from = from;
+				this.to = to;
+			}
+
+			@Override
+			protected void compute() {
+				if (to - from == 1) {
+					runChunk(chunks[from]);
+				} else if (to - from > 1) {
+					int mid = (from + to) >>> 1;
+					invokeAll(new ChunkTask(from, mid), new ChunkTask(mid, to));
+				}
+			}
+		}
+	}
+
+	/*
+	 * Splits a range of scenario indices in half until it is small enough to
+	 * run on one thread.
+	 */
+	private class SweepTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long from; // First scenario of the range
+		private final long to; // One past the last scenario of the range
+		private final long grain; // Largest range run without splitting
+		private final ThreadLocal<Balloon> balloons; // One balloon per worker thread
+		private final SweepSink sink; // Receives the results
+
+		SweepTask(long from, long to, long grain, ThreadLocal<Balloon> balloons, SweepSink sink) {
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.balloons = balloons;
+			this.sink = sink;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= grain) {
+				Balloon b = balloons.get();
+				Flight flight = new Flight();
+				for (long i = from; i < to; i++) {
+					runScenario(b, flight, i, sink);
+				}
+			} else {
+				long mid = (from + to) >>> 1;
+				invokeAll(new SweepTask(from, mid, grain, balloons, sink),
+						new SweepTask(mid, to, grain, balloons, sink));
+			}
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package hw1;
+
+/**
+ * Receives the pairs of balloons a ProximityGrid finds closer together than
+ * its threshold.
+ *
+ * @author Adam Hmaddi
+ */
+public interface ClosePairSink {
+
+	/**
+	 * Called once for every close pair, with the lower index first.
+	 *
+	 * @param first    the index of one balloon in the fleet
+	 * @param second   the index of the other balloon, greater than first
+	 * @param distance the distance between the two balloons in meters
+	 */
+	void closePair(int first, int second, double distance);
+}
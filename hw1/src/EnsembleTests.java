@@ -0,0 +1,80 @@
+package hw1;
+
+/**
+ * Checks that a BalloonEnsemble gives the exact same results as running
+ * each Balloon on its own.
+ */
+public class EnsembleTests {
+	public static void main(String args[]) {
+		int n = 50;
+		Balloon[] balloons = new Balloon[n];
+		BalloonEnsemble ensemble = new BalloonEnsemble(4);
+		for (int i = 0; i < n; i++) {
+			Balloon b = new Balloon(10 + i % 7, i * 7);
+			b.setBalloonMass(100 + i);
+			b.setFuelRemaning(200 + 10 * i);
+			b.setFuelBurnRate(2 + i % 5);
+			b.setTetherLength(50 + 3 * i);
+			balloons[i] = b;
+			ensemble.add(b);
+		}
+
+		System.out.println("Test 1:");
+		System.out.println("Size is " + ensemble.size() + " expected 50.");
+
+		System.out.println("Test 2:");
+		int mismatches = 0;
+		for (int t = 0; t < 600; t++) {
+			ensemble.update();
+			for (int i = 0; i < n; i++) {
+				balloons[i].update();
+				if (Double.doubleToLongBits(balloons[i].getAltitude()) != Double.doubleToLongBits(ensemble.getAltitude(i))
+						|| Double.doubleToLongBits(balloons[i].getVelocity()) != Double.doubleToLongBits(ensemble.getVelocity(i))
+						|| Double.doubleToLongBits(balloons[i].getBalloonTemp()) != Double.doubleToLongBits(ensemble.getBalloonTemp(i))
+						|| Double.doubleToLongBits(balloons[i].getFuelRemaining()) != Double.doubleToLongBits(ensemble.getFuelRemaining(i))) {
+					mismatches++;
+				}
+			}
+		}
+		System.out.println("Mismatches after 600 seconds: " + mismatches + " expected 0.");
+
+		System.out.println("Test 3:");
+		Balloon copy = new Balloon(0, 0);
+		ensemble.exportTo(7, copy);
+		System.out.println("Altitude is " + copy.getAltitude() + " expected " + balloons[7].getAltitude() + ".");
+		System.out.println("Minutes is " + copy.getMinutes() + " expected 10.");
+		copy.update();
+		balloons[7].update();
+		System.out.println("Velocity is " + copy.getVelocity() + " expected " + balloons[7].getVelocity() + ".");
+
+		System.out.println("Test 4:");
+		Balloon fast = new Balloon(10, 0);
+		fast.setFastPhysics(true);
+		System.out.println("Fast physics rejected is " + rejects(ensemble, fast) + " expected true.");
+		Balloon adaptive = new Balloon(10, 0);
+		adaptive.setIntegrator(Integrator.ADAPTIVE_RK4);
+		System.out.println("Adaptive integrator rejected is " + rejects(ensemble, adaptive) + " expected true.");
+		System.out.println("Size is " + ensemble.size() + " expected 50.");
+		System.out.println("Export into fast physics rejected is " + rejectsExport(ensemble, fast) + " expected true.");
+		System.out.println("Export into adaptive integrator rejected is " + rejectsExport(ensemble, adaptive)
+				+ " expected true.");
+	}
+
+	private static boolean rejects(BalloonEnsemble ensemble, Balloon b) {
+		try {
+			ensemble.importFrom(0, b);
+		} catch (IllegalArgumentException e) {
+			return true;
+		}
+		return false;
+	}
+
+	private static boolean rejectsExport(BalloonEnsemble ensemble, Balloon b) {
+		try {
+			ensemble.exportTo(0, b);
+		} catch (IllegalArgumentException e) {
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,73 @@
+package hw1;
+
+/**
+ * Compares the fast physics mode of Balloon with the exact calculation.
+ */
+public class FastPhysicsTests {
+	public static void main(String args[]) {
+		System.out.println("Test 1:");
+		double worst = 0;
+		for (double airTemp = -40; airTemp <= 45; airTemp += 5) {
+			for (double balloonTemp = -40; balloonTemp <= 300; balloonTemp += 0.5) {
+				Balloon exact = new Balloon(airTemp, 0);
+				Balloon fast = new Balloon(airTemp, 0);
+				fast.setFastPhysics(true);
+				for (Balloon b : new Balloon[] { exact, fast }) {
+					b.setBalloonMass(150);
+					b.setBalloonTemp(balloonTemp);
+					b.setTetherLength(1e9);
+					b.update();
+				}
+				double error = Math.abs(fast.getVelocity() - exact.getVelocity())
+						/ Math.max(Math.abs(exact.getVelocity()), 1e-300);
+				worst = Math.max(worst, error);
+			}
+		}
+		System.out.println("Largest relative velocity difference after one update is " + worst
+				+ " expected below 1e-12: " + (worst < 1e-12));
+
+		System.out.println("Test 2:");
+		double worstAltitude = 0;
+		double worstTemp = 0;
+		for (double airTemp = -30; airTemp <= 40; airTemp += 5) {
+			Balloon exact = new Balloon(airTemp, 0);
+			Balloon fast = new Balloon(airTemp, 0);
+			fast.setFastPhysics(true);
+			for (Balloon b : new Balloon[] { exact, fast }) {
+				b.setBalloonMass(150);
+				b.setFuelRemaning(3000);
+				b.setFuelBurnRate(10);
+				b.setTetherLength(200);
+			}
+			for (int t = 0; t < 600; t++) {
+				exact.update();
+				fast.update();
+				worstAltitude = Math.max(worstAltitude, Math.abs(exact.getAltitude() - fast.getAltitude()));
+				worstTemp = Math.max(worstTemp, Math.abs(exact.getBalloonTemp() - fast.getBalloonTemp()));
+			}
+		}
+		System.out.println("Largest altitude difference is " + worstAltitude + " expected below 1e-9.");
+		System.out.println("Largest temperature difference is " + worstTemp + " expected 0.0.");
+
+		System.out.println("Test 3:");
+		Balloon b = new Balloon(20, 0);
+		b.setFastPhysics(true);
+		b.setBalloonMass(120);
+		b.setFuelRemaning(100);
+		b.setFuelBurnRate(5);
+		b.setTetherLength(100);
+		b.update();
+		b.setOutsideAirTemp(-10);
+		b.update();
+		Balloon check = new Balloon(20, 0);
+		check.setBalloonMass(120);
+		check.setFuelRemaning(100);
+		check.setFuelBurnRate(5);
+		check.setTetherLength(100);
+		check.update();
+		check.setOutsideAirTemp(-10);
+		check.update();
+		System.out.println("Velocity after air temperature change is " + b.getVelocity() + " expected "
+				+ check.getVelocity() + "...");
+	}
+}
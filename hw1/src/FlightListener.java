@@ -0,0 +1,48 @@
+package hw1;
+
+/**
+ * Receives the events of a Balloon's flight. The balloon checks for the
+ * events at the end of every update() and only calls the listener when one of
+ * them happens, so a controller can react to changes instead of polling every
+ * getter after every second. All methods do nothing by default.
+ *
+ * @author Adam Hmaddi
+ */
+public interface FlightListener {
+
+	/**
+	 * Called when the balloon arrives at the end of its tether.
+	 *
+	 * @param b the balloon
+	 */
+	default void tetherReached(Balloon b) {
+	}
+
+	/**
+	 * Called when the last of the fuel has been burned.
+	 *
+	 * @param b the balloon
+	 */
+	default void fuelExhausted(Balloon b) {
+	}
+
+	/**
+	 * Called when the balloon comes back down to the ground.
+	 *
+	 * @param b the balloon
+	 */
+	default void landed(Balloon b) {
+	}
+
+	/**
+	 * Called when the wind direction has moved into another sector. The wind
+	 * rose is divided into sectors of {@value Balloon#WIND_SECTOR_DEGREES}
+	 * degrees, numbered from 0 starting at 0 degrees.
+	 *
+	 * @param b          the balloon
+	 * @param fromSector the sector at the previous update
+	 * @param toSector   the sector now
+	 */
+	default void windSectorChanged(Balloon b, int fromSector, int toSector) {
+	}
+}
@@ -0,0 +1,101 @@
+package hw1;
+
+/**
+ * Checks that flight listeners are called once per crossing: reaching the
+ * tether, running out of fuel, landing and moving into another wind sector,
+ * and not again while the balloon stays where the event left it.
+ */
+public class FlightListenerTests {
+	public static void main(String args[]) {
+		Balloon b = new Balloon(15, 10);
+		b.setBalloonMass(150);
+		b.setFuelRemaning(600);
+		b.setFuelBurnRate(10);
+		b.setTetherLength(200);
+		CountingListener events = new CountingListener();
+		b.addFlightListener(events);
+
+		System.out.println("Test 1:");
+		boolean stayed = false;
+		for (int t = 0; t < 55; t++) {
+			b.update();
+			stayed |= events.tether == 1 && b.getAltitude() == 200 && t > events.tetherAt;
+		}
+		System.out.println("Tether events is " + events.tether + " expected 1.");
+		System.out.println("Stayed at the tether is " + stayed + " expected true.");
+		System.out.println("Fuel events is " + events.fuel + " expected 0.");
+
+		System.out.println("Test 2:");
+		// On the ground the velocity keeps growing downwards, so stop right after landing
+		for (int t = 0; t < 1000 && events.landed == 0; t++) {
+			b.update();
+		}
+		System.out.println("Fuel events is " + events.fuel + " expected 1.");
+		System.out.println("Fuel ran out at " + events.fuelAt + " expected 60.");
+		System.out.println("Landed events is " + events.landed + " expected 1.");
+		System.out.println("Altitude is " + b.getAltitude() + " expected 0.0.");
+
+		System.out.println("Test 3:");
+		b.setFuelRemaning(3000);
+		for (int t = 0; t < 1000; t++) {
+			b.update();
+		}
+		System.out.println("Tether events is " + events.tether + " expected 2.");
+		System.out.println("Fuel events is " + events.fuel + " expected 2.");
+		System.out.println("Landed events is " + events.landed + " expected 2.");
+
+		System.out.println("Test 4:");
+		for (int t = 0; t < 72; t++) {
+			b.changeWindDirection(5);
+			b.update();
+		}
+		System.out.println("Wind events is " + events.wind + " expected 8.");
+		System.out.println("Sector steps of one is " + events.singleSteps + " expected 8.");
+
+		System.out.println("Test 5:");
+		b.removeFlightListener(events);
+		for (int t = 0; t < 100; t++) {
+			b.changeWindDirection(5);
+			b.update();
+		}
+		System.out.println("Wind events is " + events.wind + " expected 8.");
+	}
+
+	/*
+	 * Counts each kind of event and notes when some of them happened.
+	 */
+	private static class CountingListener implements FlightListener {
+		int tether; // Tether events
+		int fuel; // Fuel events
+		int landed; // Landing events
+		int wind; // Wind sector events
+		int singleSteps; // Wind sector events to the next sector round the rose
+		long tetherAt; // Second of the last tether event
+		long fuelAt; // Second of the last fuel event
+
+		@Override
+		public void tetherReached(Balloon b) {
+			tether++;
+			tetherAt = b.getSimulationTime();
+		}
+
+		@Override
+		public void fuelExhausted(Balloon b) {
+			fuel++;
+			fuelAt = b.getSimulationTime();
+		}
+
+		@Override
+		public void landed(Balloon b) {
+			landed++;
+		}
+
+		@Override
+		public void windSectorChanged(Balloon b, int fromSector, int toSector) {
+			wind++;
+			if (toSector == (fromSector + 1) % 8) {
+				singleSteps++;
+			}
+		}
+	}
+}
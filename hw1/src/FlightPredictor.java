@@ -0,0 +1,282 @@
+package hw1;
+
+/**
+ * Answers "how many seconds until" questions about a Balloon without stepping
+ * a copy of it through every second. Each answer is the number of update()
+ * calls, with the inputs left as they are, after which the event has
+ * happened.
+ *
+ * <p>
+ * The time until the fuel runs out is worked out directly from the remaining
+ * fuel and the burn rate. For the time until the tether is reached, only the
+ * seconds in which the balloon temperature still changes are stepped. Once
+ * the temperature has settled the acceleration stays the same until the fuel
+ * runs out, so velocity and altitude follow a closed form and the second the
+ * altitude reaches the tether is found by bisection. The temperature counts
+ * as settled as soon as the acceleration it gives can no longer change, which
+ * takes a few hundred seconds after the burn rate changes or the fuel runs
+ * out. A query costs those seconds plus a few bisection steps, so it takes a
+ * few microseconds however far away the answer is. The closed form adds the
+ * velocity in a different order than stepping does, so when the balloon
+ * arrives within a rounding error of the tether the answer can be one second
+ * off.
+ *
+ * <p>
+ * With the ADAPTIVE_RK4 integrator or an atmosphere other than the constant
+ * one the acceleration also changes with the altitude, and the tether
+ * question is answered by stepping a copy of the balloon.
+ *
+ * <p>
+ * A predictor keeps a scratch balloon to work on, so each thread needs its
+ * own.
+ *
+ * @author Adam Hmaddi
+ */
+public class FlightPredictor {
+
+	private static final long EXACT_FUEL_COUNT_LIMIT = 1 << 20; // Most updates counted one by one for the fuel
+
+	private static final int STEADY_CHECK_INTERVAL = 16; // Updates stepped between two checks for a settled temperature
+
+	private final Balloon scratch = new Balloon(0, 0); // Copy of the balloon being predicted
+
+	/**
+	 * Gets the number of updates until the balloon has no fuel left.
+	 *
+	 * @param b the balloon
+	 * @return the number of updates, 0 if there is no fuel now, or -1 if the
+	 *         fuel never runs out because nothing is burned
+	 */
+	public static long secondsUntilFuelOut(Balloon b) {
+		return secondsUntilFuelOut(b.getFuelRemaining(), b.getFuelBurnRate(), b.getIntegrator());
+	}
+
+	/**
+	 * Gets the number of updates until the balloon reaches the end of its
+	 * tether with its current inputs.
+	 *
+	 * @param b     the balloon
+	 * @param limit the most updates to look ahead
+	 * @return the number of updates, 0 if the balloon is at the tether now, or
+	 *         -1 if it does not get there within the limit
+	 */
+	public long secondsUntilTether(Balloon b, long limit) {
+		return secondsUntilTether(b, b.getFuelBurnRate(), limit);
+	}
+
+	/**
+	 * Gets the number of updates until the balloon reaches the end of its
+	 * tether if its burn rate were changed to the given one now. The balloon
+	 * itself is not changed.
+	 *
+	 * @param b        the balloon
+	 * @param burnRate the burn rate to assume
+	 * @param limit    the most updates to look ahead
+	 * @return the number of updates, 0 if the balloon is at the tether now, or
+	 *         -1 if it does not get there within the limit
+	 */
+	public long secondsUntilTether(Balloon b, double burnRate, long limit) {
+		double tether = b.getTetherLength();
+		if (b.getAltitude() >= tether) {
+			return 0;
+		}
+		scratch.restore(b.snapshot());
+		scratch.setFuelBurnRate(burnRate);
+		if (scratch.getIntegrator() != Integrator.EULER || scratch.getAtmosphere() != Atmosphere.CONSTANT) {
+			return stepUntilTether(tether, limit);
+		}
+
+		long t = 0;
+		long nextCheck = 0;
+		while (t < limit) {
+			double a = Double.NaN;
+			if (t >= nextCheck) {
+				a = steadyAcceleration();
+				nextCheck = t + STEADY_CHECK_INTERVAL;
+			}
+			if (!Double.isNaN(a)) {
+				long steady = limit - t;
+				double fuel = scratch.getFuelRemaining();
+				double rate = scratch.getFuelBurnRate();
+				if (fuel > 0 && rate > 0) {
+					// The last update before the fuel runs out may burn less than the rate
+					steady = Math.min(secondsUntilFuelOut(fuel, rate, Integrator.EULER) - 1, steady);
+				}
+				if (steady > 0) {
+					long arrival = coast(tether, a, steady);
+					if (arrival > 0) {
+						return t + arrival;
+					}
+					t += steady;
+					if (t >= limit) {
+						break;
+					}
+				}
+			}
+			scratch.update();
+			t++;
+			if (scratch.getAltitude() >= tether) {
+				return t;
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * Counts the updates until the fuel is gone. Update burns
+	 * min(remaining, rate) and subtracts it, so the answer is the ceiling of
+	 * remaining / rate unless the subtractions round differently, which can
+	 * only happen when the quotient is very close to a whole number; those
+	 * cases are counted one update at a time.
+	 */
+	private static long secondsUntilFuelOut(double remaining, double rate, Integrator integrator) {
+		if (!(remaining > 0)) {
+			return 0;
+		}
+		if (!(rate > 0)) {
+			return -1;
+		}
+		double quotient = Math.ceil(remaining / rate);
+		if (integrator != Integrator.EULER || quotient > EXACT_FUEL_COUNT_LIMIT) {
+			return (long) quotient;
+		}
+		long n = (long) quotient;
+		boolean exact = remaining == Math.rint(remaining) && rate == Math.rint(rate) && remaining < 0x1p53;
+		double slack = 2 * n * Math.ulp(remaining);
+		if (exact || (Math.abs(remaining - n * rate) > slack && Math.abs(remaining - (n - 1) * rate) > slack)) {
+			return n;
+		}
+		long count = 0;
+		while (remaining > 0) {
+			remaining -= Math.min(remaining, rate);
+			remaining = Math.max(remaining, 0);
+			count++;
+		}
+		return count;
+	}
+
+	/*
+	 * Gets the acceleration of the next update if it stays the same for as
+	 * long as the fuel burned per update does, or NaN if it still changes.
+	 * The temperature moves from the one after the next update towards the
+	 * one it settles at, and the acceleration only grows with the
+	 * temperature, so it stays the same if it is the same at both ends.
+	 */
+	private double steadyAcceleration() {
+		double temp = scratch.getBalloonTemp();
+		double air = scratch.getOutsideAirTemp();
+		double fuel = Math.min(scratch.getFuelRemaining(), scratch.getFuelBurnRate());
+		double next = temp + (fuel + (air - temp) * Balloon.heatLoss);
+		double a = scratch.accelerationAt(next);
+		return a == scratch.accelerationAt(air + fuel / Balloon.heatLoss) ? a : Double.NaN;
+	}
+
+	/*
+	 * Moves the scratch balloon forward by the given number of updates with
+	 * a constant acceleration. Returns the update at which it reaches the
+	 * tether, or 0 if it does not, in which case the scratch balloon is left
+	 * at the end of the interval.
+	 */
+	private long coast(double tether, double a, long n) {
+		double v0 = scratch.getVelocity();
+		double h0 = scratch.getAltitude();
+		long end = n;
+
+		if (a >= 0) {
+			// Sinks (or holds at the ground) until the velocity turns positive, then climbs
+			long firstUp = v0 + a > 0 ? 1 : a == 0 ? Long.MAX_VALUE : (long) Math.floor(-v0 / a) + 1;
+			while (firstUp > 1 && v0 + firstUp * a <= 0) {
+				firstUp++;
+			}
+			if (firstUp <= n) {
+				double bottom = Math.max(freeAltitude(h0, v0, a, firstUp - 1), 0);
+				long arrival = firstReaching(tether, bottom, v0, a, firstUp, n);
+				if (arrival > 0) {
+					return arrival;
+				}
+				finish(v0, a, n, climbed(bottom, v0, a, firstUp, n));
+				return 0;
+			}
+		} else if (v0 + a > 0) {
+			// Climbs until the velocity turns negative, then sinks
+			long lastUp = Math.min((long) Math.ceil(-v0 / a) - 1, n);
+			while (lastUp > 1 && v0 + lastUp * a <= 0) {
+				lastUp--;
+			}
+			long arrival = firstReaching(tether, h0, v0, a, 1, lastUp);
+			if (arrival > 0) {
+				return arrival;
+			}
+		}
+		finish(v0, a, end, Math.max(freeAltitude(h0, v0, a, end), 0));
+		return 0;
+	}
+
+	/*
+	 * Finds the first update between from and to, during which the altitude
+	 * only grows, at which the altitude reaches the tether. Returns 0 if it
+	 * does not.
+	 */
+	private static long firstReaching(double tether, double start, double v0, double a, long from, long to) {
+		if (to < from || climbed(start, v0, a, from, to) < tether) {
+			return 0;
+		}
+		long lo = from;
+		long hi = to;
+		while (lo < hi) {
+			long mid = lo + (hi - lo) / 2;
+			if (climbed(start, v0, a, from, mid) >= tether) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+
+	/*
+	 * Gets the altitude after update j when the balloon is at the given
+	 * altitude after update from - 1 and nothing holds it, with the velocity
+	 * v0 + i * a during update i.
+	 */
+	private static double climbed(double start, double v0, double a, long from, long j) {
+		double count = j - from + 1;
+		double sumOfIndices = ((double) j * (j + 1) - (double) (from - 1) * from) / 2;
+		return start + count * v0 + a * sumOfIndices;
+	}
+
+	/*
+	 * Gets the altitude after j updates from altitude h0 when nothing holds
+	 * the balloon.
+	 */
+	private static double freeAltitude(double h0, double v0, double a, long j) {
+		return climbed(h0, v0, a, 1, j);
+	}
+
+	/*
+	 * Puts the scratch balloon at the end of a coasting interval.
+	 */
+	private void finish(double v0, double a, long n, double altitude) {
+		double fuel = scratch.getFuelRemaining();
+		double burn = Math.min(fuel, scratch.getFuelBurnRate());
+		double settledTemp = scratch.getOutsideAirTemp() + burn / Balloon.heatLoss;
+		double decay = Math.pow(1 - Balloon.heatLoss, n);
+		scratch.setBalloonTemp(settledTemp + (scratch.getBalloonTemp() - settledTemp) * decay);
+		scratch.setFuelRemaning(Math.max(fuel - burn * n, 0));
+		scratch.setMotion(Math.min(altitude, scratch.getTetherLength()), v0 + n * a, scratch.getWindDirection(),
+				scratch.getSimulationTime() + n);
+	}
+
+	/*
+	 * Steps the scratch balloon one update at a time.
+	 */
+	private long stepUntilTether(double tether, long limit) {
+		for (long t = 1; t <= limit; t++) {
+			scratch.update();
+			if (scratch.getAltitude() >= tether) {
+				return t;
+			}
+		}
+		return -1;
+	}
+}
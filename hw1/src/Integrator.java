@@ -0,0 +1,19 @@
+package hw1;
+
+/**
+ * The ways a Balloon can move its simulation forward in time.
+ */
+public enum Integrator {
+	/**
+	 * One explicit Euler step of exactly one second per update, as described in
+	 * the original assignment.
+	 */
+	EULER,
+
+	/**
+	 * Fourth order Runge-Kutta with step doubling, which picks its own step
+	 * size to keep the estimated error under the balloon's tolerance. The
+	 * balloon temperature is solved exactly within each step.
+	 */
+	ADAPTIVE_RK4;
+}
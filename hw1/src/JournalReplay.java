@@ -0,0 +1,217 @@
+package hw1;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Replays a journal written by BalloonJournal as fast as possible: the
+ * recorded calls are made on a fresh balloon at the recorded seconds and the
+ * seconds in between are run with update(). At the end the state of the
+ * replayed balloon is compared with the final state in the journal; the two
+ * must be exactly the same.
+ *
+ * <p>
+ * From the command line: <code>java hw1.JournalReplay journal.bin ...</code>
+ * replays each file and prints the result.
+ *
+ * @author Adam Hmaddi
+ */
+public class JournalReplay {
+
+	private final long ticks; // Seconds simulated
+	private final long records; // Records replayed
+	private final long elapsedNanos; // Wall clock time of the replay
+	private final BalloonSnapshot expected; // Final state in the journal
+	private final BalloonSnapshot actual; // Final state of the replayed balloon
+
+	private JournalReplay(long ticks, long records, long elapsedNanos, BalloonSnapshot expected,
+			BalloonSnapshot actual) {
+		this.ticks = ticks;
+		this.records = records;
+		this.elapsedNanos = elapsedNanos;
+		this.expected = expected;
+		this.actual = actual;
+	}
+
+	/**
+	 * Replays the journal read from the given stream.
+	 *
+	 * @param in the journal
+	 * @return the result of the replay
+	 * @throws IOException if the journal cannot be read or is not valid
+	 */
+	public static JournalReplay replay(InputStream in) throws IOException {
+		long start = System.nanoTime();
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+		try {
+			if (data.readInt() != BalloonJournal.MAGIC) {
+				throw new IOException("Not a balloon journal");
+			}
+			int version = data.readUnsignedByte();
+			if (version != BalloonJournal.VERSION) {
+				throw new IOException("Unsupported journal version " + version);
+			}
+			Balloon b = new Balloon(BalloonJournal.readState(data));
+			long ticks = 0;
+			long records = 0;
+			while (true) {
+				long gap = BalloonJournal.readVarLong(data);
+				int header = data.readUnsignedByte();
+				int kind = header & 0x0F;
+				int code = header >>> 4;
+				for (long i = 0; i < gap; i++) {
+					b.update();
+				}
+				ticks += gap;
+				records++;
+				if (kind == BalloonJournal.END) {
+					BalloonSnapshot expected = BalloonJournal.readState(data);
+					return new JournalReplay(ticks, records, System.nanoTime() - start, expected, b.snapshot());
+				}
+				if (kind == BalloonJournal.RESET) {
+					b.reset();
+				} else if (kind == BalloonJournal.STATE) {
+					b.restore(BalloonJournal.readState(data));
+				} else {
+					double value = BalloonJournal.readValue(data, code);
+					if (kind == BalloonJournal.ADVANCE && value > 0) {
+						ticks += (long) value;
+					}
+					apply(b, kind, value);
+				}
+			}
+		} catch (EOFException e) {
+			throw new IOException("Journal ends without its final state", e);
+		}
+	}
+
+	/**
+	 * Gets the number of seconds simulated by the replay.
+	 *
+	 * @return the number of ticks
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Gets the number of records replayed, including the final one.
+	 *
+	 * @return the number of records
+	 */
+	public long getRecords() {
+		return records;
+	}
+
+	/**
+	 * Gets the number of seconds simulated per second of wall clock time.
+	 *
+	 * @return the throughput in ticks per second
+	 */
+	public double getTicksPerSecond() {
+		return elapsedNanos <= 0 ? 0 : ticks * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Checks if the replayed balloon ended in exactly the state the journal
+	 * recorded.
+	 *
+	 * @return true if the states match, false otherwise
+	 */
+	public boolean matches() {
+		return expected.equals(actual);
+	}
+
+	/**
+	 * Gets the final state recorded in the journal.
+	 *
+	 * @return the expected state
+	 */
+	public BalloonSnapshot getExpected() {
+		return expected;
+	}
+
+	/**
+	 * Gets the final state of the replayed balloon.
+	 *
+	 * @return the actual state
+	 */
+	public BalloonSnapshot getActual() {
+		return actual;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d ticks, %d records, %.0f ticks/sec, %s", ticks, records, getTicksPerSecond(),
+				matches() ? "final state matches" : "final state differs: expected " + expected + " got " + actual);
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("usage: java hw1.JournalReplay journal.bin ...");
+			return;
+		}
+		for (String file : args) {
+			try (InputStream in = Files.newInputStream(Paths.get(file))) {
+				System.out.println(file + ": " + replay(in));
+			}
+		}
+	}
+
+	/*
+	 * Makes the recorded call on the balloon.
+	 */
+	private static void apply(Balloon b, int kind, double value) throws IOException {
+		switch (kind) {
+		case BalloonJournal.AIR:
+			b.setOutsideAirTemp(value);
+			break;
+		case BalloonJournal.BURN:
+			b.setFuelBurnRate(value);
+			break;
+		case BalloonJournal.FUEL:
+			b.setFuelRemaning(value);
+			break;
+		case BalloonJournal.MASS:
+			b.setBalloonMass(value);
+			break;
+		case BalloonJournal.TETHER:
+			b.setTetherLength(value);
+			break;
+		case BalloonJournal.WIND:
+			b.changeWindDirection(value);
+			break;
+		case BalloonJournal.TEMP:
+			b.setBalloonTemp(value);
+			break;
+		case BalloonJournal.INTEGRATOR:
+			if (!(value >= 0 && value < Integrator.values().length)) {
+				throw new IOException("Unknown integrator " + value);
+			}
+			b.setIntegrator(Integrator.values()[(int) value]);
+			break;
+		case BalloonJournal.FAST:
+			b.setFastPhysics(value != 0);
+			break;
+		case BalloonJournal.TOLERANCE:
+			b.setTolerance(value);
+			break;
+		case BalloonJournal.ADVANCE:
+			b.advance((long) value);
+			break;
+		case BalloonJournal.ATMOSPHERE:
+			b.setAtmosphere(BalloonJournal.atmosphereFor(value));
+			break;
+		case BalloonJournal.WIND_SPEED:
+			b.setWindSpeed(value);
+			break;
+		default:
+			throw new IOException("Unknown record kind " + kind);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package hw1;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Records flights with BalloonJournal and checks that JournalReplay
+ * reproduces them exactly.
+ */
+public class JournalTests {
+	public static void main(String args[]) throws IOException {
+		System.out.println("Test 1:");
+		Balloon b = new Balloon(18, 90);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BalloonJournal journal = new BalloonJournal(b, bytes);
+		b.setBalloonMass(150);
+		b.setFuelRemaning(3000);
+		b.setTetherLength(200);
+		Random random = new Random(42);
+		for (int t = 0; t < 5000; t++) {
+			if (t % 37 == 0) {
+				b.setFuelBurnRate(random.nextInt(150) / 10.0);
+			}
+			if (t % 301 == 0) {
+				b.setOutsideAirTemp(10 + random.nextDouble() * 15);
+			}
+			if (t % 97 == 0) {
+				b.changeWindDirection(random.nextInt(21) - 10);
+			}
+			b.update();
+		}
+		journal.close();
+		JournalReplay replay = JournalReplay.replay(new ByteArrayInputStream(bytes.toByteArray()));
+		System.out.println(replay);
+		System.out.println("Final state matches: " + replay.matches() + " expected true.");
+		System.out.println("Ticks replayed are " + replay.getTicks() + " expected 5000.");
+		System.out.println("Journal size is " + bytes.size() + " bytes for " + journal.getRecords() + " records.");
+
+		System.out.println("Test 2:");
+		b = new Balloon(20, 0);
+		bytes = new ByteArrayOutputStream();
+		b.setBalloonMass(120);
+		b.update();
+		journal = new BalloonJournal(b, bytes);
+		b.setFuelRemaning(500);
+		b.setFuelBurnRate(4.5);
+		b.setTetherLength(300);
+		b.advance(100);
+		BalloonSnapshot saved = b.snapshot();
+		b.setIntegrator(Integrator.ADAPTIVE_RK4);
+		b.setTolerance(1e-8);
+		b.advance(400);
+		b.restore(saved);
+		b.setFastPhysics(true);
+		for (int t = 0; t < 50; t++) {
+			b.update();
+		}
+		b.reset();
+		b.setBalloonMass(100);
+		b.setBalloonTemp(90.125);
+		for (int t = 0; t < 50; t++) {
+			b.update();
+		}
+		journal.close();
+		replay = JournalReplay.replay(new ByteArrayInputStream(bytes.toByteArray()));
+		System.out.println(replay);
+		System.out.println("Final state matches: " + replay.matches() + " expected true.");
+
+		System.out.println("Test 3:");
+		byte[] cut = new byte[bytes.size() - 10];
+		System.arraycopy(bytes.toByteArray(), 0, cut, 0, cut.length);
+		try {
+			JournalReplay.replay(new ByteArrayInputStream(cut));
+			System.out.println("Cut off journal was accepted, expected an IOException.");
+		} catch (IOException e) {
+			System.out.println("Cut off journal is rejected: " + e.getMessage());
+		}
+	}
+}
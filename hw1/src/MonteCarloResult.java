@@ -0,0 +1,107 @@
+package hw1;
+
+/**
+ * The outcome of a BalloonMonteCarlo run: the 5th, 50th and 95th percentile
+ * of the altitude at every second, and the distribution of the time at which
+ * the fuel ran out.
+ *
+ * @author Adam Hmaddi
+ */
+public class MonteCarloResult {
+
+	private final long runs; // Number of flights simulated
+	private final long elapsedNanos; // Wall clock time of the run
+	private final double[] p5; // 5th percentile altitude per second
+	private final double[] p50; // Median altitude per second
+	private final double[] p95; // 95th percentile altitude per second
+	private final QuantileSketch fuelOut; // Seconds until the fuel ran out
+	private final long neverOut; // Flights that still had fuel at the end
+
+	MonteCarloResult(long runs, long elapsedNanos, double[] p5, double[] p50, double[] p95, QuantileSketch fuelOut,
+			long neverOut) {
+		this.runs = runs;
+		this.elapsedNanos = elapsedNanos;
+		this.p5 = p5;
+		this.p50 = p50;
+		this.p95 = p95;
+		this.fuelOut = fuelOut;
+		this.neverOut = neverOut;
+	}
+
+	/**
+	 * Gets the number of flights simulated.
+	 *
+	 * @return the number of runs
+	 */
+	public long getRuns() {
+		return runs;
+	}
+
+	/**
+	 * Gets the number of flights simulated per second of wall clock time.
+	 *
+	 * @return the throughput
+	 */
+	public double getRunsPerSecond() {
+		return elapsedNanos <= 0 ? 0 : runs * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Gets the number of seconds in each flight.
+	 *
+	 * @return the number of ticks
+	 */
+	public int getTicks() {
+		return p50.length;
+	}
+
+	/**
+	 * Gets the 5th percentile of the altitude after the given second.
+	 *
+	 * @param tick the second, starting at 0 for the first update
+	 * @return the altitude
+	 */
+	public double getAltitudeP5(int tick) {
+		return p5[tick];
+	}
+
+	/**
+	 * Gets the median altitude after the given second.
+	 *
+	 * @param tick the second, starting at 0 for the first update
+	 * @return the altitude
+	 */
+	public double getAltitudeP50(int tick) {
+		return p50[tick];
+	}
+
+	/**
+	 * Gets the 95th percentile of the altitude after the given second.
+	 *
+	 * @param tick the second, starting at 0 for the first update
+	 * @return the altitude
+	 */
+	public double getAltitudeP95(int tick) {
+		return p95[tick];
+	}
+
+	/**
+	 * Estimates a quantile of the second at which the fuel ran out, among the
+	 * flights where it did.
+	 *
+	 * @param q the quantile, between 0 and 1
+	 * @return the second, or NaN if the fuel never ran out
+	 */
+	public double getFuelOutQuantile(double q) {
+		return fuelOut.quantile(q);
+	}
+
+	/**
+	 * Gets the number of flights that still had fuel at the end.
+	 *
+	 * @return the number of flights
+	 */
+	public long getFlightsWithFuelLeft() {
+		return neverOut;
+	}
+}
@@ -0,0 +1,82 @@
+package hw1;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks that a BalloonMonteCarlo run gives the same results for the same
+ * seed on any number of threads, and that merged QuantileSketch quantiles stay
+ * within the relative accuracy of the exact quantiles.
+ */
+public class MonteCarloTests {
+	public static void main(String args[]) {
+		BalloonMonteCarlo mc = new BalloonMonteCarlo();
+		mc.setAirTemp(15, 3);
+		mc.setBalloonMass(150, 10);
+		mc.setWind(0, 5);
+		mc.setFlight(2000, 10, 500);
+
+		System.out.println("Test 1:");
+		MonteCarloResult one = mc.run(new ForkJoinPool(1), 5000, 600, 42);
+		MonteCarloResult two = mc.run(new ForkJoinPool(2), 5000, 600, 42);
+		MonteCarloResult four = mc.run(new ForkJoinPool(4), 5000, 600, 42);
+		System.out.println("Two threads same is " + same(one, two) + " expected true.");
+		System.out.println("Four threads same is " + same(one, four) + " expected true.");
+		System.out.println("Other seed same is " + same(one, mc.run(new ForkJoinPool(2), 5000, 600, 43))
+				+ " expected false.");
+
+		System.out.println("Test 2:");
+		SplittableRandom rng = new SplittableRandom(1);
+		int n = 100_000;
+		double[] values = new double[n];
+		QuantileSketch[] parts = new QuantileSketch[4];
+		for (int p = 0; p < parts.length; p++) {
+			parts[p] = new QuantileSketch(0.01, 1e-3, 1e6);
+		}
+		for (int i = 0; i < n; i++) {
+			values[i] = Math.exp(rng.nextGaussian() * 2 + 3);
+			parts[i % parts.length].add(values[i]);
+		}
+		QuantileSketch forward = new QuantileSketch(0.01, 1e-3, 1e6);
+		QuantileSketch backward = new QuantileSketch(0.01, 1e-3, 1e6);
+		for (int p = 0; p < parts.length; p++) {
+			forward.merge(parts[p]);
+			backward.merge(parts[parts.length - 1 - p]);
+		}
+		Arrays.sort(values);
+		double worst = 0;
+		boolean orderFree = true;
+		for (double q = 0; q <= 1; q += 0.01) {
+			double exact = values[(int) (q * (n - 1))];
+			worst = Math.max(worst, Math.abs(forward.quantile(q) - exact) / exact);
+			orderFree &= forward.quantile(q) == backward.quantile(q);
+		}
+		System.out.println("Count is " + forward.getCount() + " expected " + n + ".");
+		System.out.println("Worst relative error is " + worst + ", within 0.01 is " + (worst <= 0.01)
+				+ " expected true.");
+		System.out.println("Merge order matters is " + !orderFree + " expected false.");
+	}
+
+	/*
+	 * Checks that two results have the same quantiles everywhere.
+	 */
+	private static boolean same(MonteCarloResult a, MonteCarloResult b) {
+		if (a.getRuns() != b.getRuns() || a.getTicks() != b.getTicks()
+				|| a.getFlightsWithFuelLeft() != b.getFlightsWithFuelLeft()) {
+			return false;
+		}
+		for (int t = 0; t < a.getTicks(); t++) {
+			if (a.getAltitudeP5(t) != b.getAltitudeP5(t) || a.getAltitudeP50(t) != b.getAltitudeP50(t)
+					|| a.getAltitudeP95(t) != b.getAltitudeP95(t)) {
+				return false;
+			}
+		}
+		for (double q = 0; q <= 1; q += 0.05) {
+			if (Double.compare(a.getFuelOutQuantile(q), b.getFuelOutQuantile(q)) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
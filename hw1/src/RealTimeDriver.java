@@ -0,0 +1,355 @@
+package hw1;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Updates a fleet of balloons once per second of wall clock time from a single
+ * thread. The balloons are spread over the slots of a hashed timer wheel that
+ * turns once per second, so each slot holds a small share of the fleet and the
+ * updates are spread evenly over the second instead of all happening at once.
+ * The thread sleeps until the next slot is due and then updates every balloon
+ * in it.
+ *
+ * <p>
+ * Each update is measured against the moment it was due and the lateness is
+ * kept in a histogram. When the driver falls behind, the slots that are
+ * already due are run one after another without sleeping until it has caught
+ * up, so no balloon ever skips a second.
+ *
+ * <p>
+ * Balloons are not thread safe. The driver holds the lock of a balloon while
+ * updating it, so other threads that read a balloon while the driver runs
+ * should synchronize on it.
+ *
+ * @author Adam Hmaddi
+ */
+public class RealTimeDriver implements AutoCloseable {
+
+	/**
+	 * Time between two updates of the same balloon, in nanoseconds.
+	 */
+	public static final long PERIOD_NANOS = 1_000_000_000L;
+
+	private static final int BATCH = 64; // Balloons updated between two clock readings
+
+	private final int slotCount; // Number of slots in the wheel
+	private final long slotNanos; // Time between two slots
+	private final Balloon[][] slots; // Balloons in each slot
+	private final int[] sizes; // Number of balloons in each slot
+	private final Map<Balloon, Integer> slotOf = new IdentityHashMap<>(); // Slot of each balloon, driver thread only
+	private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>(); // Adds and removes waiting, in call order
+	private int nextSlot; // Slot the next balloon goes into
+
+	private final Object statsLock = new Object(); // Guards the statistics
+	private final QuantileSketch lateness = newLatenessSketch(); // Lateness of each update in milliseconds
+	private long ticks; // Number of balloon updates
+	private long behindTicks; // Updates that ran a whole period or more late
+	private long maxLatenessNanos; // Largest lateness seen
+
+	private volatile boolean running; // True while the driver thread should keep going
+	private volatile int balloonCount; // Number of balloons in the wheel
+	private Thread thread; // The driver thread
+
+	/**
+	 * Creates a driver with 100 slots, one every 10 milliseconds.
+	 */
+	public RealTimeDriver() {
+		this(100);
+	}
+
+	/**
+	 * Creates a driver with the given number of slots in its wheel.
+	 *
+	 * @param slotCount the number of slots, between 1 and 1000000
+	 */
+	public RealTimeDriver(int slotCount) {
+		if (slotCount <= 0 || slotCount > 1_000_000) {
+			throw new IllegalArgumentException("slotCount must be between 1 and 1000000: " + slotCount);
+		}
+		this.slotCount = slotCount;
+		slotNanos = PERIOD_NANOS / slotCount;
+		slots = new Balloon[slotCount][];
+		sizes = new int[slotCount];
+		Arrays.fill(slots, new Balloon[0]);
+	}
+
+	/**
+	 * Adds a balloon to the fleet. It is updated once per second from the
+	 * next time its slot comes around. Can be called from any thread.
+	 *
+	 * @param b the balloon to add
+	 */
+	public void add(Balloon b) {
+		changes.add(new Change(b, true));
+		applyChangesIfStopped();
+	}
+
+	/**
+	 * Removes a balloon from the fleet. Can be called from any thread.
+	 *
+	 * @param b the balloon to remove
+	 */
+	public void remove(Balloon b) {
+		changes.add(new Change(b, false));
+		applyChangesIfStopped();
+	}
+
+	/**
+	 * Gets the number of balloons being driven.
+	 *
+	 * @return the number of balloons
+	 */
+	public int getBalloonCount() {
+		return balloonCount;
+	}
+
+	/**
+	 * Starts the driver thread. The first slot is due right away.
+	 */
+	public synchronized void start() {
+		if (thread != null) {
+			throw new IllegalStateException("Driver already started");
+		}
+		running = true;
+		thread = new Thread(this::run, "balloon-driver");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the driver thread and waits for it to finish the slot it is
+	 * running.
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public synchronized void stop() throws InterruptedException {
+		running = false;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+			thread.join();
+			thread = null;
+		}
+		applyChanges();
+	}
+
+	/**
+	 * Stops the driver thread.
+	 */
+	@Override
+	public void close() {
+		try {
+			stop();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Gets the number of balloon updates so far.
+	 *
+	 * @return the number of ticks
+	 */
+	public long getTicks() {
+		synchronized (statsLock) {
+			return ticks;
+		}
+	}
+
+	/**
+	 * Gets the number of updates that ran a whole second or more after they
+	 * were due and were caught up without sleeping.
+	 *
+	 * @return the number of ticks
+	 */
+	public long getBehindTicks() {
+		synchronized (statsLock) {
+			return behindTicks;
+		}
+	}
+
+	/**
+	 * Gets the largest lateness of an update so far.
+	 *
+	 * @return the lateness in milliseconds
+	 */
+	public double getMaxLatenessMillis() {
+		synchronized (statsLock) {
+			return maxLatenessNanos / 1e6;
+		}
+	}
+
+	/**
+	 * Estimates a quantile of how late the updates ran, within 1%.
+	 *
+	 * @param q the quantile, between 0 and 1
+	 * @return the lateness in milliseconds, or NaN if there were no updates
+	 */
+	public double getLatenessMillis(double q) {
+		synchronized (statsLock) {
+			return lateness.quantile(q);
+		}
+	}
+
+	/**
+	 * Gets a copy of the lateness histogram.
+	 *
+	 * @return the lateness of every update in milliseconds
+	 */
+	public QuantileSketch getLatenessHistogram() {
+		QuantileSketch copy = newLatenessSketch();
+		synchronized (statsLock) {
+			copy.merge(lateness);
+		}
+		return copy;
+	}
+
+	/**
+	 * Drives a fleet for a while and prints the lateness of the updates.
+	 *
+	 * @param args the number of balloons and seconds, 10000 and 10 if left out
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int balloons = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		RealTimeDriver driver = new RealTimeDriver();
+		for (int i = 0; i < balloons; i++) {
+			Balloon b = new Balloon(15 + i % 10, i % 360);
+			b.setBalloonMass(100 + i % 200);
+			b.setFuelRemaning(1e6);
+			b.setFuelBurnRate(i % 15);
+			b.setTetherLength(200);
+			driver.add(b);
+		}
+		driver.start();
+		Thread.sleep(seconds * 1000L);
+		driver.stop();
+		System.out.printf("%d balloons, %d updates in %d s, %d caught up%n", balloons, driver.getTicks(), seconds,
+				driver.getBehindTicks());
+		System.out.printf("lateness ms: p50 %.3f p90 %.3f p99 %.3f p99.9 %.3f max %.3f%n",
+				driver.getLatenessMillis(0.5), driver.getLatenessMillis(0.9), driver.getLatenessMillis(0.99),
+				driver.getLatenessMillis(0.999), driver.getMaxLatenessMillis());
+	}
+
+	/*
+	 * Turns the wheel until the driver is stopped. Slot n of the whole run is
+	 * due at start + n * slotNanos; when that moment has already passed the
+	 * slot runs right away, which is how the driver catches up.
+	 */
+	private void run() {
+		long start = System.nanoTime();
+		long firing = 0;
+		while (running) {
+			applyChanges();
+			long deadline = start + firing * slotNanos;
+			long wait = deadline - System.nanoTime();
+			while (wait > 0 && running) {
+				LockSupport.parkNanos(wait);
+				wait = deadline - System.nanoTime();
+			}
+			if (!running) {
+				break;
+			}
+			runSlot((int) (firing % slotCount), deadline);
+			firing++;
+		}
+	}
+
+	/*
+	 * Updates every balloon in the slot, reading the clock once per batch to
+	 * measure how late the updates ran.
+	 */
+	private void runSlot(int slot, long deadline) {
+		Balloon[] balloons = slots[slot];
+		int size = sizes[slot];
+		for (int from = 0; from < size; from += BATCH) {
+			int to = Math.min(size, from + BATCH);
+			for (int i = from; i < to; i++) {
+				Balloon b = balloons[i];
+				synchronized (b) {
+					b.update();
+				}
+			}
+			long late = Math.max(0, System.nanoTime() - deadline);
+			synchronized (statsLock) {
+				int count = to - from;
+				ticks += count;
+				if (late >= PERIOD_NANOS) {
+					behindTicks += count;
+				}
+				maxLatenessNanos = Math.max(maxLatenessNanos, late);
+				lateness.add(late / 1e6, count);
+			}
+		}
+	}
+
+	/*
+	 * Applies the waiting changes right away if the driver thread is not
+	 * running; otherwise it picks them up before its next slot.
+	 */
+	private synchronized void applyChangesIfStopped() {
+		if (thread == null) {
+			applyChanges();
+		}
+	}
+
+	/*
+	 * Moves the balloons waiting to be added or removed into or out of the
+	 * wheel, in the order add() and remove() were called. New balloons go
+	 * into the slots in turn so the slots stay evenly filled. Only called by
+	 * the driver thread, or while it is not running.
+	 */
+	private void applyChanges() {
+		Change c;
+		while ((c = changes.poll()) != null) {
+			Balloon b = c.balloon;
+			if (c.add) {
+				if (slotOf.containsKey(b)) {
+					continue;
+				}
+				int slot = nextSlot;
+				nextSlot = (nextSlot + 1) % slotCount;
+				if (sizes[slot] == slots[slot].length) {
+					slots[slot] = Arrays.copyOf(slots[slot], Math.max(4, sizes[slot] * 2));
+				}
+				slots[slot][sizes[slot]++] = b;
+				slotOf.put(b, slot);
+			} else {
+				Integer slot = slotOf.remove(b);
+				if (slot == null) {
+					continue;
+				}
+				Balloon[] balloons = slots[slot];
+				for (int i = 0; i < sizes[slot]; i++) {
+					if (balloons[i] == b) {
+						balloons[i] = balloons[--sizes[slot]];
+						balloons[sizes[slot]] = null;
+						break;
+					}
+				}
+			}
+		}
+		balloonCount = slotOf.size();
+	}
+
+	private static QuantileSketch newLatenessSketch() {
+		return new QuantileSketch(0.01, 1e-3, 3_600_000);
+	}
+
+	/*
+	 * One call to add() or remove() waiting to be applied.
+	 */
+	private static final class Change {
+		final Balloon balloon; // Balloon added or removed
+		final boolean add; // True for add(), false for remove()
+
+		Change(Balloon balloon, boolean add) {
+			this.balloon = balloon;
+			this.add = add;
+		}
+	}
+}
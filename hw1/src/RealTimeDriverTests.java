@@ -0,0 +1,146 @@
+package hw1;
+
+import java.util.Arrays;
+
+/**
+ * Checks that a RealTimeDriver updates each balloon in its own slot of the
+ * wheel once per second, keeps every balloon on the same number of updates
+ * as the wheel wraps around, and catches up without skipping a second after
+ * falling behind.
+ */
+public class RealTimeDriverTests {
+	public static void main(String args[]) throws InterruptedException {
+		int slots = 10;
+		long slotNanos = RealTimeDriver.PERIOD_NANOS / slots;
+		long tolerance = slotNanos / 2;
+
+		System.out.println("Test 1:");
+		TimedBalloon[] balloons = new TimedBalloon[slots];
+		RealTimeDriver driver = new RealTimeDriver(slots);
+		for (int i = 0; i < slots; i++) {
+			balloons[i] = new TimedBalloon(0);
+			driver.add(balloons[i]);
+		}
+		driver.start();
+		Thread.sleep(3500);
+		driver.stop();
+		// Balloon i sits in slot i, so its update k is due at i + k * slots slot lengths
+		long first = balloons[0].times[0];
+		int wrongSlot = 0;
+		int counted = 0;
+		for (int i = 0; i < slots; i++) {
+			for (int k = 0; k < balloons[i].count; k++) {
+				long due = first + (i + (long) k * slots) * slotNanos;
+				if (Math.abs(balloons[i].times[k] - due) > tolerance) {
+					wrongSlot++;
+				}
+			}
+			counted += balloons[i].count;
+		}
+		System.out.println("Updates in the wrong slot is " + wrongSlot + " expected 0.");
+		System.out.println("Updates of the first balloon is " + balloons[0].count + " expected 4.");
+		System.out.println("Updates counted is " + counted + " expected " + driver.getTicks() + ".");
+		System.out.println("Update counts in slot order are " + countsInOrder(balloons) + " expected true.");
+
+		System.out.println("Test 2:");
+		TimedBalloon[] caughtUp = new TimedBalloon[slots];
+		driver = new RealTimeDriver(slots);
+		for (int i = 0; i < slots; i++) {
+			caughtUp[i] = new TimedBalloon(i == 3 ? 1 : 0); // Stalls the driver on its second update
+			driver.add(caughtUp[i]);
+		}
+		driver.start();
+		Thread.sleep(4500);
+		driver.stop();
+		counted = 0;
+		for (TimedBalloon b : caughtUp) {
+			counted += b.count;
+		}
+		System.out.println("Updates of the first balloon is " + caughtUp[0].count + " expected 5.");
+		System.out.println("Updates counted is " + counted + " expected " + driver.getTicks() + ".");
+		System.out.println("Update counts in slot order are " + countsInOrder(caughtUp) + " expected true.");
+		System.out.println("Caught up updates is " + (driver.getBehindTicks() > 0) + " expected true.");
+
+		System.out.println("Test 3:");
+		driver = new RealTimeDriver(slots);
+		TimedBalloon kept = new TimedBalloon(0);
+		TimedBalloon dropped = new TimedBalloon(0);
+		driver.add(kept);
+		driver.add(dropped);
+		driver.add(kept);
+		System.out.println("Balloon count is " + driver.getBalloonCount() + " expected 2.");
+		driver.start();
+		Thread.sleep(1500);
+		driver.remove(dropped);
+		int droppedAt = dropped.count;
+		Thread.sleep(1200);
+		driver.stop();
+		System.out.println("Balloon count is " + driver.getBalloonCount() + " expected 1.");
+		System.out.println("Updates after removal is " + (dropped.count - droppedAt) + " expected 0.");
+		System.out.println("Updates of the kept balloon is " + kept.count + " expected 3.");
+
+		System.out.println("Test 4:");
+		driver = new RealTimeDriver(slots);
+		TimedBalloon readded = new TimedBalloon(0);
+		TimedBalloon fresh = new TimedBalloon(0);
+		driver.add(readded);
+		driver.start();
+		Thread.sleep(1050);
+		// Both pairs of calls land between two slots, so the driver applies them together
+		driver.remove(readded);
+		driver.add(readded);
+		driver.remove(fresh);
+		driver.add(fresh);
+		int readdedAt = readded.count;
+		Thread.sleep(1200);
+		driver.stop();
+		System.out.println("Balloon count is " + driver.getBalloonCount() + " expected 2.");
+		System.out.println("Re-added balloon driven is " + (readded.count > readdedAt) + " expected true.");
+		System.out.println("New balloon driven is " + (fresh.count > 0) + " expected true.");
+	}
+
+	/*
+	 * Checks that no balloon has fewer updates than a balloon in a later slot
+	 * and that all counts are within one of each other, which is what a wheel
+	 * stopped part way through a turn leaves.
+	 */
+	private static boolean countsInOrder(TimedBalloon[] balloons) {
+		for (int i = 1; i < balloons.length; i++) {
+			if (balloons[i].count > balloons[i - 1].count) {
+				return false;
+			}
+		}
+		return balloons[0].count - balloons[balloons.length - 1].count <= 1;
+	}
+
+	/*
+	 * A balloon that notes the time of each update, and can hold up one
+	 * update for a second and a half.
+	 */
+	private static class TimedBalloon extends Balloon {
+		long[] times = new long[16]; // Time of each update
+		int count; // Number of updates
+		private final int stallAt; // Update to hold up, or 0 for none
+
+		TimedBalloon(int stallAt) {
+			super(15, 0);
+			this.stallAt = stallAt;
+		}
+
+		@Override
+		public void update() {
+			if (count == times.length) {
+				times = Arrays.copyOf(times, count * 2);
+			}
+			times[count++] = System.nanoTime();
+			if (count == stallAt + 1 && stallAt > 0) {
+				try {
+					Thread.sleep(1500);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			super.update();
+		}
+	}
+}
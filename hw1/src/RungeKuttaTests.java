@@ -0,0 +1,76 @@
+package hw1;
+
+/**
+ * Checks that the ADAPTIVE_RK4 integrator stays within a stated multiple of
+ * its tolerance, and that it needs far fewer force evaluations than EULER
+ * over a long flight.
+ */
+public class RungeKuttaTests {
+	public static void main(String args[]) {
+		// The tolerance bounds the error of each step; over a 100 second climb the
+		// errors add up to at most about 25 times the tolerance
+		Balloon exact = climbing(1e-12);
+		exact.advance(100);
+		int test = 1;
+		for (double tolerance : new double[] { 1e-4, 1e-6, 1e-8 }) {
+			System.out.println("Test " + test++ + ":");
+			Balloon b = climbing(tolerance);
+			b.advance(100);
+			double error = Math.max(relativeError(b.getAltitude(), exact.getAltitude()),
+					relativeError(b.getVelocity(), exact.getVelocity()));
+			System.out.println("Error is " + error + ", below 100 times the tolerance is "
+					+ (error < 100 * tolerance) + " expected true.");
+		}
+
+		System.out.println("Test 4:");
+		Balloon euler = tethered();
+		Balloon adaptive = tethered();
+		adaptive.setIntegrator(Integrator.ADAPTIVE_RK4);
+		for (int i = 0; i < 6 * 60 * 60; i++) {
+			euler.update();
+		}
+		adaptive.advance(6 * 60 * 60);
+		System.out.println("Minutes is " + adaptive.getMinutes() + " expected 360.");
+		System.out.println("Seconds is " + adaptive.getSeconds() + " expected 0.");
+		System.out.println("Euler evaluations is " + euler.getPhysicsEvaluations() + " expected 21600.");
+		System.out.println("Adaptive evaluations is " + adaptive.getPhysicsEvaluations()
+				+ ", a tenth or less of Euler is " + (adaptive.getPhysicsEvaluations() * 10 <= 21600)
+				+ " expected true.");
+		System.out.println("Altitude is " + adaptive.getAltitude() + " expected " + euler.getAltitude() + ".");
+	}
+
+	/*
+	 * Creates a balloon on the adaptive integrator that climbs freely for a
+	 * few minutes.
+	 */
+	private static Balloon climbing(double tolerance) {
+		Balloon b = new Balloon(15, 0);
+		b.setIntegrator(Integrator.ADAPTIVE_RK4);
+		b.setTolerance(tolerance);
+		b.setBalloonMass(150);
+		b.setFuelRemaning(3000);
+		b.setFuelBurnRate(10);
+		b.setTetherLength(1e9);
+		return b;
+	}
+
+	/*
+	 * Creates a balloon that climbs to its tether and stays there.
+	 */
+	private static Balloon tethered() {
+		Balloon b = new Balloon(15, 0);
+		b.setBalloonMass(150);
+		b.setFuelRemaning(1e6);
+		b.setFuelBurnRate(10);
+		b.setTetherLength(200);
+		return b;
+	}
+
+	/*
+	 * Gets the difference of two values relative to 1 plus the size of the
+	 * exact one, the way the tolerance is measured.
+	 */
+	private static double relativeError(double value, double exact) {
+		return Math.abs(value - exact) / (1 + Math.abs(exact));
+	}
+}
@@ -0,0 +1,184 @@
+package hw1;
+
+import java.util.Arrays;
+
+/**
+ * One flight described in a scenario file: the starting conditions of the
+ * balloon, a schedule of control changes at given seconds, and the conditions
+ * that end the flight. Scenarios are read with ScenarioReader and run by
+ * ScenarioRunner.
+ *
+ * @author Adam Hmaddi
+ */
+public class Scenario {
+
+	static final byte AIR = 0; // setOutsideAirTemp
+	static final byte BURN = 1; // setFuelBurnRate
+	static final byte FUEL = 2; // setFuelRemaning
+	static final byte MASS = 3; // setBalloonMass
+	static final byte TETHER = 4; // setTetherLength
+	static final byte WIND = 5; // changeWindDirection
+	static final byte TEMP = 6; // setBalloonTemp
+
+	private final long sequence; // Position of the scenario in its file
+	private final String name; // Name of the scenario
+	private final double[] initial; // Starting value of each control, NaN if not given
+	private final double windDirection; // Starting wind direction
+	private final long[] changeTimes; // Second of each scheduled change, in order
+	private final byte[] changeControls; // Control changed by each scheduled change
+	private final double[] changeValues; // New value of each scheduled change
+	private final long stopTime; // Longest flight time in seconds
+	private final double stopAltitude; // Altitude that ends the flight, NaN for none
+	private final boolean stopOnFuelOut; // True if running out of fuel ends the flight
+	private final boolean stopOnLanding; // True if landing ends the flight
+
+	Scenario(long sequence, String name, double[] initial, double windDirection, long[] changeTimes,
+			byte[] changeControls, double[] changeValues, long stopTime, double stopAltitude, boolean stopOnFuelOut,
+			boolean stopOnLanding) {
+		this.sequence = sequence;
+		this.name = name;
+		this.initial = initial;
+		this.windDirection = windDirection;
+		this.changeTimes = changeTimes;
+		this.changeControls = changeControls;
+		this.changeValues = changeValues;
+		this.stopTime = stopTime;
+		this.stopAltitude = stopAltitude;
+		this.stopOnFuelOut = stopOnFuelOut;
+		this.stopOnLanding = stopOnLanding;
+	}
+
+	/**
+	 * Gets the position of the scenario in its file, starting at 0.
+	 *
+	 * @return the sequence number
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Gets the name of the scenario.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Runs the scenario on the given balloon, which is reset first, and
+	 * returns one line of comma separated results: name, sequence, seconds
+	 * flown, final altitude, velocity, balloon temperature, remaining fuel,
+	 * peak altitude and the reason the flight stopped.
+	 *
+	 * @param b the balloon to reuse
+	 * @return the result line, without a line break
+	 */
+	public String run(Balloon b) {
+		b.reset();
+		double air = Double.isNaN(initial[AIR]) ? b.getOutsideAirTemp() : initial[AIR];
+		b.setOutsideAirTemp(air);
+		b.setBalloonTemp(Double.isNaN(initial[TEMP]) ? air : initial[TEMP]);
+		b.setMotion(0, 0, windDirection, 0);
+		b.setFuelRemaning(valueOr(FUEL, 0));
+		b.setFuelBurnRate(valueOr(BURN, 0));
+		b.setBalloonMass(valueOr(MASS, 0));
+		b.setTetherLength(valueOr(TETHER, 0));
+
+		int next = 0;
+		double peak = b.getAltitude();
+		boolean airborne = b.getAltitude() > 0;
+		String reason = "time";
+		long t = 0;
+		while (t < stopTime) {
+			while (next < changeTimes.length && changeTimes[next] <= t) {
+				apply(b, changeControls[next], changeValues[next]);
+				next++;
+			}
+			if (next == changeTimes.length && b.isSettled() && !canStop(b, airborne)) {
+				b.advance(stopTime - t); // Nothing can change any more, so skip to the end
+				t = stopTime;
+				break;
+			}
+			b.update();
+			t++;
+			double altitude = b.getAltitude();
+			peak = Math.max(peak, altitude);
+			if (altitude >= stopAltitude) {
+				reason = "altitude";
+				break;
+			}
+			if (stopOnFuelOut && b.getFuelRemaining() <= 0) {
+				reason = "fuel";
+				break;
+			}
+			if (altitude > 0) {
+				airborne = true;
+			} else if (stopOnLanding && airborne) {
+				reason = "landed";
+				break;
+			}
+		}
+		StringBuilder line = new StringBuilder(128);
+		line.append(name).append(',').append(sequence).append(',').append(t).append(',').append(b.getAltitude())
+				.append(',').append(b.getVelocity()).append(',').append(b.getBalloonTemp()).append(',')
+				.append(b.getFuelRemaining()).append(',').append(peak).append(',').append(reason);
+		return line.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "Scenario " + name + " (" + changeTimes.length + " changes, stop after " + stopTime + " s) "
+				+ Arrays.toString(initial);
+	}
+
+	/*
+	 * Checks if a stop condition would end the flight after the next second
+	 * of a settled balloon, which therefore must not be skipped.
+	 */
+	private boolean canStop(Balloon b, boolean airborne) {
+		double altitude = b.getAltitude();
+		return altitude >= stopAltitude || stopOnFuelOut && b.getFuelRemaining() <= 0
+				|| stopOnLanding && airborne && altitude <= 0;
+	}
+
+	/*
+	 * Gets the starting value of a control, or the default if it was not
+	 * given.
+	 */
+	private double valueOr(byte control, double defaultValue) {
+		return Double.isNaN(initial[control]) ? defaultValue : initial[control];
+	}
+
+	/*
+	 * Applies one scheduled change to the balloon.
+	 */
+	private static void apply(Balloon b, byte control, double value) {
+		switch (control) {
+		case AIR:
+			b.setOutsideAirTemp(value);
+			break;
+		case BURN:
+			b.setFuelBurnRate(value);
+			break;
+		case FUEL:
+			b.setFuelRemaning(value);
+			break;
+		case MASS:
+			b.setBalloonMass(value);
+			break;
+		case TETHER:
+			b.setTetherLength(value);
+			break;
+		case WIND:
+			b.changeWindDirection(value);
+			break;
+		case TEMP:
+			b.setBalloonTemp(value);
+			break;
+		default:
+			throw new IllegalStateException("Unknown control " + control);
+		}
+	}
+}
@@ -0,0 +1,283 @@
+package hw1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads scenarios one at a time from a scenario file, so files of any size
+ * can be processed without loading them. A scenario looks like this:
+ *
+ * <pre>
+ * scenario morning-climb
+ * air 18
+ * wind 90
+ * fuel 3000
+ * burn 10
+ * mass 150
+ * tether 200
+ * at 120 burn 0
+ * at 300 air 15
+ * stop time 3600
+ * stop altitude 150
+ * stop fuel
+ * stop landed
+ * end
+ * </pre>
+ *
+ * The controls are air (outside air temperature), temp (balloon temperature,
+ * the air temperature if left out), wind (starting direction; in an "at" line
+ * the change of direction), fuel, burn, mass and tether. Controls that are
+ * left out start at 0. "at N control value" changes a control before second N
+ * is simulated. "stop time N" sets the flight length (3600 seconds if left
+ * out); the other stop lines end the flight early when the altitude reaches a
+ * value, the fuel runs out or the balloon lands. Blank lines and lines
+ * starting with '#' are ignored.
+ *
+ * @author Adam Hmaddi
+ */
+public class ScenarioReader implements AutoCloseable {
+
+	private static final long DEFAULT_STOP_TIME = 3600;
+
+	private final BufferedReader in; // Source of the scenario lines
+	private long lineNumber; // Number of the last line read
+	private long sequence; // Number of scenarios read so far
+
+	private final String[] tokens = new String[4]; // Words of the current line
+	private final double[] initial = new double[7]; // Starting controls of the scenario being read
+	private long[] changeTimes = new long[16]; // Schedule of the scenario being read
+	private byte[] changeControls = new byte[16];
+	private double[] changeValues = new double[16];
+
+	/**
+	 * Creates a reader for the given scenario text.
+	 *
+	 * @param in the scenario file contents
+	 */
+	public ScenarioReader(Reader in) {
+		this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+	}
+
+	/**
+	 * Reads the next scenario.
+	 *
+	 * @return the scenario, or null at the end of the file
+	 * @throws IOException if the file cannot be read or is not valid
+	 */
+	public Scenario next() throws IOException {
+		String line;
+		String name = null;
+		while (name == null) {
+			line = readLine();
+			if (line == null) {
+				return null;
+			}
+			int count = split(line);
+			if (count == 0) {
+				continue;
+			}
+			if (count != 2 || !tokens[0].equals("scenario")) {
+				throw error("expected \"scenario <name>\"");
+			}
+			name = tokens[1];
+		}
+
+		Arrays.fill(initial, Double.NaN);
+		double windDirection = 0;
+		int changes = 0;
+		long stopTime = DEFAULT_STOP_TIME;
+		double stopAltitude = Double.NaN;
+		boolean stopOnFuelOut = false;
+		boolean stopOnLanding = false;
+		boolean sorted = true;
+
+		while (true) {
+			line = readLine();
+			if (line == null) {
+				throw error("scenario " + name + " has no \"end\"");
+			}
+			int count = split(line);
+			if (count == 0) {
+				continue;
+			}
+			String word = tokens[0];
+			if (word.equals("end") && count == 1) {
+				break;
+			} else if (word.equals("at") && count == 4) {
+				if (changes == changeTimes.length) {
+					changeTimes = Arrays.copyOf(changeTimes, changes * 2);
+					changeControls = Arrays.copyOf(changeControls, changes * 2);
+					changeValues = Arrays.copyOf(changeValues, changes * 2);
+				}
+				changeTimes[changes] = parseLong(tokens[1]);
+				changeControls[changes] = control(tokens[2]);
+				changeValues[changes] = parseDouble(tokens[3]);
+				if (changes > 0 && changeTimes[changes] < changeTimes[changes - 1]) {
+					sorted = false;
+				}
+				changes++;
+			} else if (word.equals("stop")) {
+				if (count == 3 && tokens[1].equals("time")) {
+					stopTime = parseLong(tokens[2]);
+				} else if (count == 3 && tokens[1].equals("altitude")) {
+					stopAltitude = parseDouble(tokens[2]);
+				} else if (count == 2 && tokens[1].equals("fuel")) {
+					stopOnFuelOut = true;
+				} else if (count == 2 && tokens[1].equals("landed")) {
+					stopOnLanding = true;
+				} else {
+					throw error("unknown stop condition");
+				}
+			} else if (count == 2) {
+				byte control = control(word);
+				if (control == Scenario.WIND) {
+					windDirection = parseDouble(tokens[1]);
+				} else {
+					initial[control] = parseDouble(tokens[1]);
+				}
+			} else {
+				throw error("cannot understand \"" + line.trim() + "\"");
+			}
+		}
+
+		long[] times = Arrays.copyOf(changeTimes, changes);
+		byte[] controls = Arrays.copyOf(changeControls, changes);
+		double[] values = Arrays.copyOf(changeValues, changes);
+		if (!sorted) {
+			sortByTime(times, controls, values);
+		}
+		return new Scenario(sequence++, name, initial.clone(), windDirection, times, controls, values, stopTime,
+				stopAltitude, stopOnFuelOut, stopOnLanding);
+	}
+
+	/**
+	 * Gets the number of the last line read, starting at 1.
+	 *
+	 * @return the line number
+	 */
+	public long getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * Closes the underlying reader.
+	 *
+	 * @throws IOException if it cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/*
+	 * Reads a line and counts it.
+	 */
+	private String readLine() throws IOException {
+		String line = in.readLine();
+		if (line != null) {
+			lineNumber++;
+		}
+		return line;
+	}
+
+	/*
+	 * Splits the line into at most four words separated by spaces or tabs.
+	 * Returns the number of words, or 5 if there are more than four.
+	 */
+	private int split(String line) {
+		int count = 0;
+		int i = 0;
+		int n = line.length();
+		while (i < n) {
+			char c = line.charAt(i);
+			if (c == ' ' || c == '\t') {
+				i++;
+				continue;
+			}
+			if (c == '#' && count == 0) {
+				return 0;
+			}
+			int start = i;
+			while (i < n && line.charAt(i) != ' ' && line.charAt(i) != '\t') {
+				i++;
+			}
+			if (count == tokens.length) {
+				return tokens.length + 1;
+			}
+			tokens[count++] = line.substring(start, i);
+		}
+		return count;
+	}
+
+	/*
+	 * Turns the name of a control into its code.
+	 */
+	private byte control(String word) throws IOException {
+		switch (word) {
+		case "air":
+			return Scenario.AIR;
+		case "burn":
+			return Scenario.BURN;
+		case "fuel":
+			return Scenario.FUEL;
+		case "mass":
+			return Scenario.MASS;
+		case "tether":
+			return Scenario.TETHER;
+		case "wind":
+			return Scenario.WIND;
+		case "temp":
+			return Scenario.TEMP;
+		default:
+			throw error("unknown control \"" + word + "\"");
+		}
+	}
+
+	private double parseDouble(String word) throws IOException {
+		try {
+			return Double.parseDouble(word);
+		} catch (NumberFormatException e) {
+			throw error("not a number: \"" + word + "\"");
+		}
+	}
+
+	private long parseLong(String word) throws IOException {
+		try {
+			long value = Long.parseLong(word);
+			if (value < 0) {
+				throw error("must not be negative: " + word);
+			}
+			return value;
+		} catch (NumberFormatException e) {
+			throw error("not a whole number: \"" + word + "\"");
+		}
+	}
+
+	private IOException error(String message) {
+		return new IOException("Line " + lineNumber + ": " + message);
+	}
+
+	/*
+	 * Sorts the schedule by time, keeping changes at the same second in file
+	 * order.
+	 */
+	private static void sortByTime(long[] times, byte[] controls, double[] values) {
+		for (int i = 1; i < times.length; i++) {
+			long t = times[i];
+			byte c = controls[i];
+			double v = values[i];
+			int j = i - 1;
+			while (j >= 0 && times[j] > t) {
+				times[j + 1] = times[j];
+				controls[j + 1] = controls[j];
+				values[j + 1] = values[j];
+				j--;
+			}
+			times[j + 1] = t;
+			controls[j + 1] = c;
+			values[j + 1] = v;
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package hw1;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every scenario of a scenario file without a user interface. The file
+ * is read one scenario at a time while a pool of worker threads runs the
+ * scenarios read so far, each worker reusing one Balloon. Only a bounded
+ * number of scenarios wait in memory at any time. Results are written one line
+ * per scenario as soon as they are ready: in unordered mode in the order they
+ * finish, in ordered mode in the order of the file.
+ *
+ * <p>
+ * From the command line:
+ * <code>java hw1.ScenarioRunner scenarios.txt [threads] [ordered|unordered]</code>
+ * reads the file and writes the results to standard output.
+ *
+ * @author Adam Hmaddi
+ */
+public class ScenarioRunner {
+
+	/**
+	 * The header line written before the results.
+	 */
+	public static final String HEADER = "name,sequence,seconds,altitude,velocity,balloonTemp,fuelRemaining,peakAltitude,stopReason";
+
+	private final int threads; // Number of worker threads
+	private final boolean ordered; // True to write results in file order
+
+	/**
+	 * Creates a runner.
+	 *
+	 * @param threads the number of worker threads
+	 * @param ordered true to write results in the order of the file, false to
+	 *                write them as they finish
+	 */
+	public ScenarioRunner(int threads, boolean ordered) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("threads must be positive: " + threads);
+		}
+		this.threads = threads;
+		this.ordered = ordered;
+	}
+
+	/**
+	 * Runs every scenario read from the input and writes the header and one
+	 * result line per scenario to the output.
+	 *
+	 * @param in  the scenario file contents
+	 * @param out receives the results
+	 * @return the number of scenarios run
+	 * @throws IOException if the input is not valid or the output cannot be
+	 *                     written
+	 */
+	public long run(Reader in, Writer out) throws IOException {
+		ResultWriter results = new ResultWriter(out);
+		results.writeLine(HEADER);
+		int window = threads * 8;
+		Semaphore slots = new Semaphore(window);
+		ThreadLocal<Balloon> balloons = ThreadLocal.withInitial(() -> new Balloon(0, 0));
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		long count = 0;
+		try (ScenarioReader reader = new ScenarioReader(in)) {
+			Scenario scenario;
+			while ((scenario = reader.next()) != null) {
+				acquire(slots);
+				results.check();
+				Scenario s = scenario;
+				pool.execute(() -> {
+					try {
+						results.add(s.getSequence(), s.run(balloons.get()));
+					} catch (Throwable t) {
+						results.fail(t);
+					} finally {
+						slots.release();
+					}
+				});
+				count++;
+			}
+			acquire(slots, window);
+			results.check();
+		} finally {
+			pool.shutdownNow();
+			try {
+				pool.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		out.flush();
+		return count;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("usage: java hw1.ScenarioRunner scenarios.txt [threads] [ordered|unordered]");
+			return;
+		}
+		int threads = args.length > 1 ? Integer.parseInt(args[1])
+				: Runtime.getRuntime().availableProcessors();
+		boolean ordered = args.length <= 2 || !args[2].equals("unordered");
+		Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+		long start = System.nanoTime();
+		long count;
+		try (Reader in = new InputStreamReader(Files.newInputStream(Paths.get(args[0])), StandardCharsets.UTF_8)) {
+			count = new ScenarioRunner(threads, ordered).run(in, out);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.err.printf("%d scenarios in %.3f s (%.0f scenarios/sec)%n", count, seconds, count / seconds);
+	}
+
+	private static void acquire(Semaphore slots) throws IOException {
+		acquire(slots, 1);
+	}
+
+	private static void acquire(Semaphore slots, int permits) throws IOException {
+		try {
+			slots.acquire(permits);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while running scenarios", e);
+		}
+	}
+
+	/*
+	 * Writes result lines from the worker threads. In ordered mode lines that
+	 * finish early wait in a map until all earlier lines have been written.
+	 */
+	private class ResultWriter {
+
+		private final Writer out; // Destination of the lines
+		private final Map<Long, String> waiting = new HashMap<>(); // Finished lines that are not written yet
+		private long nextSequence; // Sequence number of the next line to write in ordered mode
+		private Throwable failure; // First error from a worker
+
+		ResultWriter(Writer out) {
+			this.out = out;
+		}
+
+		synchronized void add(long sequence, String line) throws IOException {
+			if (!ordered) {
+				writeLine(line);
+				return;
+			}
+			waiting.put(sequence, line);
+			String next;
+			while ((next = waiting.remove(nextSequence)) != null) {
+				writeLine(next);
+				nextSequence++;
+			}
+		}
+
+		synchronized void writeLine(String line) throws IOException {
+			out.write(line);
+			out.write('\n');
+		}
+
+		synchronized void fail(Throwable t) {
+			if (failure == null) {
+				failure = t;
+			}
+		}
+
+		synchronized void check() throws IOException {
+			if (failure instanceof IOException) {
+				throw (IOException) failure;
+			}
+			if (failure instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) failure).getCause();
+			}
+			if (failure != null) {
+				throw new IOException("Scenario failed", failure);
+			}
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package hw1;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Checks that the stop conditions of a scenario still end a flight that
+ * starts out settled, where Scenario.run() would otherwise skip to the end.
+ */
+public class ScenarioTests {
+	public static void main(String args[]) throws IOException {
+		String text = "scenario empty-tank\n"
+				+ "air 15\nmass 150\nburn 10\nfuel 0\nstop fuel\nend\n"
+				+ "scenario small-tank\n"
+				+ "air 15\nmass 150\nburn 10\nfuel 5\nstop fuel\nend\n"
+				+ "scenario on-tether\n"
+				+ "air 15\nmass 150\ntether 0\nstop altitude 0\nend\n"
+				+ "scenario resting\n"
+				+ "air 15\nmass 150\nburn 10\nfuel 0\nend\n";
+		Balloon b = new Balloon(15, 0);
+		try (ScenarioReader in = new ScenarioReader(new StringReader(text))) {
+			System.out.println("Test 1:");
+			String[] r = in.next().run(b).split(",");
+			System.out.println("Seconds is " + r[2] + " expected 1.");
+			System.out.println("Reason is " + r[8] + " expected fuel.");
+
+			System.out.println("Test 2:");
+			r = in.next().run(b).split(",");
+			System.out.println("Seconds is " + r[2] + " expected 1.");
+			System.out.println("Reason is " + r[8] + " expected fuel.");
+
+			System.out.println("Test 3:");
+			r = in.next().run(b).split(",");
+			System.out.println("Seconds is " + r[2] + " expected 1.");
+			System.out.println("Reason is " + r[8] + " expected altitude.");
+
+			System.out.println("Test 4:");
+			r = in.next().run(b).split(",");
+			System.out.println("Seconds is " + r[2] + " expected 3600.");
+			System.out.println("Reason is " + r[8] + " expected time.");
+		}
+	}
+}
@@ -93,5 +93,33 @@ public class SimpleTests4 {
 		System.out.println("Balloon velocity is " + b.getVelocity() + " expected -1.56...");
 		System.out.println("Altitude is " + b.getAltitude() + " expected 2.14...");
 
+		
+		System.out.println("Test 7:");
+		Balloon stepped = new Balloon(15, 0);
+		Balloon jumped = new Balloon(15, 0);
+		stepped.setBalloonMass(150);
+		jumped.setBalloonMass(150);
+		stepped.setFuelRemaning(3000);
+		jumped.setFuelRemaning(3000);
+		stepped.setFuelBurnRate(10);
+		jumped.setFuelBurnRate(10);
+		stepped.setTetherLength(200);
+		jumped.setTetherLength(200);
+		for (int i = 0; i < 6 * 60 * 60; i++) {
+			stepped.update();
+		}
+		jumped.advance(6 * 60 * 60);
+		System.out.println("Minutes is " + jumped.getMinutes() + " expected 360.");
+		System.out.println("Seconds is " + jumped.getSeconds() + " expected 0.");
+		System.out.println("Altitude is " + jumped.getAltitude() + " expected " + stepped.getAltitude() + ".");
+		System.out.println("Balloon temperature is " + jumped.getBalloonTemp() + " expected " + stepped.getBalloonTemp() + ".");
+		System.out.println("Fuel remaining is " + jumped.getFuelRemaining() + " expected 0.");
+		// The jumped velocity is one multiplication instead of 21600 additions,
+		// so it is only equal to the stepped one up to rounding.
+		double difference = Math.abs(jumped.getVelocity() - stepped.getVelocity());
+		double tolerance = 1e-11 * Math.abs(stepped.getVelocity());
+		System.out.println("Balloon velocity difference is " + difference + ", within " + tolerance + " is "
+				+ (difference <= tolerance) + " expected true.");
+
 	}
 }
@@ -0,0 +1,95 @@
+package hw1;
+
+/**
+ * Checks that a restored snapshot continues exactly like the original flight,
+ * and that branches advanced in parallel give the same results as advancing
+ * them one by one.
+ */
+public class SnapshotTests {
+	public static void main(String args[]) {
+		for (Integrator integrator : Integrator.values()) {
+			System.out.println("Test " + (integrator.ordinal() + 1) + ":");
+			Balloon b = flight(integrator);
+			for (int t = 0; t < 300; t++) {
+				b.update();
+			}
+			BalloonSnapshot saved = b.snapshot();
+			fly(b, 600);
+			BalloonSnapshot expected = b.snapshot();
+
+			Balloon copy = new Balloon(saved);
+			fly(copy, 600);
+			System.out.println("Copy matches is " + copy.snapshot().equals(expected) + " expected true.");
+
+			Balloon other = new Balloon(0, 90);
+			other.restore(saved);
+			fly(other, 600);
+			System.out.println("Restored matches is " + other.snapshot().equals(expected) + " expected true.");
+
+			b.restore(saved);
+			System.out.println("Rewound is " + b.snapshot().equals(saved) + " expected true.");
+			fly(b, 600);
+			System.out.println("Replay matches is " + b.snapshot().equals(expected) + " expected true.");
+		}
+
+		System.out.println("Test 3:");
+		Balloon start = flight(Integrator.EULER);
+		fly(start, 120);
+		BalloonSnapshot from = start.snapshot();
+		Balloon[] parallel = BalloonBranches.branch(from, 16, SnapshotTests::setUp, 3600);
+		Balloon[] again = BalloonBranches.branch(from, 16, SnapshotTests::setUp, 3600);
+		int differences = 0;
+		int distinct = 0;
+		for (int i = 0; i < parallel.length; i++) {
+			Balloon alone = new Balloon(from);
+			setUp(alone, i);
+			alone.advance(3600);
+			if (!parallel[i].snapshot().equals(alone.snapshot()) || !again[i].snapshot().equals(alone.snapshot())) {
+				differences++;
+			}
+			if (i > 0 && !parallel[i].snapshot().equals(parallel[i - 1].snapshot())) {
+				distinct++;
+			}
+		}
+		System.out.println("Branches differing from one by one is " + differences + " expected 0.");
+		System.out.println("Branches differing from the one before is " + distinct + " expected 15.");
+		System.out.println("Start unchanged is " + start.snapshot().equals(from) + " expected true.");
+	}
+
+	/*
+	 * Creates a balloon in the standard atmosphere with wind, so every part
+	 * of the state changes during the flight.
+	 */
+	private static Balloon flight(Integrator integrator) {
+		Balloon b = new Balloon(18, 45);
+		b.setIntegrator(integrator);
+		b.setAtmosphere(StandardAtmosphere.ISA);
+		b.setWindSpeed(4);
+		b.setBalloonMass(150);
+		b.setFuelRemaning(4000);
+		b.setFuelBurnRate(10);
+		b.setTetherLength(2000);
+		return b;
+	}
+
+	/*
+	 * Updates the balloon for the given number of seconds, changing the burn
+	 * rate and wind along the way.
+	 */
+	private static void fly(Balloon b, int seconds) {
+		for (int t = 0; t < seconds; t++) {
+			if (t % 100 == 50) {
+				b.setFuelBurnRate(b.getFuelBurnRate() == 0 ? 10 : 0);
+				b.changeWindDirection(15);
+			}
+			b.update();
+		}
+	}
+
+	/*
+	 * Gives each branch its own burn rate.
+	 */
+	private static void setUp(Balloon b, int branch) {
+		b.setFuelBurnRate(branch);
+	}
+}
@@ -0,0 +1,84 @@
+package hw1;
+
+/**
+ * The International Standard Atmosphere: the temperature falls by 6.5 degrees
+ * per kilometer up to 11 km and stays the same above that, and the pressure
+ * falls with the weight of the air above. Pressure and temperature are
+ * calculated once into a table with one entry per meter up to 20 km, and
+ * update() reads them back with a linear interpolation between two entries,
+ * which costs about as much as the constants of the original model. Above the
+ * table the values at its top are used, below the ground the values on the
+ * ground.
+ *
+ * @author Adam Hmaddi
+ */
+public final class StandardAtmosphere implements Atmosphere {
+
+	/**
+	 * The standard atmosphere with a table up to 20 km.
+	 */
+	public static final StandardAtmosphere ISA = new StandardAtmosphere();
+
+	static final double LAPSE_RATE = 0.0065; // Temperature drop per meter in the troposphere
+	static final double TROPOPAUSE = 11000; // Altitude where the temperature stops falling, in meters
+	static final double SEA_LEVEL_TEMP = 288.15; // Standard temperature on the ground, in Kelvin
+	static final double MOLAR_MASS = 0.0289644; // Molar mass of dry air in kilograms per mole
+	static final double UNIVERSAL_GAS = 8.3144598; // Universal gas constant in Joule per mole Kelvin
+
+	private static final int TOP = 20000; // Highest altitude in the table, in meters
+
+	private final double[] table; // Pressure and temperature drop at each meter, side by side
+
+	private StandardAtmosphere() {
+		table = new double[2 * (TOP + 1)];
+		double exponent = Balloon.gravity * MOLAR_MASS / (UNIVERSAL_GAS * LAPSE_RATE);
+		double tropopauseTemp = SEA_LEVEL_TEMP - LAPSE_RATE * TROPOPAUSE;
+		double tropopausePressure = Balloon.STANDARD_PRESSURE * Math.pow(tropopauseTemp / SEA_LEVEL_TEMP, exponent);
+		for (int h = 0; h <= TOP; h++) {
+			double pressure;
+			double drop;
+			if (h <= TROPOPAUSE) {
+				drop = LAPSE_RATE * h;
+				pressure = Balloon.STANDARD_PRESSURE * Math.pow((SEA_LEVEL_TEMP - drop) / SEA_LEVEL_TEMP, exponent);
+			} else {
+				drop = LAPSE_RATE * TROPOPAUSE;
+				pressure = tropopausePressure
+						* Math.exp(-Balloon.gravity * MOLAR_MASS * (h - TROPOPAUSE) / (UNIVERSAL_GAS * tropopauseTemp));
+			}
+			table[2 * h] = pressure;
+			table[2 * h + 1] = drop;
+		}
+	}
+
+	@Override
+	public double pressure(double altitude) {
+		return lookUp(altitude, 0);
+	}
+
+	@Override
+	public double temperatureDrop(double altitude) {
+		return lookUp(altitude, 1);
+	}
+
+	@Override
+	public String toString() {
+		return "standard atmosphere";
+	}
+
+	/*
+	 * Interpolates one of the two columns of the table at the given
+	 * altitude.
+	 */
+	private double lookUp(double altitude, int column) {
+		if (!(altitude > 0)) {
+			return table[column];
+		}
+		if (altitude >= TOP) {
+			return table[2 * TOP + column];
+		}
+		int h = (int) altitude;
+		double fraction = altitude - h;
+		double below = table[2 * h + column];
+		return below + (table[2 * h + 2 + column] - below) * fraction;
+	}
+}
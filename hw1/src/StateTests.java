@@ -0,0 +1,78 @@
+package hw1;
+
+/**
+ * Checks that BalloonState.step() gives exactly what Balloon.update() gives
+ * and that a StepCache gives exactly what stepping gives.
+ */
+public class StateTests {
+	public static void main(String args[]) {
+		System.out.println("Test 1:");
+		int mismatches = 0;
+		for (int i = 0; i < 8; i++) {
+			Balloon b = new Balloon(10 + i, i * 45);
+			b.setBalloonMass(100 + 10 * i);
+			b.setFuelRemaning(400 + 50 * i);
+			b.setFuelBurnRate(8 + i);
+			b.setTetherLength(150 + 20 * i);
+			b.setWindSpeed(i % 4);
+			if (i % 2 == 1) {
+				b.setAtmosphere(StandardAtmosphere.ISA);
+			}
+			b.setFastPhysics(i % 4 >= 2);
+			BalloonState s = b.getState();
+			BalloonControls c = b.getControls();
+			for (int t = 0; t < 600; t++) {
+				b.update();
+				s = BalloonState.step(s, c);
+				if (!s.equals(b.getState())) {
+					mismatches++;
+				}
+			}
+		}
+		System.out.println("Mismatches after 600 seconds: " + mismatches + " expected 0.");
+
+		System.out.println("Test 2:");
+		Balloon b = new Balloon(15, 90);
+		b.setBalloonMass(120);
+		b.setFuelRemaning(500);
+		b.setFuelBurnRate(12);
+		b.setTetherLength(200);
+		BalloonState start = b.getState();
+		for (int t = 0; t < 100; t++) {
+			b.update();
+		}
+		BalloonState after = b.getState();
+		b.setState(start);
+		System.out.println("Altitude after setState is " + b.getAltitude() + " expected 0.0.");
+		for (int t = 0; t < 100; t++) {
+			b.update();
+		}
+		System.out.println("Same state after replay is " + after.equals(b.getState()) + " expected true.");
+
+		System.out.println("Test 3:");
+		StepCache cache = new StepCache(1 << 16, 50);
+		BalloonControls c = b.getControls();
+		int different = 0;
+		for (int run = 0; run < 10; run++) {
+			BalloonState s = start;
+			for (long seconds = 1; seconds <= 13; seconds++) {
+				BalloonState cached = cache.advance(s, c, seconds * 37);
+				s = BalloonState.step(s, c, seconds * 37);
+				if (!cached.equals(s)) {
+					different++;
+				}
+			}
+		}
+		System.out.println("Differences from stepping: " + different + " expected 0.");
+		System.out.println("Hits " + cache.getHits() + " expected " + 9 * cache.getMisses() + ".");
+
+		System.out.println("Test 4:");
+		StepCache rounded = new StepCache(1024, 100, 1e-3);
+		BalloonState exact = BalloonState.step(start, c, 300);
+		rounded.advance(start, c, 300);
+		BalloonState close = new BalloonState(0, start.balloonTemp + 1e-6, 0, 0, 500, 0, 0, 0);
+		BalloonState shared = rounded.advance(close, c, 300);
+		System.out.println("Hits " + rounded.getHits() + " expected 3.");
+		System.out.println("Same as the exact flight is " + shared.equals(exact) + " expected true.");
+	}
+}
@@ -0,0 +1,189 @@
+package hw1;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers where a BalloonState ends up after a segment of seconds with
+ * given BalloonControls, so flights that pass through the same state, such
+ * as the members of a sweep that share a launch and differ only later, reuse
+ * the work instead of repeating it.
+ *
+ * <p>
+ * One step is a few additions and divisions, cheaper than looking it up, so
+ * the cache stores whole segments of a fixed number of seconds and steps one
+ * second at a time only for the rest of an interval. The key is the state
+ * without its time, each value rounded to a multiple of the quantum, plus
+ * the controls. With a quantum of 0 the values are compared bit by bit and
+ * advance() gives exactly what stepping gives. With a larger quantum states
+ * that differ by less than it share one result, which is faster but only
+ * approximate.
+ *
+ * <p>
+ * The table is direct mapped: each key has one slot and a new segment
+ * replaces whatever was there. Entries are immutable, so any number of
+ * threads can use one cache without locking; a thread that misses a
+ * segment another thread is storing just computes it itself.
+ *
+ * @author Adam Hmaddi
+ */
+public class StepCache {
+
+	private final int segment; // Seconds covered by one entry
+	private final double quantum; // Rounding of the state in the key, 0 for exact
+	private final Entry[] table; // Stored segments
+	private final int mask; // Table size - 1
+	private final LongAdder hits = new LongAdder(); // Segments found
+	private final LongAdder misses = new LongAdder(); // Segments computed
+
+	/**
+	 * Creates a cache that compares states exactly.
+	 *
+	 * @param capacity the number of slots, rounded up to a power of two
+	 * @param segment  the number of seconds covered by one entry
+	 */
+	public StepCache(int capacity, int segment) {
+		this(capacity, segment, 0);
+	}
+
+	/**
+	 * Creates a cache.
+	 *
+	 * @param capacity the number of slots, rounded up to a power of two
+	 * @param segment  the number of seconds covered by one entry
+	 * @param quantum  the rounding of the state in the key, 0 to compare states
+	 *                 exactly
+	 */
+	public StepCache(int capacity, int segment, double quantum) {
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+		}
+		if (segment < 1) {
+			throw new IllegalArgumentException("segment must be at least 1: " + segment);
+		}
+		if (!(quantum >= 0) || Double.isInfinite(quantum)) {
+			throw new IllegalArgumentException("quantum must be 0 or positive and finite: " + quantum);
+		}
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		this.segment = segment;
+		this.quantum = quantum;
+		table = new Entry[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Moves a state forward by the given number of seconds with the same
+	 * controls, reusing the stored segments.
+	 *
+	 * @param state    the starting state
+	 * @param controls the controls
+	 * @param seconds  the number of seconds
+	 * @return the state after those seconds
+	 */
+	public BalloonState advance(BalloonState state, BalloonControls controls, long seconds) {
+		if (seconds < 0) {
+			throw new IllegalArgumentException("seconds must not be negative: " + seconds);
+		}
+		for (; seconds >= segment; seconds -= segment) {
+			state = segment(state, controls);
+		}
+		return BalloonState.step(state, controls, seconds);
+	}
+
+	/**
+	 * Gets the number of segments found in the cache.
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of segments that had to be computed.
+	 *
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Gets the number of seconds covered by one entry.
+	 *
+	 * @return the segment length
+	 */
+	public int getSegment() {
+		return segment;
+	}
+
+	/*
+	 * Moves a state forward by one segment, from the table if the segment is
+	 * there and by stepping otherwise.
+	 */
+	private BalloonState segment(BalloonState state, BalloonControls controls) {
+		long temp = quantize(state.balloonTemp);
+		long altitude = quantize(state.altitude);
+		long velocity = quantize(state.velocity);
+		long remainFuel = quantize(state.remainFuel);
+		long east = quantize(state.east);
+		long north = quantize(state.north);
+		long h = temp;
+		h = h * 31 + altitude;
+		h = h * 31 + velocity;
+		h = h * 31 + remainFuel;
+		h = h * 31 + east;
+		h = h * 31 + north;
+		h = h * 31 + controls.hashCode();
+		int slot = (int) ((h * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+		Entry e = table[slot];
+		if (e != null && e.temp == temp && e.altitude == altitude && e.velocity == velocity
+				&& e.remainFuel == remainFuel && e.east == east && e.north == north && e.controls.equals(controls)) {
+			hits.increment();
+			return e.end.withTime(state.simulationTime + segment);
+		}
+		misses.increment();
+		BalloonState end = BalloonState.step(state, controls, segment);
+		table[slot] = new Entry(temp, altitude, velocity, remainFuel, east, north, controls, end);
+		return end;
+	}
+
+	/*
+	 * Gets the key of one value: its bits when comparing exactly, the nearest
+	 * multiple of the quantum otherwise.
+	 */
+	private long quantize(double value) {
+		if (quantum == 0) {
+			return Double.doubleToLongBits(value);
+		}
+		return Math.round(value / quantum);
+	}
+
+	/*
+	 * One stored segment: the key and the state at its end.
+	 */
+	private static final class Entry {
+		final long temp;
+		final long altitude;
+		final long velocity;
+		final long remainFuel;
+		final long east;
+		final long north;
+		final BalloonControls controls;
+		final BalloonState end;
+
+		Entry(long temp, long altitude, long velocity, long remainFuel, long east, long north,
+				BalloonControls controls, BalloonState end) {
+			this.temp = temp;
+			this.altitude = altitude;
+			this.velocity = velocity;
+			this.remainFuel = remainFuel;
+			this.east = east;
+			this.north = north;
+			this.controls = controls;
+			this.end = end;
+		}
+	}
+}
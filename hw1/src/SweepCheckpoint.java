@@ -0,0 +1,214 @@
+package hw1;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The progress of a BalloonSweep at one moment, as written to and read from a
+ * checkpoint file. The grid is split into chunks of consecutive scenarios that
+ * are each run in order by one thread, so the progress of a chunk is the first
+ * scenario whose result has not been handed to the sink yet, and, if that
+ * scenario is part way through, everything needed to continue it: the
+ * complete state of its balloon and what has been seen of the flight so far.
+ *
+ * <p>
+ * The file holds a few bytes per chunk plus about 170 bytes per flight in
+ * progress. It is written to a temporary file next to the checkpoint, forced
+ * to the disk, and then moved over the checkpoint, so a crash while writing
+ * leaves the previous checkpoint in place.
+ *
+ * @author Adam Hmaddi
+ */
+final class SweepCheckpoint {
+
+	private static final int MAGIC = 0x42535750; // "BSWP"
+	private static final int VERSION = 2;
+
+	final long size; // Number of scenarios in the grid
+	final long fingerprint; // Identifies the grid and the length of the scenarios
+	final long grain; // Number of scenarios per chunk
+	final long[] next; // First scenario of each chunk not handed to the sink
+	final InFlight[] flights; // Scenario part way through in each chunk, or null
+
+	/**
+	 * A scenario part way through.
+	 */
+	static final class InFlight {
+
+		final BalloonSnapshot state; // Complete state of the balloon
+		final long seconds; // Seconds simulated so far
+		final double peak; // Highest altitude so far
+		final long secondsToTether; // First second at the tether, or -1
+		final long secondsToFuelOut; // First second without fuel, or -1
+
+		InFlight(BalloonSnapshot state, long seconds, double peak, long secondsToTether, long secondsToFuelOut) {
+			this.state = state;
+			this.seconds = seconds;
+			this.peak = peak;
+			this.secondsToTether = secondsToTether;
+			this.secondsToFuelOut = secondsToFuelOut;
+		}
+	}
+
+	SweepCheckpoint(long size, long fingerprint, long grain, long[] next, InFlight[] flights) {
+		this.size = size;
+		this.fingerprint = fingerprint;
+		this.grain = grain;
+		this.next = next;
+		this.flights = flights;
+	}
+
+	/**
+	 * Creates the progress of a sweep that has not started.
+	 *
+	 * @param sweep the sweep
+	 * @param grain the number of scenarios per chunk, at least 1
+	 * @return the progress
+	 */
+	static SweepCheckpoint start(BalloonSweep sweep, long grain) {
+		long size = sweep.size();
+		int chunks = (int) ((size + grain - 1) / grain);
+		long[] next = new long[chunks];
+		for (int i = 0; i < chunks; i++) {
+			next[i] = i * grain;
+		}
+		return new SweepCheckpoint(size, sweep.fingerprint(), grain, next, new InFlight[chunks]);
+	}
+
+	/**
+	 * Checks if this progress was made by the given sweep.
+	 *
+	 * @param sweep the sweep
+	 * @return true if the grid and scenario length are the same
+	 */
+	boolean belongsTo(BalloonSweep sweep) {
+		return size == sweep.size() && fingerprint == sweep.fingerprint();
+	}
+
+	/**
+	 * Gets the first scenario of the given chunk.
+	 *
+	 * @param chunk the chunk
+	 * @return the scenario index
+	 */
+	long chunkStart(int chunk) {
+		return chunk * grain;
+	}
+
+	/**
+	 * Gets one past the last scenario of the given chunk.
+	 *
+	 * @param chunk the chunk
+	 * @return the scenario index
+	 */
+	long chunkEnd(int chunk) {
+		return Math.min(size, (chunk + 1) * grain);
+	}
+
+	/**
+	 * Gets the number of scenarios whose result has not been handed to the
+	 * sink.
+	 *
+	 * @return the number of scenarios
+	 */
+	long remaining() {
+		long remaining = 0;
+		for (int i = 0; i < next.length; i++) {
+			remaining += chunkEnd(i) - next[i];
+		}
+		return remaining;
+	}
+
+	/**
+	 * Writes the progress to the given file, replacing it in one step.
+	 *
+	 * @param file the checkpoint file
+	 * @throws IOException if it cannot be written
+	 */
+	void write(Path file) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeLong(size);
+			out.writeLong(fingerprint);
+			out.writeLong(grain);
+			out.writeInt(next.length);
+			for (int i = 0; i < next.length; i++) {
+				out.writeLong(next[i]);
+				InFlight flight = flights[i];
+				out.writeBoolean(flight != null);
+				if (flight != null) {
+					out.writeLong(flight.seconds);
+					out.writeDouble(flight.peak);
+					out.writeLong(flight.secondsToTether);
+					out.writeLong(flight.secondsToFuelOut);
+					BalloonJournal.writeState(out, flight.state);
+				}
+			}
+			out.flush();
+			channel.force(true);
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads the progress from the given file.
+	 *
+	 * @param file the checkpoint file
+	 * @return the progress
+	 * @throws IOException if it cannot be read or is not a valid checkpoint
+	 */
+	static SweepCheckpoint read(Path file) throws IOException {
+		try (InputStream stream = Files.newInputStream(file)) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a sweep checkpoint: " + file);
+			}
+			int version = in.readUnsignedByte();
+			if (version != VERSION) {
+				throw new IOException("Unsupported checkpoint version " + version);
+			}
+			long size = in.readLong();
+			long fingerprint = in.readLong();
+			long grain = in.readLong();
+			int chunks = in.readInt();
+			if (grain < 1 || size < 0 || chunks != (size + grain - 1) / grain) {
+				throw new IOException("Checkpoint chunks do not cover the grid: " + file);
+			}
+			SweepCheckpoint checkpoint = new SweepCheckpoint(size, fingerprint, grain, new long[chunks],
+					new InFlight[chunks]);
+			for (int i = 0; i < chunks; i++) {
+				long next = in.readLong();
+				if (next < checkpoint.chunkStart(i) || next > checkpoint.chunkEnd(i)) {
+					throw new IOException("Checkpoint cursor outside its chunk: " + next);
+				}
+				checkpoint.next[i] = next;
+				if (in.readBoolean()) {
+					long seconds = in.readLong();
+					double peak = in.readDouble();
+					long secondsToTether = in.readLong();
+					long secondsToFuelOut = in.readLong();
+					checkpoint.flights[i] = new InFlight(BalloonJournal.readState(in), seconds, peak,
+							secondsToTether, secondsToFuelOut);
+				}
+			}
+			return checkpoint;
+		} catch (EOFException e) {
+			throw new IOException("Checkpoint is cut short: " + file, e);
+		}
+	}
+}
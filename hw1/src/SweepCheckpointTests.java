@@ -0,0 +1,111 @@
+package hw1;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that a BalloonSweep stopped part way and resumed from its checkpoint
+ * hands the sink every result exactly once, and the same results as a run
+ * that was never stopped.
+ */
+public class SweepCheckpointTests {
+	public static void main(String args[]) throws IOException {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		Path dir = Files.createTempDirectory("sweep");
+		Path file = dir.resolve("sweep.ckpt");
+
+		BalloonSweep sweep = new BalloonSweep(new double[] { 0, 2, 4, 6, 8 }, new double[] { 100, 150, 200 },
+				new double[] { 0, 15, 30 }, new double[] { 20, 100 }, 500, 3000);
+		Map<Long, String> expected = new ConcurrentHashMap<>();
+		sweep.run(pool, collect(expected));
+
+		System.out.println("Test 1:");
+		Map<Long, String> results = new ConcurrentHashMap<>();
+		sweep.run(pool, collect(results), file, 10);
+		System.out.println("Same results is " + results.equals(expected) + " expected true.");
+
+		System.out.println("Test 2:");
+		results = new ConcurrentHashMap<>();
+		try {
+			sweep.run(pool, failAfter(40, collect(results)), file, 10);
+		} catch (IllegalStateException e) {
+			System.out.println("Results before the failure: " + results.size() + " expected 40.");
+		}
+		AtomicInteger duplicates = new AtomicInteger();
+		SweepStats stats = sweep.resume(pool, collectOnce(results, duplicates), file, 10);
+		System.out.println("Resumed scenarios: " + stats.getScenarios() + " expected " + (sweep.size() - 40) + ".");
+		System.out.println("Duplicates: " + duplicates + " expected 0.");
+		System.out.println("Same results is " + results.equals(expected) + " expected true.");
+
+		System.out.println("Test 3:");
+		// Burning balloons never settle, so each scenario runs for all its seconds
+		BalloonSweep longSweep = new BalloonSweep(new double[] { 5, 6, 7, 8 }, new double[] { 100, 150 },
+				new double[] { 10 }, new double[] { 60 }, 1e9, 100000);
+		expected = new ConcurrentHashMap<>();
+		longSweep.run(pool, collect(expected));
+		results = new ConcurrentHashMap<>();
+		try {
+			longSweep.run(pool, failAfter(3, collect(results)), file, 10);
+		} catch (IllegalStateException e) {
+			// Stopped with the other worker part way through a scenario
+		}
+		SweepCheckpoint saved = SweepCheckpoint.read(file);
+		int inFlight = 0;
+		for (SweepCheckpoint.InFlight flight : saved.flights) {
+			if (flight != null) {
+				inFlight++;
+			}
+		}
+		System.out.println("Scenarios in progress is " + (inFlight > 0) + " expected true.");
+		duplicates = new AtomicInteger();
+		longSweep.resume(pool, collectOnce(results, duplicates), file, 10);
+		System.out.println("Duplicates: " + duplicates + " expected 0.");
+		System.out.println("Same results is " + results.equals(expected) + " expected true.");
+
+		System.out.println("Test 4:");
+		try {
+			sweep.resume(pool, collect(results), file, 10);
+			System.out.println("No exception, expected IOException.");
+		} catch (IOException e) {
+			System.out.println("Different sweep is " + e.getMessage().startsWith("Checkpoint belongs to a different")
+					+ " expected true.");
+		}
+
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(dir);
+		pool.shutdown();
+	}
+
+	private static SweepSink collect(Map<Long, String> results) {
+		return (index, burnRate, mass, airTemp, tetherLength, peakAltitude, secondsToTether, secondsToFuelOut) -> results
+				.put(index, burnRate + " " + mass + " " + airTemp + " " + tetherLength + " " + peakAltitude + " "
+						+ secondsToTether + " " + secondsToFuelOut);
+	}
+
+	private static SweepSink collectOnce(Map<Long, String> results, AtomicInteger duplicates) {
+		Map<Long, String> fresh = new ConcurrentHashMap<>();
+		SweepSink sink = collect(fresh);
+		return (index, burnRate, mass, airTemp, tetherLength, peakAltitude, secondsToTether, secondsToFuelOut) -> {
+			if (results.containsKey(index)) {
+				duplicates.incrementAndGet();
+			}
+			sink.accept(index, burnRate, mass, airTemp, tetherLength, peakAltitude, secondsToTether, secondsToFuelOut);
+			results.put(index, fresh.get(index));
+		};
+	}
+
+	private static SweepSink failAfter(int count, SweepSink sink) {
+		AtomicInteger accepted = new AtomicInteger();
+		return (index, burnRate, mass, airTemp, tetherLength, peakAltitude, secondsToTether, secondsToFuelOut) -> {
+			if (accepted.getAndIncrement() >= count) {
+				throw new IllegalStateException("node preempted");
+			}
+			sink.accept(index, burnRate, mass, airTemp, tetherLength, peakAltitude, secondsToTether, secondsToFuelOut);
+		};
+	}
+}
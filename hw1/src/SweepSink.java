@@ -0,0 +1,28 @@
+package hw1;
+
+/**
+ * Receives the result of each scenario of a BalloonSweep as soon as it is
+ * finished. Results arrive from several worker threads at once and in no
+ * particular order, so implementations must be thread safe.
+ *
+ * @author Adam Hmaddi
+ */
+public interface SweepSink {
+
+	/**
+	 * Called once for every scenario in the sweep.
+	 *
+	 * @param index            the position of the scenario in the grid
+	 * @param burnRate         the fuel burn rate of the scenario
+	 * @param mass             the balloon mass of the scenario
+	 * @param airTemp          the outside air temperature of the scenario
+	 * @param tetherLength     the tether length of the scenario
+	 * @param peakAltitude     the highest altitude the balloon reached
+	 * @param secondsToTether  the first second at which the balloon was at the
+	 *                         end of the tether, or -1 if it never got there
+	 * @param secondsToFuelOut the first second at which no fuel was left, or -1
+	 *                         if the fuel never ran out
+	 */
+	void accept(long index, double burnRate, double mass, double airTemp, double tetherLength, double peakAltitude,
+			long secondsToTether, long secondsToFuelOut);
+}
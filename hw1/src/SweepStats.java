@@ -0,0 +1,63 @@
+package hw1;
+
+/**
+ * Summary of a finished BalloonSweep run.
+ *
+ * @author Adam Hmaddi
+ */
+public class SweepStats {
+
+	private final long scenarios; // Number of scenarios that were simulated
+	private final long elapsedNanos; // Wall clock time of the run in nanoseconds
+
+	/**
+	 * Constructs the summary of a run.
+	 *
+	 * @param scenarios    the number of scenarios simulated
+	 * @param elapsedNanos the wall clock time of the run in nanoseconds
+	 */
+	public SweepStats(long scenarios, long elapsedNanos) {
+		this.scenarios = scenarios;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Gets the number of scenarios simulated.
+	 *
+	 * @return the number of scenarios
+	 */
+	public long getScenarios() {
+		return scenarios;
+	}
+
+	/**
+	 * Gets the wall clock time of the run.
+	 *
+	 * @return the elapsed time in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Gets the throughput of the run.
+	 *
+	 * @return the number of scenarios simulated per second
+	 */
+	public double getScenariosPerSecond() {
+		if (elapsedNanos <= 0) {
+			return 0;
+		}
+		return scenarios * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Returns a one-line description of the run.
+	 *
+	 * @return the number of scenarios, elapsed time and throughput
+	 */
+	public String toString() {
+		return String.format("%d scenarios in %.3f s (%.0f scenarios/sec)", scenarios, elapsedNanos / 1e9,
+				getScenariosPerSecond());
+	}
+}
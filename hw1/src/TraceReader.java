@@ -0,0 +1,136 @@
+package hw1;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a trace file written by TrajectoryRecorder. The file is memory mapped,
+ * so any tick of any channel can be read directly without loading the rest of
+ * the trace.
+ *
+ * @author Adam Hmaddi
+ */
+public class TraceReader {
+
+	private static final long MAX_SEGMENT_BYTES = 1L << 30; // Largest single mapping
+
+	private final int chunkTicks; // Number of ticks in one chunk
+	private final long tickCount; // Number of ticks in the trace
+	private final int chunksPerSegment; // Number of chunks in one mapping
+	private final MappedByteBuffer[] segments; // Mappings covering all chunks
+
+	/**
+	 * Opens and maps the given trace file.
+	 *
+	 * @param file the trace file to read
+	 * @throws IOException if the file cannot be read or is not a trace file
+	 */
+	public TraceReader(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					TrajectoryRecorder.HEADER_BYTES);
+			if (header.getInt(0) != TrajectoryRecorder.MAGIC) {
+				throw new IOException("Not a balloon trace file: " + file);
+			}
+			if (header.getInt(4) != TrajectoryRecorder.VERSION
+					|| header.getInt(8) != TrajectoryRecorder.CHANNELS) {
+				throw new IOException("Unsupported trace file version: " + file);
+			}
+			chunkTicks = header.getInt(12);
+			tickCount = header.getLong(TrajectoryRecorder.TICK_COUNT_OFFSET);
+			if (chunkTicks <= 0 || chunkTicks > TrajectoryRecorder.MAX_CHUNK_TICKS || tickCount < 0) {
+				throw new IOException("Corrupt trace file header: " + file);
+			}
+
+			long chunkBytes = chunkBytes();
+			long chunks = (tickCount + chunkTicks - 1) / chunkTicks;
+			chunksPerSegment = (int) Math.max(1, MAX_SEGMENT_BYTES / chunkBytes);
+			segments = new MappedByteBuffer[(int) ((chunks + chunksPerSegment - 1) / chunksPerSegment)];
+			for (int s = 0; s < segments.length; s++) {
+				long first = (long) s * chunksPerSegment;
+				long count = Math.min(chunksPerSegment, chunks - first);
+				segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+						TrajectoryRecorder.HEADER_BYTES + first * chunkBytes, count * chunkBytes);
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of ticks in the trace.
+	 *
+	 * @return the number of ticks
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	/**
+	 * Gets the value of one channel at one tick.
+	 *
+	 * @param channel one of the channel constants of TrajectoryRecorder
+	 * @param tick    the tick to read, starting at 0
+	 * @return the recorded value
+	 */
+	public double get(int channel, long tick) {
+		if (tick < 0 || tick >= tickCount) {
+			throw new IndexOutOfBoundsException("Tick " + tick + " out of bounds for length " + tickCount);
+		}
+		if (channel < 0 || channel >= TrajectoryRecorder.CHANNELS) {
+			throw new IllegalArgumentException("No such channel: " + channel);
+		}
+		long chunk = tick / chunkTicks;
+		int offset = (int) ((chunk % chunksPerSegment) * chunkBytes()
+				+ ((long) channel * chunkTicks + tick % chunkTicks) * Double.BYTES);
+		return segments[(int) (chunk / chunksPerSegment)].getDouble(offset);
+	}
+
+	/**
+	 * Gets the altitude recorded at the given tick.
+	 *
+	 * @param tick the tick to read
+	 * @return the altitude
+	 */
+	public double getAltitude(long tick) {
+		return get(TrajectoryRecorder.ALTITUDE, tick);
+	}
+
+	/**
+	 * Gets the velocity recorded at the given tick.
+	 *
+	 * @param tick the tick to read
+	 * @return the velocity
+	 */
+	public double getVelocity(long tick) {
+		return get(TrajectoryRecorder.VELOCITY, tick);
+	}
+
+	/**
+	 * Gets the balloon temperature recorded at the given tick.
+	 *
+	 * @param tick the tick to read
+	 * @return the balloon temperature
+	 */
+	public double getBalloonTemp(long tick) {
+		return get(TrajectoryRecorder.BALLOON_TEMP, tick);
+	}
+
+	/**
+	 * Gets the remaining fuel recorded at the given tick.
+	 *
+	 * @param tick the tick to read
+	 * @return the remaining fuel
+	 */
+	public double getFuelRemaining(long tick) {
+		return get(TrajectoryRecorder.FUEL_REMAINING, tick);
+	}
+
+	/*
+	 * Gets the size of one chunk in bytes.
+	 */
+	private long chunkBytes() {
+		return (long) TrajectoryRecorder.CHANNELS * chunkTicks * Double.BYTES;
+	}
+}
@@ -0,0 +1,140 @@
+package hw1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Checks that a trace written by TrajectoryRecorder reads back exactly with
+ * TraceReader, across chunk boundaries, with a partly filled last chunk and
+ * while it is still being recorded.
+ */
+public class TraceTests {
+	public static void main(String args[]) throws IOException {
+		Path dir = Files.createTempDirectory("trace");
+		Path file = dir.resolve("flight.trace");
+
+		System.out.println("Test 1:");
+		double[][] expected = record(file, 100, 1050);
+		TraceReader reader = new TraceReader(file);
+		System.out.println("Tick count is " + reader.getTickCount() + " expected 1050.");
+		System.out.println("Mismatches is " + mismatches(reader, expected) + " expected 0.");
+		System.out.println("Altitude at 99 is " + reader.getAltitude(99) + " expected " + expected[0][99] + ".");
+		System.out.println("Altitude at 100 is " + reader.getAltitude(100) + " expected " + expected[0][100] + ".");
+		System.out.println("Fuel at 1049 is " + reader.getFuelRemaining(1049) + " expected " + expected[3][1049] + ".");
+
+		System.out.println("Test 2:");
+		expected = record(file, 100, 1000);
+		reader = new TraceReader(file);
+		System.out.println("Tick count is " + reader.getTickCount() + " expected 1000.");
+		System.out.println("Mismatches is " + mismatches(reader, expected) + " expected 0.");
+		System.out.println("Reading tick 1000 fails is " + outOfBounds(reader, 1000) + " expected true.");
+
+		System.out.println("Test 3:");
+		Path other = dir.resolve("other.trace");
+		Files.write(other, new byte[TrajectoryRecorder.HEADER_BYTES]);
+		String error = null;
+		try {
+			new TraceReader(other);
+		} catch (IOException e) {
+			error = e.getMessage();
+		}
+		System.out.println("Error is " + (error != null && error.startsWith("Not a balloon trace file"))
+				+ " expected true.");
+
+		System.out.println("Test 4:");
+		Files.write(other, header(0));
+		System.out.println("Zero chunk size rejected is " + rejected(other) + " expected true.");
+		Files.write(other, header(-5));
+		System.out.println("Negative chunk size rejected is " + rejected(other) + " expected true.");
+
+		System.out.println("Test 5:");
+		Balloon b = new Balloon(15, 0);
+		b.setBalloonMass(150);
+		b.setFuelRemaning(20000);
+		b.setFuelBurnRate(10);
+		b.setTetherLength(1e9);
+		double[] altitudes = new double[250];
+		try (TrajectoryRecorder recorder = new TrajectoryRecorder(file, 100)) {
+			for (int t = 0; t < altitudes.length; t++) {
+				b.update();
+				recorder.record(b);
+				altitudes[t] = b.getAltitude();
+			}
+			reader = new TraceReader(file);
+			System.out.println("Tick count while recording is " + reader.getTickCount() + " expected 200.");
+			System.out.println("Altitude at 199 is " + reader.getAltitude(199) + " expected " + altitudes[199] + ".");
+		}
+		System.out.println("Tick count after closing is " + new TraceReader(file).getTickCount() + " expected 250.");
+
+		Files.delete(other);
+		Files.delete(file);
+		Files.delete(dir);
+	}
+
+	/*
+	 * Records a climbing flight with the given chunk size and returns what was
+	 * recorded, one array per channel.
+	 */
+	private static double[][] record(Path file, int chunkTicks, int ticks) throws IOException {
+		double[][] values = new double[TrajectoryRecorder.CHANNELS][ticks];
+		Balloon b = new Balloon(15, 0);
+		b.setBalloonMass(150);
+		b.setFuelRemaning(20000);
+		b.setFuelBurnRate(10);
+		b.setTetherLength(1e9);
+		try (TrajectoryRecorder recorder = new TrajectoryRecorder(file, chunkTicks)) {
+			for (int t = 0; t < ticks; t++) {
+				b.update();
+				recorder.record(b);
+				values[TrajectoryRecorder.ALTITUDE][t] = b.getAltitude();
+				values[TrajectoryRecorder.VELOCITY][t] = b.getVelocity();
+				values[TrajectoryRecorder.BALLOON_TEMP][t] = b.getBalloonTemp();
+				values[TrajectoryRecorder.FUEL_REMAINING][t] = b.getFuelRemaining();
+			}
+		}
+		return values;
+	}
+
+	/*
+	 * Counts the values read back that are not bit for bit the ones recorded.
+	 */
+	private static int mismatches(TraceReader reader, double[][] expected) {
+		int count = 0;
+		for (int c = 0; c < TrajectoryRecorder.CHANNELS; c++) {
+			for (int t = 0; t < expected[c].length; t++) {
+				if (Double.doubleToLongBits(reader.get(c, t)) != Double.doubleToLongBits(expected[c][t])) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * Builds the header of a trace with the given chunk size and no ticks.
+	 */
+	private static byte[] header(int chunkTicks) {
+		return ByteBuffer.allocate(TrajectoryRecorder.HEADER_BYTES).putInt(TrajectoryRecorder.MAGIC)
+				.putInt(TrajectoryRecorder.VERSION).putInt(TrajectoryRecorder.CHANNELS).putInt(chunkTicks).array();
+	}
+
+	private static boolean rejected(Path file) {
+		try {
+			new TraceReader(file);
+		} catch (IOException e) {
+			return true;
+		}
+		return false;
+	}
+
+	private static boolean outOfBounds(TraceReader reader, long tick) {
+		try {
+			reader.getAltitude(tick);
+		} catch (IndexOutOfBoundsException e) {
+			return true;
+		}
+		return false;
+	}
+}
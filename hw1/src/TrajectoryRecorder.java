@@ -0,0 +1,170 @@
+package hw1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records the flight of a balloon into a binary trace file. Every call to
+ * record() copies the altitude, velocity, balloon temperature and remaining
+ * fuel into preallocated arrays of doubles, one per channel. When the arrays
+ * are full they are written to the file through a memory mapping as one
+ * chunk, and the arrays are reused for the next chunk, so recording does not
+ * allocate anything per tick. A TraceReader can read any tick of the file.
+ *
+ * <p>
+ * The file starts with a header of {@value #HEADER_BYTES} bytes (magic number,
+ * version, channel count, ticks per chunk, total tick count), followed by the
+ * chunks. Inside a chunk each channel is stored as a contiguous run of
+ * doubles. The tick count in the header is brought up to date every time a
+ * chunk is written, so a trace that is still being recorded, or whose
+ * recording was cut short, reads back with every tick of its written chunks.
+ *
+ * @author Adam Hmaddi
+ */
+public class TrajectoryRecorder implements AutoCloseable {
+
+	/**
+	 * Channel holding the altitude of the balloon.
+	 */
+	public static final int ALTITUDE = 0;
+
+	/**
+	 * Channel holding the velocity of the balloon.
+	 */
+	public static final int VELOCITY = 1;
+
+	/**
+	 * Channel holding the temperature inside the balloon.
+	 */
+	public static final int BALLOON_TEMP = 2;
+
+	/**
+	 * Channel holding the remaining fuel.
+	 */
+	public static final int FUEL_REMAINING = 3;
+
+	/**
+	 * Number of channels in a trace.
+	 */
+	public static final int CHANNELS = 4;
+
+	/**
+	 * Largest number of ticks in one chunk, so that a chunk fits in one
+	 * mapping.
+	 */
+	public static final int MAX_CHUNK_TICKS = Integer.MAX_VALUE / (CHANNELS * Double.BYTES);
+
+	static final int MAGIC = 0x42545243; // "BTRC"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 32;
+	static final int TICK_COUNT_OFFSET = 16;
+
+	private final FileChannel channel; // File the chunks are written to
+	private final MappedByteBuffer header; // Mapped header of the file, for the tick count
+	private final int chunkTicks; // Number of ticks in one chunk
+	private final double[][] buffers; // One buffer per channel
+	private int position; // Number of ticks in the buffers
+	private long chunksWritten; // Number of full chunks in the file
+	private long tickCount; // Total number of ticks recorded
+
+	/**
+	 * Creates a recorder that writes to the given file, replacing anything that
+	 * is already there.
+	 *
+	 * @param file       the trace file to write
+	 * @param chunkTicks the number of ticks kept in memory before they are
+	 *                   written out, from 1 to MAX_CHUNK_TICKS
+	 * @throws IOException if the file cannot be created
+	 */
+	public TrajectoryRecorder(Path file, int chunkTicks) throws IOException {
+		if (chunkTicks <= 0 || chunkTicks > MAX_CHUNK_TICKS) {
+			throw new IllegalArgumentException(
+					"chunkTicks must be between 1 and " + MAX_CHUNK_TICKS + ": " + chunkTicks);
+		}
+		this.chunkTicks = chunkTicks;
+		buffers = new double[CHANNELS][chunkTicks];
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		ByteBuffer start = ByteBuffer.allocate(HEADER_BYTES);
+		start.putInt(MAGIC).putInt(VERSION).putInt(CHANNELS).putInt(chunkTicks).putLong(0).putLong(0);
+		start.flip();
+		while (start.hasRemaining()) {
+			channel.write(start, HEADER_BYTES - start.remaining());
+		}
+		header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+	}
+
+	/**
+	 * Records the current state of the balloon as the next tick.
+	 *
+	 * @param b the balloon to record
+	 */
+	public void record(Balloon b) {
+		int i = position;
+		buffers[ALTITUDE][i] = b.getAltitude();
+		buffers[VELOCITY][i] = b.getVelocity();
+		buffers[BALLOON_TEMP][i] = b.getBalloonTemp();
+		buffers[FUEL_REMAINING][i] = b.getFuelRemaining();
+		position = i + 1;
+		tickCount++;
+		if (position == chunkTicks) {
+			writeChunk();
+		}
+	}
+
+	/**
+	 * Gets the number of ticks recorded so far.
+	 *
+	 * @return the number of ticks
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	/**
+	 * Writes the ticks still held in memory, with the final tick count in the
+	 * header, and closes the file.
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (position > 0) {
+				writeChunk();
+			}
+			header.force();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/*
+	 * Maps the next chunk of the file and copies every channel buffer into it.
+	 * A partly filled chunk is written with its full size so that the position
+	 * of every tick in the file can be calculated. The tick count in the header
+	 * is updated after the ticks are in place.
+	 */
+	private void writeChunk() {
+		long chunkBytes = (long) CHANNELS * chunkTicks * Double.BYTES;
+		try {
+			MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE,
+					HEADER_BYTES + chunksWritten * chunkBytes, chunkBytes);
+			for (int c = 0; c < CHANNELS; c++) {
+				chunk.position(c * chunkTicks * Double.BYTES); // At most MAX_CHUNK_TICKS, so no overflow
+				chunk.asDoubleBuffer().put(buffers[c], 0, position);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		header.putLong(TICK_COUNT_OFFSET, tickCount);
+		chunksWritten++;
+		position = 0;
+	}
+}
@@ -0,0 +1,273 @@
+package hw1;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a recorded weather file one second at a time. Each line of the file
+ * holds the outside air temperature and the wind direction change for one
+ * second, separated by a comma, for example <code>18.5,-2.25</code>. Blank
+ * lines, lines starting with '#' and a header line that does not start with a
+ * number are skipped.
+ *
+ * <p>
+ * The file is memory mapped through a sliding window and the numbers are
+ * parsed straight from the mapped bytes, so reading a line does not create
+ * any String objects. A line may be at most {@value #MAX_LINE} bytes long.
+ *
+ * @author Adam Hmaddi
+ */
+public class WeatherFeed implements AutoCloseable {
+
+	/**
+	 * Longest line the feed accepts, in bytes.
+	 */
+	public static final int MAX_LINE = 4096;
+
+	private static final long WINDOW_BYTES = 64L << 20; // Size of one mapping
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private final FileChannel channel; // File being read
+	private final long fileSize; // Size of the file in bytes
+	private MappedByteBuffer window; // Currently mapped part of the file
+	private long windowStart; // File offset of the first byte of the window
+	private int pos; // Read position inside the window
+	private long lineNumber; // Line number of the current record
+	private long records; // Number of records read so far
+	private double airTemp; // Air temperature of the current record
+	private double windShift; // Wind direction change of the current record
+
+	/**
+	 * Opens the given weather file.
+	 *
+	 * @param file the file to read
+	 * @throws IOException if the file cannot be opened
+	 */
+	public WeatherFeed(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		fileSize = channel.size();
+		mapWindow(0);
+	}
+
+	/**
+	 * Moves to the next record of the file.
+	 *
+	 * @return true if there was another record, false at the end of the file
+	 * @throws IOException if the file cannot be read or a line is malformed
+	 */
+	public boolean next() throws IOException {
+		while (true) {
+			if (windowStart + pos >= fileSize) {
+				return false;
+			}
+			if (window.limit() - pos < MAX_LINE && windowStart + window.limit() < fileSize) {
+				mapWindow(windowStart + pos);
+			}
+			int end = pos;
+			int limit = window.limit();
+			while (end < limit && window.get(end) != '\n') {
+				end++;
+			}
+			if (end == limit && windowStart + limit < fileSize) {
+				throw new IOException("Line " + (lineNumber + 1) + " is longer than " + MAX_LINE + " bytes");
+			}
+			int start = pos;
+			pos = end + 1;
+			lineNumber++;
+			if (parseLine(start, end)) {
+				records++;
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Gets the outside air temperature of the current record.
+	 *
+	 * @return the air temperature
+	 */
+	public double getAirTemp() {
+		return airTemp;
+	}
+
+	/**
+	 * Gets the wind direction change of the current record.
+	 *
+	 * @return the change in degrees
+	 */
+	public double getWindShift() {
+		return windShift;
+	}
+
+	/**
+	 * Gets the line number of the current record, starting at 1.
+	 *
+	 * @return the line number
+	 */
+	public long getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * Closes the file.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/*
+	 * Maps the window of the file starting at the given offset.
+	 */
+	private void mapWindow(long start) throws IOException {
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_BYTES, fileSize - start));
+		windowStart = start;
+		pos = 0;
+	}
+
+	/*
+	 * Parses the two numbers of a line. Returns false for lines that should be
+	 * skipped.
+	 */
+	private boolean parseLine(int start, int end) throws IOException {
+		start = skipSpaces(start, end);
+		while (end > start && isSpace(window.get(end - 1))) {
+			end--;
+		}
+		if (start == end || window.get(start) == '#') {
+			return false;
+		}
+		int comma = start;
+		while (comma < end && window.get(comma) != ',') {
+			comma++;
+		}
+		byte first = window.get(start);
+		boolean numeric = (first >= '0' && first <= '9') || first == '-' || first == '+' || first == '.';
+		if (!numeric && records == 0) {
+			return false; // Header line
+		}
+		if (comma == end) {
+			throw new IOException("Line " + lineNumber + " should have two values separated by a comma");
+		}
+		airTemp = parseNumber(start, comma);
+		windShift = parseNumber(skipSpaces(comma + 1, end), end);
+		return true;
+	}
+
+	/*
+	 * Parses a decimal number from the window. Numbers with up to 18 digits and
+	 * a small exponent are converted with a single exact multiplication or
+	 * division, which gives the same result as Double.parseDouble(). Anything
+	 * else falls back to Double.parseDouble().
+	 */
+	private double parseNumber(int start, int end) throws IOException {
+		while (end > start && isSpace(window.get(end - 1))) {
+			end--;
+		}
+		int i = start;
+		boolean negative = false;
+		if (i < end && (window.get(i) == '-' || window.get(i) == '+')) {
+			negative = window.get(i) == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		boolean seenDigit = false;
+		int fractionDigits = 0;
+		boolean seenPoint = false;
+		for (; i < end; i++) {
+			byte c = window.get(i);
+			if (c >= '0' && c <= '9') {
+				seenDigit = true;
+				if (mantissa != 0 || c != '0') {
+					digits++;
+				}
+				mantissa = mantissa * 10 + (c - '0');
+				if (seenPoint) {
+					fractionDigits++;
+				}
+			} else if (c == '.' && !seenPoint) {
+				seenPoint = true;
+			} else {
+				break;
+			}
+		}
+		if (!seenDigit) {
+			throw malformed(start, end);
+		}
+		int exponent = 0;
+		if (i < end && (window.get(i) == 'e' || window.get(i) == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (window.get(i) == '-' || window.get(i) == '+')) {
+				negativeExponent = window.get(i) == '-';
+				i++;
+			}
+			int expStart = i;
+			for (; i < end && window.get(i) >= '0' && window.get(i) <= '9' && exponent < 10000; i++) {
+				exponent = exponent * 10 + (window.get(i) - '0');
+			}
+			if (i == expStart) {
+				throw malformed(start, end);
+			}
+			exponent = negativeExponent ? -exponent : exponent;
+		}
+		if (i != end || i == start) {
+			throw malformed(start, end);
+		}
+		int power = exponent - fractionDigits;
+		if (digits > 18 || mantissa >= (1L << 53) || power < -22 || power > 22) {
+			return slowParse(start, end);
+		}
+		double value = power < 0 ? mantissa / POWERS_OF_TEN[-power] : mantissa * POWERS_OF_TEN[power];
+		return negative ? -value : value;
+	}
+
+	/*
+	 * Parses a number that does not fit the fast path.
+	 */
+	private double slowParse(int start, int end) throws IOException {
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = window.get(start + i);
+		}
+		try {
+			return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+		} catch (NumberFormatException e) {
+			throw malformed(start, end);
+		}
+	}
+
+	/*
+	 * Builds the error for a value that is not a number.
+	 */
+	private IOException malformed(int start, int end) {
+		byte[] bytes = new byte[Math.max(end - start, 0)];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = window.get(start + i);
+		}
+		return new IOException(
+				"Line " + lineNumber + ": not a number: \"" + new String(bytes, StandardCharsets.US_ASCII) + "\"");
+	}
+
+	/*
+	 * Moves past spaces, tabs and carriage returns.
+	 */
+	private int skipSpaces(int i, int end) {
+		while (i < end && isSpace(window.get(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean isSpace(byte c) {
+		return c == ' ' || c == '\t' || c == '\r';
+	}
+}
@@ -0,0 +1,167 @@
+package hw1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a weather file into one or more balloons. A background thread reads
+ * the file with a WeatherFeed and puts each second of weather into a bounded
+ * ring of primitive arrays. The balloons are driven from that ring one tick at
+ * a time: every balloon gets the new outside air temperature and wind change
+ * and is then updated. When the ring is full the reading thread waits, so a
+ * slow consumer pauses the parse instead of letting the ring grow.
+ *
+ * @author Adam Hmaddi
+ */
+public class WeatherPipeline implements AutoCloseable {
+
+	private static final long PARK_NANOS = 50_000; // Time to wait when the ring is full or empty
+
+	private final WeatherFeed feed; // Source of the weather records
+	private final double[] airTemps; // Ring of air temperatures
+	private final double[] windShifts; // Ring of wind changes
+	private final int mask; // Ring capacity minus one
+	private final Thread reader; // Thread filling the ring
+	private volatile long written; // Number of records put into the ring
+	private volatile long read; // Number of records taken out of the ring
+	private volatile boolean finished; // True once the reader reached the end
+	private volatile boolean closed; // True once close() was called
+	private volatile Throwable failure; // Error that stopped the reader
+
+	/**
+	 * Opens the given weather file and starts reading it in the background.
+	 *
+	 * @param file     the weather file to replay
+	 * @param capacity the number of seconds of weather that may be read ahead,
+	 *                 rounded up to a power of two
+	 * @throws IOException if the file cannot be opened
+	 */
+	public WeatherPipeline(Path file, int capacity) throws IOException {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+		airTemps = new double[size];
+		windShifts = new double[size];
+		mask = size - 1;
+		feed = new WeatherFeed(file);
+		reader = new Thread(this::readAll, "weather-feed " + file.getFileName());
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	/**
+	 * Drives the given balloons until the weather runs out. Every tick each
+	 * balloon gets the outside air temperature and wind change of that second,
+	 * then it is updated.
+	 *
+	 * @param balloons the balloons to drive
+	 * @return the number of ticks driven
+	 */
+	public long drive(Balloon... balloons) {
+		return drive(Long.MAX_VALUE, balloons);
+	}
+
+	/**
+	 * Drives the given balloons for at most the given number of ticks.
+	 *
+	 * @param maxTicks the largest number of ticks to drive
+	 * @param balloons the balloons to drive
+	 * @return the number of ticks driven, less than maxTicks if the weather ran
+	 *         out first
+	 */
+	public long drive(long maxTicks, Balloon... balloons) {
+		long ticks = 0;
+		while (ticks < maxTicks) {
+			long next = read;
+			long available = waitForRecords(next);
+			if (available == 0) {
+				break;
+			}
+			long end = next + Math.min(available, maxTicks - ticks);
+			for (long r = next; r < end; r++) {
+				int slot = (int) (r & mask);
+				double airTemp = airTemps[slot];
+				double windShift = windShifts[slot];
+				for (Balloon b : balloons) {
+					b.setOutsideAirTemp(airTemp);
+					b.changeWindDirection(windShift);
+					b.update();
+				}
+			}
+			ticks += end - next;
+			read = end;
+		}
+		return ticks;
+	}
+
+	/**
+	 * Stops the reading thread and closes the file.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		LockSupport.unpark(reader);
+		try {
+			reader.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		feed.close();
+	}
+
+	/*
+	 * Waits until the ring holds records after the given position, or the
+	 * reader is done. Returns the number of records available.
+	 */
+	private long waitForRecords(long next) {
+		while (true) {
+			boolean done = finished;
+			long available = written - next;
+			if (available > 0) {
+				return available;
+			}
+			if (failure != null) {
+				Throwable t = failure;
+				if (t instanceof IOException) {
+					throw new UncheckedIOException((IOException) t);
+				}
+				throw new IllegalStateException("Weather feed failed", t);
+			}
+			if (done) {
+				return 0;
+			}
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+	}
+
+	/*
+	 * Body of the reading thread. Waits while the ring is full.
+	 */
+	private void readAll() {
+		try {
+			long w = 0;
+			while (!closed && feed.next()) {
+				while (w - read > mask) {
+					if (closed) {
+						return;
+					}
+					LockSupport.parkNanos(PARK_NANOS);
+				}
+				int slot = (int) (w & mask);
+				airTemps[slot] = feed.getAirTemp();
+				windShifts[slot] = feed.getWindShift();
+				w++;
+				written = w;
+			}
+		} catch (Throwable t) {
+			failure = t;
+		} finally {
+			finished = true;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package hw1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Checks that a WeatherPipeline hands every record of the file to the
+ * balloons once and in order, even when the ring is far smaller than the
+ * file and the balloons fall behind, and that close() stops the reader.
+ */
+public class WeatherPipelineTests {
+	public static void main(String args[]) throws IOException, InterruptedException {
+		Path dir = Files.createTempDirectory("weather");
+		Path file = dir.resolve("weather.csv");
+		int records = 200_000;
+		try (Writer out = Files.newBufferedWriter(file)) {
+			out.write("airTemp,windShift\n# recorded weather\n");
+			for (int i = 0; i < records; i++) {
+				out.write(airTemp(i) + "," + windShift(i) + "\n");
+				if (i % 1000 == 0) {
+					out.write("\n");
+				}
+			}
+		}
+
+		System.out.println("Test 1:");
+		long count = 0;
+		boolean inOrder = true;
+		try (WeatherFeed feed = new WeatherFeed(file)) {
+			while (feed.next()) {
+				inOrder &= feed.getAirTemp() == airTemp(count) && feed.getWindShift() == windShift(count);
+				count++;
+			}
+		}
+		System.out.println("Records read is " + count + " expected " + records + ".");
+		System.out.println("Records in order is " + inOrder + " expected true.");
+
+		System.out.println("Test 2:");
+		RecordingBalloon first = new RecordingBalloon();
+		RecordingBalloon second = new RecordingBalloon();
+		long ticks = 0;
+		try (WeatherPipeline pipeline = new WeatherPipeline(file, 64)) {
+			while (true) {
+				long driven = pipeline.drive(997, first, second);
+				ticks += driven;
+				if (driven < 997) {
+					break;
+				}
+				if (ticks % 20 == 0) {
+					Thread.sleep(1); // Fall behind so the reader has to wait on a full ring
+				}
+			}
+		}
+		System.out.println("Ticks is " + ticks + " expected " + records + ".");
+		System.out.println("Updates is " + first.updates + " expected " + records + ".");
+		System.out.println("Mismatches is " + (first.mismatches + second.mismatches) + " expected 0.");
+
+		System.out.println("Test 3:");
+		WeatherPipeline pipeline = new WeatherPipeline(file, 4);
+		RecordingBalloon partial = new RecordingBalloon();
+		ticks = pipeline.drive(10, partial);
+		Thread.sleep(50); // Let the reader fill the ring and wait
+		long start = System.nanoTime();
+		pipeline.close();
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		System.out.println("Ticks is " + ticks + " expected 10.");
+		System.out.println("Closed within a second is " + (millis < 1000) + " expected true.");
+		System.out.println("Reader running is " + readerRunning(file) + " expected false.");
+
+		System.out.println("Test 4:");
+		Path bad = dir.resolve("bad.csv");
+		Files.write(bad, "15,0\n16,x\n".getBytes());
+		String error = null;
+		try (WeatherPipeline broken = new WeatherPipeline(bad, 4)) {
+			broken.drive(new RecordingBalloon());
+		} catch (UncheckedIOException e) {
+			error = e.getCause().getMessage();
+		}
+		System.out.println("Error is " + error + " expected Line 2: not a number: \"x\".");
+
+		Files.delete(bad);
+		Files.delete(file);
+		Files.delete(dir);
+	}
+
+	/*
+	 * The air temperature of the given record, different for each of many
+	 * records in a row.
+	 */
+	private static double airTemp(long i) {
+		return 10 + i % 1000 * 0.25;
+	}
+
+	/*
+	 * The wind change of the given record.
+	 */
+	private static double windShift(long i) {
+		return i / 1000 % 7 - 3;
+	}
+
+	/*
+	 * Checks if a reading thread for the given file is still alive.
+	 */
+	private static boolean readerRunning(Path file) {
+		for (Thread t : Thread.getAllStackTraces().keySet()) {
+			if (t.getName().equals("weather-feed " + file.getFileName()) && t.isAlive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * A balloon that checks each record it is given is the next one of the
+	 * file.
+	 */
+	private static class RecordingBalloon extends Balloon {
+		long updates; // Records received
+		long mismatches; // Records that were not the expected one
+		private double airTemp; // Air temperature of the record being received
+		private double windShift; // Wind change of the record being received
+
+		RecordingBalloon() {
+			super(15, 0);
+		}
+
+		@Override
+		public void setOutsideAirTemp(double temp) {
+			airTemp = temp;
+		}
+
+		@Override
+		public void changeWindDirection(double deg) {
+			windShift = deg;
+		}
+
+		@Override
+		public void update() {
+			if (airTemp != airTemp(updates) || windShift != windShift(updates)) {
+				mismatches++;
+			}
+			updates++;
+		}
+	}
+}
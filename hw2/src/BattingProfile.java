@@ -0,0 +1,148 @@
+package hw2;
+
+import java.util.SplittableRandom;
+
+/**
+ * How the pitches to one team turn out while it is at bat: the chance of a
+ * ball, a called strike, a swung strike and a caught fly, with the remaining
+ * chance being a hit whose distance is drawn from a normal distribution.
+ * Profiles are immutable, so one profile can be used by any number of
+ * threads.
+ *
+ * @author ADAM_HMADDI
+ */
+public final class BattingProfile {
+
+	private final double ball; // Chance of a ball
+	private final double calledStrike; // Chance of a called strike
+	private final double swungStrike; // Chance of a swung strike
+	private final double caughtFly; // Chance of a caught fly
+	private final double hitDistance; // Mean distance of a hit
+	private final double hitSpread; // Standard deviation of the distance of a hit
+	private final double[] limits; // Running sums of the chances, in the order above
+
+	/**
+	 * Creates a profile. The chance of a hit is whatever is left after the
+	 * other four.
+	 *
+	 * @param ball         the chance of a ball
+	 * @param calledStrike the chance of a called strike
+	 * @param swungStrike  the chance of a swung strike
+	 * @param caughtFly    the chance of a caught fly
+	 * @param hitDistance  the mean distance of a hit
+	 * @param hitSpread    the standard deviation of the distance of a hit
+	 */
+	public BattingProfile(double ball, double calledStrike, double swungStrike, double caughtFly, double hitDistance,
+			double hitSpread) {
+		if (!(ball >= 0 && calledStrike >= 0 && swungStrike >= 0 && caughtFly >= 0)) {
+			throw new IllegalArgumentException("Chances must not be negative");
+		}
+		if (!(ball + calledStrike + swungStrike + caughtFly <= 1)) {
+			throw new IllegalArgumentException("Chances must not add up to more than 1");
+		}
+		if (!(hitSpread >= 0) || Double.isInfinite(hitSpread) || Double.isNaN(hitDistance)
+				|| Double.isInfinite(hitDistance)) {
+			throw new IllegalArgumentException("Hit distance and spread must be finite, spread not negative");
+		}
+		boolean foulOuts = ball < 1 && (hitSpread > 0 || hitDistance < 15); // Hits can fall short
+		if (calledStrike + swungStrike + caughtFly == 0 && !foulOuts) {
+			throw new IllegalArgumentException("A profile without outs would never end a game");
+		}
+		this.ball = ball;
+		this.calledStrike = calledStrike;
+		this.swungStrike = swungStrike;
+		this.caughtFly = caughtFly;
+		this.hitDistance = hitDistance;
+		this.hitSpread = hitSpread;
+		limits = new double[] { ball, ball + calledStrike, ball + calledStrike + swungStrike,
+				ball + calledStrike + swungStrike + caughtFly };
+	}
+
+	/**
+	 * Gets the chance of a ball.
+	 *
+	 * @return the chance
+	 */
+	public double getBall() {
+		return ball;
+	}
+
+	/**
+	 * Gets the chance of a called strike.
+	 *
+	 * @return the chance
+	 */
+	public double getCalledStrike() {
+		return calledStrike;
+	}
+
+	/**
+	 * Gets the chance of a swung strike.
+	 *
+	 * @return the chance
+	 */
+	public double getSwungStrike() {
+		return swungStrike;
+	}
+
+	/**
+	 * Gets the chance of a caught fly.
+	 *
+	 * @return the chance
+	 */
+	public double getCaughtFly() {
+		return caughtFly;
+	}
+
+	/**
+	 * Gets the chance of a hit.
+	 *
+	 * @return the chance
+	 */
+	public double getHit() {
+		return 1 - limits[3];
+	}
+
+	/**
+	 * Gets the mean distance of a hit.
+	 *
+	 * @return the distance
+	 */
+	public double getHitDistance() {
+		return hitDistance;
+	}
+
+	/**
+	 * Gets the standard deviation of the distance of a hit.
+	 *
+	 * @return the spread
+	 */
+	public double getHitSpread() {
+		return hitSpread;
+	}
+
+	/**
+	 * Draws the outcome of one pitch and applies it to a packed game state.
+	 *
+	 * @param state the packed FuzzballState
+	 * @param rng   the random numbers to draw from
+	 * @return the packed state after the pitch
+	 */
+	long pitch(long state, SplittableRandom rng) {
+		double u = rng.nextDouble();
+		if (u < limits[0]) {
+			return FuzzballState.ball(state);
+		}
+		if (u < limits[1]) {
+			return FuzzballState.strike(state, false);
+		}
+		if (u < limits[2]) {
+			return FuzzballState.strike(state, true);
+		}
+		if (u < limits[3]) {
+			return FuzzballState.caughtFly(state);
+		}
+		double distance = hitDistance + hitSpread * rng.nextGaussian();
+		return FuzzballState.hit(state, (int) Math.floor(distance));
+	}
+}
@@ -27,118 +27,65 @@ public class FuzzballGame {
 	// the required methods.
 
 	/*
-	 * Number of innings for the game
+	 * The whole game state packed by FuzzballState
 	 */
-	private int numInnings;
+	private long state;
 
 	/*
-	 * Current inning of the game
+	 * Log recording every pitch, or null
 	 */
-	private int currentInning;
+	private PitchLog log;
 
-	/*
-	 * Indicates if it is the top of the inning, which is team 0
-	 */
-	private boolean topOfInning;
-
-	/*
-	 * Count of balls for the current batter
-	 */
-	private int numBall;
-
-	/*
-	 * Count of strikes for the current batter
-	 */
-	private int numStrike;
-
-	/*
-	 * Number of outs for the current team at bat
-	 */
-	private int numOut;
-
-	/*
-	 * Boolean indicating if there is a runner on first base
-	 */
-	private boolean base1;
-
-	/*
-	 * Boolean indicating if there is a runner on second base
-	 */
-	private boolean base2;
-
-	/*
-	 * Boolean indicating if there is a runner on third base
+	/**
+	 * Constructs a Fuzzball game with the given number of innings
+	 * 
+	 * @param givenNumInnings the number of innings for the game, from 0 to
+	 *                        FuzzballState.MAX_INNINGS
+	 * @throws IllegalArgumentException if the number of innings is negative or
+	 *                                  above FuzzballState.MAX_INNINGS
 	 */
-	private boolean base3;
+	public FuzzballGame(int givenNumInnings) {
+		state = FuzzballState.start(givenNumInnings);
+	}
 
 	/*
-	 * Score for team 0
+	 * Constructs a game in the given packed state, used by PitchLog.
 	 */
-	private int score_0;
+	FuzzballGame(long packedState) {
+		state = packedState;
+	}
 
 	/*
-	 * Score for team 1
+	 * Sets the log that records every pitch from now on, or null to stop.
 	 */
-	private int score_1;
+	void setLog(PitchLog log) {
+		if (log != null && this.log != null) {
+			throw new IllegalStateException("Game is already recorded");
+		}
+		this.log = log;
+	}
 
 	/**
-	 * Constructs a Fuzzball game with the given number of innings
+	 * Gets the whole game state packed into one long, as described in
+	 * FuzzballState.
 	 * 
-	 * @param givenNumInnings the number of innings for the game
+	 * @return the packed state
 	 */
-	public FuzzballGame(int givenNumInnings) {
-		numInnings = givenNumInnings;
-		currentInning = 1;
-		topOfInning = true;
-		numBall = 0;
-		numStrike = 0;
-		numOut = 0;
-		base1 = false;
-		base2 = false;
-		base3 = false;
-		score_0 = 0;
-		score_1 = 0;
+	public long getPackedState() {
+		return state;
 	}
 
 	/*
 	 * This method indicates a bad pitch at which the batter did not swing. It adds
 	 * 1 to the batter's ball count, which can result in a walk if the count reaches
-	 * the maximum. It does nothing if the game has ended.
+	 * the maximum. It does nothing if the game has ended. It throws an
+	 * ArithmeticException if a walk would take the score of the team at bat
+	 * above FuzzballState.MAX_SCORE.
 	 */
 	public void ball() {
-		if (!gameEnded()) {
-			numBall++;
-
-			if (numBall == MAX_BALLS) {
-				walk();
-				batterSwitch();
-			}
-		}
-	}
-
-	/*
-	 * This is a helper method simulating a walk when the ball count reaches the
-	 * maximum, which is 5.
-	 */
-	private void walk() {
-		if (base1) {
-
-			if (base2) {
-
-				if (base3) {
-					scoreResult();
-				}
-
-				else {
-					base3 = true;
-				}
-			}
-
-			else {
-				base2 = true;
-			}
-		} else {
-			base1 = true;
+		state = FuzzballState.ball(state);
+		if (log != null) {
+			log.record(PitchLog.BALL, 0, state);
 		}
 	}
 
@@ -148,10 +95,9 @@ public class FuzzballGame {
 	 * switch teams. It does nothing if the game has ended.
 	 */
 	public void caughtFly() {
-		if (!gameEnded()) {
-			numOut++;
-			batterSwitch();
-			teamsSwitch();
+		state = FuzzballState.caughtFly(state);
+		if (log != null) {
+			log.record(PitchLog.CAUGHT_FLY, 0, state);
 		}
 	}
 
@@ -161,7 +107,7 @@ public class FuzzballGame {
 	 * @return true if the game is over, false otherwise.
 	 */
 	public boolean gameEnded() {
-		return currentInning > numInnings;
+		return FuzzballState.gameEnded(state);
 	}
 
 	/**
@@ -170,7 +116,7 @@ public class FuzzballGame {
 	 * @return the count of balls for the current batter.
 	 */
 	public int getBallCount() {
-		return numBall;
+		return FuzzballState.getBallCount(state);
 	}
 
 	/**
@@ -179,7 +125,7 @@ public class FuzzballGame {
 	 * @return the number of called strikes for the current batter.
 	 */
 	public int getCalledStrikes() {
-		return numStrike;
+		return FuzzballState.getCalledStrikes(state);
 	}
 
 	/**
@@ -188,7 +134,7 @@ public class FuzzballGame {
 	 * @return the number of outs for the team currently at bat.
 	 */
 	public int getCurrentOuts() {
-		return numOut;
+		return FuzzballState.getCurrentOuts(state);
 	}
 
 	/**
@@ -197,7 +143,7 @@ public class FuzzballGame {
 	 * @return the score for team 0.
 	 */
 	public int getTeam0Score() {
-		return score_0;
+		return FuzzballState.getTeam0Score(state);
 	}
 
 	/**
@@ -206,7 +152,7 @@ public class FuzzballGame {
 	 * @return the score for team 1.
 	 */
 	public int getTeam1Score() {
-		return score_1;
+		return FuzzballState.getTeam1Score(state);
 	}
 
 	/**
@@ -223,55 +169,13 @@ public class FuzzballGame {
 	 *                 inclusive and 250 exclusive: the hit is a triple. The runners
 	 *                 advances by 3. If it is 250 or more: the hit is a home run.
 	 *                 All runners currently on base advance to home.
+	 * @throws ArithmeticException if the hit would take the score of the team at
+	 *                             bat above FuzzballState.MAX_SCORE
 	 */
 	public void hit(int distance) {
-		if (!gameEnded()) {
-			if (distance < 15) {
-				numOut++;
-				batterSwitch();
-				teamsSwitch();
-			} else {
-				shiftRunner();
-				base1 = true;
-			}
-			if (distance >= 150 && distance < 200) {
-				shiftRunner();
-
-			}
-			if (distance >= 200 && distance < 250) {
-				shiftRunner();
-				shiftRunner();
-			}
-			if (distance >= 250) {
-				shiftRunner();
-				shiftRunner();
-				shiftRunner();
-			}
-		}
-		batterSwitch();
-	}
-
-	/*
-	 * This helper method indicates a single hit, it can also be used as a double if
-	 * you duplicate it and as a triple if it's called three times.
-	 */
-	private void shiftRunner() {
-		if (base3) {
-			scoreResult();
-		}
-		base3 = base2;
-		base2 = base1;
-		base1 = false;
-	}
-
-	/*
-	 * This helper method keeps incrementing the score for the right team.
-	 */
-	private void scoreResult() {
-		if (topOfInning) {
-			score_0++;
-		} else {
-			score_1++;
+		state = FuzzballState.hit(state, distance);
+		if (log != null) {
+			log.record(PitchLog.HIT, distance, state);
 		}
 	}
 
@@ -281,7 +185,7 @@ public class FuzzballGame {
 	 * @return true if it's the first half of the inning, false otherwise.
 	 */
 	public boolean isTopOfInning() {
-		return topOfInning;
+		return FuzzballState.isTopOfInning(state);
 	}
 
 	/**
@@ -291,15 +195,7 @@ public class FuzzballGame {
 	 * @return true if there is a runner on the indicated base, false otherwise.
 	 */
 	public boolean runnerOnBase(int which) {
-		if (which == 1) {
-			return base1;
-		} else if (which == 2) {
-			return base2;
-		} else if (which == 3) {
-			return base3;
-		} else {
-			return false;
-		}
+		return FuzzballState.runnerOnBase(state, which);
 	}
 
 	/**
@@ -310,47 +206,9 @@ public class FuzzballGame {
 	 *              added to the batters current count of called strikes.
 	 */
 	public void strike(boolean swung) {
-		if (!gameEnded()) {
-			if (swung) {
-				numOut++;
-				batterSwitch();
-			} else {
-				numStrike++;
-				if (numStrike == MAX_STRIKES) {
-					numOut++;
-					batterSwitch();
-				}
-			}
-			teamsSwitch();
-		}
-	}
-
-	/*
-	 * This helper method makes the next batter to come and reset the ball count and
-	 * strikes to 0.
-	 */
-	private void batterSwitch() {
-		numBall = 0;
-		numStrike = 0;
-	}
-
-	/*
-	 * This helper method checks if the number of outs reached the maximum. If it is
-	 * true, the teams will switch including reseting their bases and batters.
-	 */
-	private void teamsSwitch() {
-		if (numOut == MAX_OUTS) {
-			batterSwitch();
-			base1 = false;
-			base2 = false;
-			base3 = false;
-			numOut = 0;
-			if (topOfInning) {
-				topOfInning = false;
-			} else {
-				topOfInning = true;
-				currentInning++;
-			}
+		state = FuzzballState.strike(state, swung);
+		if (log != null) {
+			log.record(swung ? PitchLog.SWUNG_STRIKE : PitchLog.CALLED_STRIKE, 0, state);
 		}
 	}
 
@@ -362,11 +220,7 @@ public class FuzzballGame {
 	 *         game is over.
 	 */
 	public int whichInning() {
-		if (gameEnded()) {
-			return numInnings + 1;
-		} else {
-			return currentInning;
-		}
+		return FuzzballState.getInning(state);
 	}
 
 	// The methods below are provided for you and you should not modify them.
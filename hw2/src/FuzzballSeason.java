@@ -0,0 +1,250 @@
+package hw2;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulates whole seasons of Fuzzball to project the standings. Every pair
+ * of teams meets the same number of times per season, taking turns batting
+ * first, and each pitch is drawn from the BattingProfile of the team at bat.
+ *
+ * <p>
+ * Games are played on packed FuzzballState values, so a game is one long in
+ * a local variable and no game object is created or reset. Seasons are split
+ * across a ForkJoinPool in fixed blocks. Each season takes its random numbers
+ * from a SplittableRandom split off in a fixed pattern from the seed, so the
+ * same seed gives the same standings on any number of threads. Every worker
+ * thread adds its games to its own counts, which are only added together at
+ * the end, so the workers never wait for each other.
+ *
+ * @author ADAM_HMADDI
+ */
+public class FuzzballSeason {
+
+	private static final long BLOCK_SEASONS = 16; // Seasons handled by one block
+	private static final int RUN_BUCKETS = 64; // Runs per game counted separately; more share the last count
+
+	private final BattingProfile[] teams; // Profile of each team
+	private final int numInnings; // Innings per game
+	private final int gamesPerPair; // Games each pair of teams plays per season
+
+	/**
+	 * Creates a season simulator.
+	 *
+	 * @param teams        the batting profile of each team, at least two
+	 * @param numInnings   the number of innings per game
+	 * @param gamesPerPair the number of games every pair of teams plays per
+	 *                     season
+	 */
+	public FuzzballSeason(BattingProfile[] teams, int numInnings, int gamesPerPair) {
+		if (teams.length < 2) {
+			throw new IllegalArgumentException("A season needs at least two teams");
+		}
+		if (numInnings < 1 || numInnings > FuzzballState.MAX_INNINGS) {
+			throw new IllegalArgumentException(
+					"Number of innings must be between 1 and " + FuzzballState.MAX_INNINGS + ": " + numInnings);
+		}
+		if (gamesPerPair < 1) {
+			throw new IllegalArgumentException("Games per pair must be at least 1: " + gamesPerPair);
+		}
+		for (BattingProfile p : teams) {
+			if (p == null) {
+				throw new IllegalArgumentException("Team profiles must not be null");
+			}
+		}
+		this.teams = teams.clone();
+		this.numInnings = numInnings;
+		this.gamesPerPair = gamesPerPair;
+	}
+
+	/**
+	 * Gets the number of games each team plays per season.
+	 *
+	 * @return the number of games
+	 */
+	public int getGamesPerTeam() {
+		return (teams.length - 1) * gamesPerPair;
+	}
+
+	/**
+	 * Gets the number of games played per season.
+	 *
+	 * @return the number of games
+	 */
+	public long getGamesPerSeason() {
+		return (long) teams.length * (teams.length - 1) / 2 * gamesPerPair;
+	}
+
+	/**
+	 * Simulates the given number of seasons on the common ForkJoinPool.
+	 *
+	 * @param seasons the number of seasons
+	 * @param seed    the seed of the random numbers
+	 * @return the standings over all seasons
+	 */
+	public SeasonResult run(long seasons, long seed) {
+		return run(ForkJoinPool.commonPool(), seasons, seed);
+	}
+
+	/**
+	 * Simulates the given number of seasons on the given pool.
+	 *
+	 * @param pool    the pool whose threads play the games
+	 * @param seasons the number of seasons
+	 * @param seed    the seed of the random numbers
+	 * @return the standings over all seasons
+	 */
+	public SeasonResult run(ForkJoinPool pool, long seasons, long seed) {
+		if (seasons < 0) {
+			throw new IllegalArgumentException("seasons must not be negative");
+		}
+		ConcurrentLinkedQueue<Accumulator> all = new ConcurrentLinkedQueue<>();
+		ThreadLocal<Accumulator> local = ThreadLocal.withInitial(() -> {
+			Accumulator a = new Accumulator();
+			all.add(a);
+			return a;
+		});
+		long blocks = (seasons + BLOCK_SEASONS - 1) / BLOCK_SEASONS;
+		long start = System.nanoTime();
+		pool.invoke(new BlockTask(0, blocks, seasons, new SplittableRandom(seed), local));
+		long elapsed = System.nanoTime() - start;
+
+		Accumulator total = new Accumulator();
+		for (Accumulator a : all) {
+			for (int t = 0; t < teams.length; t++) {
+				total.wins[t] += a.wins[t];
+				total.losses[t] += a.losses[t];
+				total.ties[t] += a.ties[t];
+				total.runsFor[t] += a.runsFor[t];
+				total.runsAgainst[t] += a.runsAgainst[t];
+				total.firstPlaces[t] += a.firstPlaces[t];
+				for (int w = 0; w < total.seasonWins[t].length; w++) {
+					total.seasonWins[t][w] += a.seasonWins[t][w];
+				}
+				for (int r = 0; r < RUN_BUCKETS; r++) {
+					total.gameRuns[t][r] += a.gameRuns[t][r];
+				}
+			}
+		}
+		return new SeasonResult(seasons, seasons * getGamesPerSeason(), elapsed, total.wins, total.losses, total.ties,
+				total.runsFor, total.runsAgainst, total.firstPlaces, total.seasonWins, total.gameRuns);
+	}
+
+	/*
+	 * Plays one season with the given random numbers and adds it to the
+	 * accumulator.
+	 */
+	private void runSeason(SplittableRandom rng, Accumulator acc) {
+		int[] won = acc.seasonWon;
+		Arrays.fill(won, 0);
+		long start = FuzzballState.start(numInnings);
+		for (int i = 0; i < teams.length; i++) {
+			for (int j = i + 1; j < teams.length; j++) {
+				for (int g = 0; g < gamesPerPair; g++) {
+					int first = g % 2 == 0 ? i : j; // Team 0 of the game, batting in the top
+					int second = g % 2 == 0 ? j : i;
+					BattingProfile top = teams[first];
+					BattingProfile bottom = teams[second];
+					long state = start;
+					while (!FuzzballState.gameEnded(state)) {
+						state = (FuzzballState.isTopOfInning(state) ? top : bottom).pitch(state, rng);
+					}
+					int score0 = FuzzballState.getTeam0Score(state);
+					int score1 = FuzzballState.getTeam1Score(state);
+					acc.addGame(first, score0, score1);
+					acc.addGame(second, score1, score0);
+					if (score0 > score1) {
+						won[first]++;
+					} else if (score1 > score0) {
+						won[second]++;
+					}
+				}
+			}
+		}
+		int most = 0;
+		for (int t = 0; t < teams.length; t++) {
+			most = Math.max(most, won[t]);
+			acc.seasonWins[t][won[t]]++;
+		}
+		for (int t = 0; t < teams.length; t++) {
+			if (won[t] == most) {
+				acc.firstPlaces[t]++;
+			}
+		}
+	}
+
+	/*
+	 * The counts filled by one worker thread.
+	 */
+	private class Accumulator {
+		final long[] wins = new long[teams.length]; // Games won by each team
+		final long[] losses = new long[teams.length]; // Games lost by each team
+		final long[] ties = new long[teams.length]; // Games tied by each team
+		final long[] runsFor = new long[teams.length]; // Runs scored by each team
+		final long[] runsAgainst = new long[teams.length]; // Runs scored against each team
+		final long[] firstPlaces = new long[teams.length]; // Seasons finished first
+		final long[][] seasonWins = new long[teams.length][getGamesPerTeam() + 1]; // Seasons per win total
+		final long[][] gameRuns = new long[teams.length][RUN_BUCKETS]; // Games per runs scored
+		final int[] seasonWon = new int[teams.length]; // Wins in the season being played
+
+		/*
+		 * Counts one game from the side of one team.
+		 */
+		void addGame(int team, int scored, int allowed) {
+			if (scored > allowed) {
+				wins[team]++;
+			} else if (scored < allowed) {
+				losses[team]++;
+			} else {
+				ties[team]++;
+			}
+			runsFor[team] += scored;
+			runsAgainst[team] += allowed;
+			gameRuns[team][Math.min(scored, RUN_BUCKETS - 1)]++;
+		}
+	}
+
+	/*
+	 * Splits a range of blocks in half, giving the second half a random
+	 * generator split off from the first. The split points only depend on the
+	 * range, so every block gets the same generator on any number of threads.
+	 */
+	private class BlockTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long from; // First block of the range
+		private final long to; // One past the last block of the range
+		private final long seasons; // Total number of seasons
+		private final SplittableRandom rng; // Generator for this range
+		private final ThreadLocal<Accumulator> local; // Counts of each worker
+
+		BlockTask(long from, long to, long seasons, SplittableRandom rng, ThreadLocal<Accumulator> local) {
+			this.from = from;
+			this.to = to;
+			this.seasons = seasons;
+			this.rng = rng;
+			this.local = local;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= 1) {
+				if (from < to) {
+					Accumulator acc = local.get();
+					long end = Math.min(seasons, (from + 1) * BLOCK_SEASONS);
+					for (long s = from * BLOCK_SEASONS; s < end; s++) {
+						runSeason(rng.split(), acc);
+					}
+				}
+			} else {
+				long mid = (from + to) >>> 1;
+				SplittableRandom right = rng.split();
+				invokeAll(new BlockTask(from, mid, seasons, rng, local), new BlockTask(mid, to, seasons, right, local));
+			}
+		}
+	}
+}
@@ -0,0 +1,339 @@
+package hw2;
+
+/**
+ * The whole state of a Fuzzball game packed into one long, with the moves of
+ * the game as static functions from one packed state to the next. A packed
+ * state is a plain value, so millions of games in progress can be stored in a
+ * long array and compared or hashed as numbers. FuzzballGame keeps its state
+ * in this form and delegates every move here.
+ *
+ * <p>
+ * The bits, from the lowest up, are: the runners on first, second and third
+ * base (1 bit each), the ball count (3 bits), the called strikes (2 bits),
+ * the outs (2 bits), whether it is the bottom of the inning (1 bit), the
+ * number of innings (10 bits), the current inning (11 bits) and the scores
+ * of team 0 and team 1 (16 bits each). A game therefore has at most
+ * MAX_INNINGS innings and a team can score at most MAX_SCORE runs.
+ *
+ * @author ADAM_HMADDI
+ */
+public final class FuzzballState {
+	/**
+	 * Largest number of innings a packed game can have.
+	 */
+	public static final int MAX_INNINGS = 1023;
+
+	/**
+	 * Largest score a packed game can hold for one team.
+	 */
+	public static final int MAX_SCORE = 0xFFFF;
+
+	private static final long FIRST = 1L; // Runner on first base
+	private static final long SECOND = 1L << 1; // Runner on second base
+	private static final long THIRD = 1L << 2; // Runner on third base
+	private static final long BASES = FIRST | SECOND | THIRD;
+	private static final int BALL_SHIFT = 3;
+	private static final int STRIKE_SHIFT = 6;
+	private static final int OUT_SHIFT = 8;
+	private static final long BOTTOM = 1L << 10; // Team 1 is at bat
+	private static final int INNINGS_SHIFT = 11;
+	private static final int INNING_SHIFT = 21;
+	private static final int SCORE_0_SHIFT = 32;
+	private static final int SCORE_1_SHIFT = 48;
+	private static final long BALL_MASK = 7L << BALL_SHIFT;
+	private static final long STRIKE_MASK = 3L << STRIKE_SHIFT;
+	private static final long OUT_MASK = 3L << OUT_SHIFT;
+	private static final long COUNT_MASK = BALL_MASK | STRIKE_MASK; // Count of the current batter
+
+	private FuzzballState() {
+	}
+
+	/**
+	 * Creates the packed state of a new game: first inning, top, no runners,
+	 * no count, no outs and no score.
+	 *
+	 * @param numInnings the number of innings for the game, from 0 to
+	 *                   MAX_INNINGS
+	 * @return the packed state
+	 */
+	public static long start(int numInnings) {
+		if (numInnings < 0 || numInnings > MAX_INNINGS) {
+			throw new IllegalArgumentException("Number of innings must be between 0 and " + MAX_INNINGS + ": " + numInnings);
+		}
+		return (long) numInnings << INNINGS_SHIFT | 1L << INNING_SHIFT;
+	}
+
+	/**
+	 * Packs a situation in the top of the first inning of a one inning game
+	 * with no score, for enumerating the situations of a half inning.
+	 *
+	 * @param bases   the runners, with bit 0 for first base, bit 1 for second
+	 *                and bit 2 for third
+	 * @param balls   the ball count, below MAX_BALLS
+	 * @param strikes the called strikes, below MAX_STRIKES
+	 * @param outs    the outs, below MAX_OUTS
+	 * @return the packed state
+	 */
+	static long situation(int bases, int balls, int strikes, int outs) {
+		return start(1) | (bases & BASES) | (long) balls << BALL_SHIFT | (long) strikes << STRIKE_SHIFT
+				| (long) outs << OUT_SHIFT;
+	}
+
+	/**
+	 * A bad pitch at which the batter did not swing. It adds 1 to the ball
+	 * count, and on the maximum the batter walks and the next batter comes up.
+	 * Nothing changes if the game has ended.
+	 *
+	 * @param state the packed state
+	 * @return the packed state after the pitch
+	 */
+	public static long ball(long state) {
+		if (gameEnded(state)) {
+			return state;
+		}
+		state += 1L << BALL_SHIFT;
+		if (getBallCount(state) == FuzzballGame.MAX_BALLS) {
+			state = walk(state) & ~COUNT_MASK;
+		}
+		return state;
+	}
+
+	/**
+	 * A strike for the current batter. Nothing changes if the game has ended.
+	 *
+	 * @param state the packed state
+	 * @param swung if true the batter is out at once, otherwise 1 is added to
+	 *              the called strikes and the batter is out on the maximum
+	 * @return the packed state after the strike
+	 */
+	public static long strike(long state, boolean swung) {
+		if (gameEnded(state)) {
+			return state;
+		}
+		if (!swung) {
+			state += 1L << STRIKE_SHIFT;
+			if (getCalledStrikes(state) != FuzzballGame.MAX_STRIKES) {
+				return state;
+			}
+		}
+		return out(state);
+	}
+
+	/**
+	 * The batter hit the ball. A distance below 15 is a foul and the batter is
+	 * out, below 150 a single, below 200 a double, below 250 a triple and
+	 * anything longer a home run. The count is cleared even if the game has
+	 * ended, but then nothing else changes.
+	 *
+	 * @param state    the packed state
+	 * @param distance the distance the ball travels, possibly negative
+	 * @return the packed state after the hit
+	 */
+	public static long hit(long state, int distance) {
+		if (!gameEnded(state)) {
+			if (distance < 15) {
+				state = out(state);
+			} else {
+				state = shiftRunners(state) | FIRST;
+				if (distance >= 150) {
+					state = shiftRunners(state);
+				}
+				if (distance >= 200) {
+					state = shiftRunners(state);
+				}
+				if (distance >= 250) {
+					state = shiftRunners(state);
+				}
+			}
+		}
+		return state & ~COUNT_MASK;
+	}
+
+	/**
+	 * The batter is out on a caught fly. Nothing changes if the game has
+	 * ended.
+	 *
+	 * @param state the packed state
+	 * @return the packed state after the catch
+	 */
+	public static long caughtFly(long state) {
+		if (gameEnded(state)) {
+			return state;
+		}
+		return out(state);
+	}
+
+	/**
+	 * Checks if the game is over.
+	 *
+	 * @param state the packed state
+	 * @return true if the game is over, false otherwise
+	 */
+	public static boolean gameEnded(long state) {
+		return getInning(state) > getNumInnings(state);
+	}
+
+	/**
+	 * Gets the number of innings of the game.
+	 *
+	 * @param state the packed state
+	 * @return the number of innings
+	 */
+	public static int getNumInnings(long state) {
+		return (int) (state >>> INNINGS_SHIFT) & MAX_INNINGS;
+	}
+
+	/**
+	 * Gets the current inning, which is the number of innings plus one once
+	 * the game is over.
+	 *
+	 * @param state the packed state
+	 * @return the current inning
+	 */
+	public static int getInning(long state) {
+		return (int) (state >>> INNING_SHIFT) & 0x7FF;
+	}
+
+	/**
+	 * Checks if it is the top of the inning, when team 0 is at bat.
+	 *
+	 * @param state the packed state
+	 * @return true in the top of the inning, false in the bottom
+	 */
+	public static boolean isTopOfInning(long state) {
+		return (state & BOTTOM) == 0;
+	}
+
+	/**
+	 * Gets the count of balls for the current batter.
+	 *
+	 * @param state the packed state
+	 * @return the ball count
+	 */
+	public static int getBallCount(long state) {
+		return (int) ((state & BALL_MASK) >>> BALL_SHIFT);
+	}
+
+	/**
+	 * Gets the number of called strikes for the current batter.
+	 *
+	 * @param state the packed state
+	 * @return the called strikes
+	 */
+	public static int getCalledStrikes(long state) {
+		return (int) ((state & STRIKE_MASK) >>> STRIKE_SHIFT);
+	}
+
+	/**
+	 * Gets the number of outs for the team at bat.
+	 *
+	 * @param state the packed state
+	 * @return the outs
+	 */
+	public static int getCurrentOuts(long state) {
+		return (int) ((state & OUT_MASK) >>> OUT_SHIFT);
+	}
+
+	/**
+	 * Gets the score of team 0.
+	 *
+	 * @param state the packed state
+	 * @return the score
+	 */
+	public static int getTeam0Score(long state) {
+		return (int) (state >>> SCORE_0_SHIFT) & MAX_SCORE;
+	}
+
+	/**
+	 * Gets the score of team 1.
+	 *
+	 * @param state the packed state
+	 * @return the score
+	 */
+	public static int getTeam1Score(long state) {
+		return (int) (state >>> SCORE_1_SHIFT) & MAX_SCORE;
+	}
+
+	/**
+	 * Checks if there is a runner on the given base.
+	 *
+	 * @param state the packed state
+	 * @param which the base number, 1 to 3
+	 * @return true if there is a runner on that base, false otherwise or for
+	 *         any other number
+	 */
+	public static boolean runnerOnBase(long state, int which) {
+		if (which < 1 || which > 3) {
+			return false;
+		}
+		return (state & FIRST << which - 1) != 0;
+	}
+
+	/**
+	 * Gets all runners at once.
+	 *
+	 * @param state the packed state
+	 * @return bit 0 for a runner on first base, bit 1 for second and bit 2 for
+	 *         third
+	 */
+	static int getRunners(long state) {
+		return (int) (state & BASES);
+	}
+
+	/*
+	 * Moves the runners forward on a walk as far as they are forced: the
+	 * batter takes first, and a runner moves only if the base behind is taken.
+	 */
+	private static long walk(long state) {
+		if ((state & FIRST) == 0) {
+			return state | FIRST;
+		}
+		if ((state & SECOND) == 0) {
+			return state | SECOND;
+		}
+		if ((state & THIRD) == 0) {
+			return state | THIRD;
+		}
+		return score(state);
+	}
+
+	/*
+	 * Moves every runner forward by one base, scoring the runner on third.
+	 * First base is left empty.
+	 */
+	private static long shiftRunners(long state) {
+		if ((state & THIRD) != 0) {
+			state = score(state);
+		}
+		return state & ~BASES | state << 1 & (SECOND | THIRD);
+	}
+
+	/*
+	 * Adds a run for the team at bat.
+	 */
+	private static long score(long state) {
+		int shift = isTopOfInning(state) ? SCORE_0_SHIFT : SCORE_1_SHIFT;
+		if ((state >>> shift & MAX_SCORE) == MAX_SCORE) {
+			throw new ArithmeticException("Score above " + MAX_SCORE + " cannot be packed");
+		}
+		return state + (1L << shift);
+	}
+
+	/*
+	 * Records an out for the batter, brings up the next batter and on the
+	 * last out switches the teams, clearing the bases and moving to the next
+	 * inning after the bottom half.
+	 */
+	private static long out(long state) {
+		state = (state & ~COUNT_MASK) + (1L << OUT_SHIFT);
+		if (getCurrentOuts(state) == FuzzballGame.MAX_OUTS) {
+			state &= ~(BASES | OUT_MASK);
+			if (isTopOfInning(state)) {
+				state |= BOTTOM;
+			} else {
+				state = (state & ~BOTTOM) + (1L << INNING_SHIFT);
+			}
+		}
+		return state;
+	}
+}
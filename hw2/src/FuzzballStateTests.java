@@ -0,0 +1,262 @@
+import java.util.Random;
+
+import hw2.FuzzballGame;
+import hw2.FuzzballState;
+
+/**
+ * Checks that FuzzballGame, which keeps its state packed in a long, plays
+ * exactly like the original game that kept every value in its own field.
+ * The original game is kept below as ReferenceGame.
+ */
+public class FuzzballStateTests
+{
+  public static void main(String[] args)
+  {
+    // a scripted game, including moves after the end
+    FuzzballGame game = new FuzzballGame(1);
+    ReferenceGame reference = new ReferenceGame(1);
+    String script = "bbbbbhHsSfcccSSSfffhbbbHs";
+    boolean same = true;
+    for (int i = 0; i < script.length(); i++)
+    {
+      play(game, reference, script.charAt(i), 300);
+      same &= same(game, reference);
+    }
+    System.out.println(game.gameEnded()); // true
+    System.out.println(same); // true
+    System.out.println(game); // ooo Inning:2 [T] Score:3-0 Balls:0 Strikes:0 Outs:0
+
+    // random games, played well past their end
+    Random rng = new Random(7);
+    long moves = 0;
+    long mismatches = 0;
+    for (int g = 0; g < 50000; g++)
+    {
+      int innings = rng.nextInt(4);
+      game = new FuzzballGame(innings);
+      reference = new ReferenceGame(innings);
+      int extra = 20;
+      while (extra > 0)
+      {
+        play(game, reference, "bsSfh".charAt(rng.nextInt(5)), rng.nextInt(320) - 20);
+        moves++;
+        if (!same(game, reference)) mismatches++;
+        if (game.gameEnded()) extra--;
+      }
+    }
+    System.out.println(moves); // 1940555
+    System.out.println(mismatches); // 0
+
+    // the new limits of the packed state
+    System.out.println(rejects(-1)); // true
+    System.out.println(rejects(FuzzballState.MAX_INNINGS + 1)); // true
+    System.out.println(new FuzzballGame(FuzzballState.MAX_INNINGS).whichInning()); // 1
+    game = new FuzzballGame(1);
+    for (int i = 0; i < FuzzballState.MAX_SCORE; i++)
+    {
+      game.hit(250);
+    }
+    System.out.println(game.getTeam0Score()); // 65535
+    try
+    {
+      game.hit(250);
+      System.out.println(false);
+    }
+    catch (ArithmeticException e)
+    {
+      System.out.println(true); // true
+    }
+  }
+
+  private static void play(FuzzballGame game, ReferenceGame reference, char move, int distance)
+  {
+    if (move == 'b')
+    {
+      game.ball();
+      reference.ball();
+    }
+    else if (move == 's' || move == 'S')
+    {
+      game.strike(move == 'S');
+      reference.strike(move == 'S');
+    }
+    else if (move == 'f' || move == 'c')
+    {
+      game.caughtFly();
+      reference.caughtFly();
+    }
+    else
+    {
+      int d = move == 'H' ? 250 : distance;
+      game.hit(d);
+      reference.hit(d);
+    }
+  }
+
+  private static boolean same(FuzzballGame game, ReferenceGame reference)
+  {
+    return game.gameEnded() == reference.gameEnded() && game.whichInning() == reference.whichInning()
+        && game.isTopOfInning() == reference.topOfInning && game.getBallCount() == reference.numBall
+        && game.getCalledStrikes() == reference.numStrike && game.getCurrentOuts() == reference.numOut
+        && game.runnerOnBase(1) == reference.base1 && game.runnerOnBase(2) == reference.base2
+        && game.runnerOnBase(3) == reference.base3 && game.getTeam0Score() == reference.score0
+        && game.getTeam1Score() == reference.score1;
+  }
+
+  private static boolean rejects(int innings)
+  {
+    try
+    {
+      new FuzzballGame(innings);
+      return false;
+    }
+    catch (IllegalArgumentException e)
+    {
+      return true;
+    }
+  }
+
+  /**
+   * The game as it was before its state was packed, one field per value.
+   */
+  private static class ReferenceGame
+  {
+    int numInnings;
+    int currentInning = 1;
+    boolean topOfInning = true;
+    int numBall;
+    int numStrike;
+    int numOut;
+    boolean base1;
+    boolean base2;
+    boolean base3;
+    int score0;
+    int score1;
+
+    ReferenceGame(int numInnings)
+    {
+      this.numInnings = numInnings;
+    }
+
+    boolean gameEnded()
+    {
+      return currentInning > numInnings;
+    }
+
+    int whichInning()
+    {
+      return gameEnded() ? numInnings + 1 : currentInning;
+    }
+
+    void ball()
+    {
+      if (gameEnded()) return;
+      numBall++;
+      if (numBall == FuzzballGame.MAX_BALLS)
+      {
+        if (!base1) base1 = true;
+        else if (!base2) base2 = true;
+        else if (!base3) base3 = true;
+        else score();
+        batterSwitch();
+      }
+    }
+
+    void caughtFly()
+    {
+      if (gameEnded()) return;
+      numOut++;
+      batterSwitch();
+      teamsSwitch();
+    }
+
+    void strike(boolean swung)
+    {
+      if (gameEnded()) return;
+      if (swung)
+      {
+        numOut++;
+        batterSwitch();
+      }
+      else
+      {
+        numStrike++;
+        if (numStrike == FuzzballGame.MAX_STRIKES)
+        {
+          numOut++;
+          batterSwitch();
+        }
+      }
+      teamsSwitch();
+    }
+
+    void hit(int distance)
+    {
+      if (!gameEnded())
+      {
+        if (distance < 15)
+        {
+          numOut++;
+          batterSwitch();
+          teamsSwitch();
+        }
+        else
+        {
+          shiftRunner();
+          base1 = true;
+        }
+        if (distance >= 150 && distance < 200) shiftRunner();
+        if (distance >= 200 && distance < 250)
+        {
+          shiftRunner();
+          shiftRunner();
+        }
+        if (distance >= 250)
+        {
+          shiftRunner();
+          shiftRunner();
+          shiftRunner();
+        }
+      }
+      batterSwitch();
+    }
+
+    private void shiftRunner()
+    {
+      if (base3) score();
+      base3 = base2;
+      base2 = base1;
+      base1 = false;
+    }
+
+    private void score()
+    {
+      if (topOfInning) score0++;
+      else score1++;
+    }
+
+    private void batterSwitch()
+    {
+      numBall = 0;
+      numStrike = 0;
+    }
+
+    private void teamsSwitch()
+    {
+      if (numOut == FuzzballGame.MAX_OUTS)
+      {
+        batterSwitch();
+        base1 = false;
+        base2 = false;
+        base3 = false;
+        numOut = 0;
+        if (topOfInning) topOfInning = false;
+        else
+        {
+          topOfInning = true;
+          currentInning++;
+        }
+      }
+    }
+  }
+}
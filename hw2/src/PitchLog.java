@@ -0,0 +1,314 @@
+package hw2;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Records every ball(), strike(), hit() and caughtFly() call of a
+ * FuzzballGame, so the game can be looked at after any pitch.
+ *
+ * <p>
+ * Each call is appended as one byte: the kind of call, or for a hit the
+ * distance plus 5 when it is between 0 and 250. Other hits take a byte
+ * followed by the distance as a variable length integer. Every interval
+ * pitches the packed FuzzballState after the pitch is kept as a snapshot,
+ * along with where the next pitch starts in the log. Seeking to a pitch
+ * starts from the snapshot at or before it and replays at most interval - 1
+ * pitches, so it takes the same time anywhere in a long game. A snapshot
+ * takes 12 bytes, so with the default interval of 64 the snapshots add
+ * about a fifth of a byte per pitch.
+ *
+ * <p>
+ * writeTo() saves the starting state and the pitches; read() loads them
+ * again and rebuilds the snapshots.
+ *
+ * @author ADAM_HMADDI
+ */
+public class PitchLog {
+	/**
+	 * Snapshot interval used when none is given.
+	 */
+	public static final int DEFAULT_INTERVAL = 64;
+
+	static final int BALL = 0; // ball()
+	static final int CALLED_STRIKE = 1; // strike(false)
+	static final int SWUNG_STRIKE = 2; // strike(true)
+	static final int CAUGHT_FLY = 3; // caughtFly()
+	static final int HIT = 4; // hit() with the distance following
+	private static final int SHORT_HIT = 5; // hit() with distance + SHORT_HIT as the whole byte
+	private static final int MAX_SHORT_HIT = 255 - SHORT_HIT;
+
+	private static final int MAGIC = 0x46504C47; // "FPLG"
+	private static final int VERSION = 1;
+
+	private final int interval; // Pitches between two snapshots
+	private byte[] events = new byte[256]; // The pitches
+	private int length; // Number of bytes in events
+	private long pitches; // Number of pitches recorded
+	private long[] snapshots = new long[16]; // State after every interval pitches, the first at the start
+	private int[] offsets = new int[16]; // Position in events of the pitch after each snapshot
+	private int count; // Number of snapshots
+	private FuzzballGame game; // Game being recorded, or null
+
+	/**
+	 * Starts recording the given game with the default snapshot interval.
+	 *
+	 * @param game the game to record, which must not already be recorded
+	 */
+	public PitchLog(FuzzballGame game) {
+		this(game, DEFAULT_INTERVAL);
+	}
+
+	/**
+	 * Starts recording the given game. Recording can start at any point of
+	 * the game; pitch 0 is the state when it starts.
+	 *
+	 * @param game     the game to record, which must not already be recorded
+	 * @param interval the number of pitches between two snapshots
+	 */
+	public PitchLog(FuzzballGame game, int interval) {
+		this(game.getPackedState(), interval);
+		game.setLog(this);
+		this.game = game;
+	}
+
+	/*
+	 * Creates a log starting from the given state that no game writes to.
+	 */
+	private PitchLog(long start, int interval) {
+		if (interval < 1) {
+			throw new IllegalArgumentException("interval must be at least 1: " + interval);
+		}
+		this.interval = interval;
+		snapshots[0] = start;
+		count = 1;
+	}
+
+	/**
+	 * Stops recording. The pitches recorded so far can still be looked at.
+	 */
+	public void detach() {
+		if (game != null) {
+			game.setLog(null);
+			game = null;
+		}
+	}
+
+	/**
+	 * Gets the number of pitches recorded.
+	 *
+	 * @return the number of pitches
+	 */
+	public long getPitches() {
+		return pitches;
+	}
+
+	/**
+	 * Gets the number of bytes the pitches take.
+	 *
+	 * @return the number of bytes
+	 */
+	public long getBytes() {
+		return length;
+	}
+
+	/**
+	 * Gets the number of pitches between two snapshots.
+	 *
+	 * @return the interval
+	 */
+	public int getInterval() {
+		return interval;
+	}
+
+	/**
+	 * Gets the packed state of the game after the given number of pitches.
+	 *
+	 * @param pitch the number of pitches, from 0 for the start to
+	 *              getPitches()
+	 * @return the packed FuzzballState
+	 */
+	public long stateAt(long pitch) {
+		if (pitch < 0 || pitch > pitches) {
+			throw new IllegalArgumentException("No pitch " + pitch + " in a log of " + pitches);
+		}
+		int snapshot = (int) (pitch / interval);
+		long state = snapshots[snapshot];
+		int at = offsets[snapshot];
+		for (long p = (long) snapshot * interval; p < pitch; p++) {
+			int kind = events[at++] & 0xFF;
+			int distance = 0;
+			if (kind == HIT) {
+				long read = readDistance(events, at, length);
+				distance = (int) read;
+				at = (int) (read >>> 32);
+			} else if (kind >= SHORT_HIT) {
+				distance = kind - SHORT_HIT;
+				kind = HIT;
+			}
+			state = apply(state, kind, distance);
+		}
+		return state;
+	}
+
+	/**
+	 * Creates a game in the state after the given number of pitches. The new
+	 * game is not recorded.
+	 *
+	 * @param pitch the number of pitches, from 0 for the start to
+	 *              getPitches()
+	 * @return the game
+	 */
+	public FuzzballGame gameAt(long pitch) {
+		return new FuzzballGame(stateAt(pitch));
+	}
+
+	/**
+	 * Writes the starting state and every pitch to the given stream.
+	 *
+	 * @param out the stream
+	 * @throws IOException if the stream cannot be written
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeByte(VERSION);
+		data.writeLong(snapshots[0]);
+		data.writeLong(pitches);
+		data.writeInt(length);
+		data.write(events, 0, length);
+		data.flush();
+	}
+
+	/**
+	 * Reads a log written by writeTo() and rebuilds its snapshots. The log is
+	 * not attached to any game.
+	 *
+	 * @param in       the stream
+	 * @param interval the number of pitches between two snapshots
+	 * @return the log
+	 * @throws IOException if the stream cannot be read or holds no valid log
+	 */
+	public static PitchLog read(InputStream in, int interval) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a pitch log");
+		}
+		int version = data.readUnsignedByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported pitch log version " + version);
+		}
+		PitchLog log = new PitchLog(data.readLong(), interval);
+		long pitches = data.readLong();
+		int length = data.readInt();
+		if (pitches < 0 || length < 0 || pitches > length) {
+			throw new IOException("Corrupt pitch log: " + pitches + " pitches in " + length + " bytes");
+		}
+		byte[] events = new byte[length];
+		data.readFully(events);
+		long state = log.snapshots[0];
+		int at = 0;
+		for (long p = 0; p < pitches; p++) {
+			if (at >= length) {
+				throw new EOFException("Pitch log ends after " + p + " of " + pitches + " pitches");
+			}
+			int kind = events[at++] & 0xFF;
+			int distance = 0;
+			if (kind == HIT) {
+				long read = readDistance(events, at, length);
+				if (read < 0) {
+					throw new IOException("Corrupt hit distance at pitch " + p);
+				}
+				distance = (int) read;
+				at = (int) (read >>> 32);
+			} else if (kind >= SHORT_HIT) {
+				distance = kind - SHORT_HIT;
+				kind = HIT;
+			}
+			state = apply(state, kind, distance);
+			log.record(kind, distance, state);
+		}
+		return log;
+	}
+
+	/**
+	 * Appends one pitch, called by the game after the pitch.
+	 *
+	 * @param kind     the kind of call, BALL to HIT
+	 * @param distance the distance of a hit, 0 otherwise
+	 * @param state    the packed state after the pitch
+	 */
+	void record(int kind, int distance, long state) {
+		if (length + 6 > events.length) {
+			events = Arrays.copyOf(events, events.length * 2);
+		}
+		if (kind != HIT) {
+			events[length++] = (byte) kind;
+		} else if (distance >= 0 && distance <= MAX_SHORT_HIT) {
+			events[length++] = (byte) (distance + SHORT_HIT);
+		} else {
+			events[length++] = (byte) HIT;
+			long v = (distance << 1 ^ distance >> 31) & 0xFFFFFFFFL; // Zigzag, so small negative distances stay short
+			while (v >= 0x80) {
+				events[length++] = (byte) (v | 0x80);
+				v >>>= 7;
+			}
+			events[length++] = (byte) v;
+		}
+		pitches++;
+		if (pitches % interval == 0) {
+			if (count == snapshots.length) {
+				snapshots = Arrays.copyOf(snapshots, count * 2);
+				offsets = Arrays.copyOf(offsets, count * 2);
+			}
+			snapshots[count] = state;
+			offsets[count] = length;
+			count++;
+		}
+	}
+
+	/*
+	 * Reads the distance of a hit written as a variable length integer at
+	 * the given position. Returns the position after it in the high 32 bits
+	 * and the distance in the low 32 bits, or -1 if the bytes before end do
+	 * not hold a distance.
+	 */
+	private static long readDistance(byte[] events, int at, int end) {
+		long v = 0;
+		int shift = 0;
+		int b;
+		do {
+			if (at >= end || shift > 28) {
+				return -1;
+			}
+			b = events[at++];
+			v |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		int distance = (int) (v >>> 1 ^ -(v & 1));
+		return (long) at << 32 | distance & 0xFFFFFFFFL;
+	}
+
+	/*
+	 * Applies one recorded pitch to a packed state.
+	 */
+	private static long apply(long state, int kind, int distance) {
+		switch (kind) {
+		case BALL:
+			return FuzzballState.ball(state);
+		case CALLED_STRIKE:
+			return FuzzballState.strike(state, false);
+		case SWUNG_STRIKE:
+			return FuzzballState.strike(state, true);
+		case CAUGHT_FLY:
+			return FuzzballState.caughtFly(state);
+		default:
+			return FuzzballState.hit(state, distance);
+		}
+	}
+}
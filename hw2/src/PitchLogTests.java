@@ -0,0 +1,73 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import hw2.FuzzballGame;
+import hw2.PitchLog;
+
+/**
+ * Checks that a PitchLog gives back the state after every pitch, also after
+ * being written and read again, and that seeking does not depend on how far
+ * into the game the pitch is.
+ */
+public class PitchLogTests
+{
+  public static void main(String[] args) throws IOException
+  {
+    Random rng = new Random(5);
+    FuzzballGame game = new FuzzballGame(1000);
+    PitchLog log = new PitchLog(game);
+    int pitches = 200000;
+    String[] expected = new String[pitches + 1];
+    expected[0] = game.toString();
+    for (int p = 1; p <= pitches; p++)
+    {
+      int k = rng.nextInt(5);
+      if (k == 0) game.ball();
+      else if (k == 1) game.strike(rng.nextBoolean());
+      else if (k == 2) game.caughtFly();
+      else game.hit(rng.nextInt(400) - 50); // some negative and long hits
+      expected[p] = game.toString();
+    }
+    System.out.println(log.getPitches());   // 200000
+    System.out.println(game.gameEnded());   // true, the last pitches are no-ops
+    System.out.printf("%.2f bytes per pitch%n", (double) log.getBytes() / log.getPitches());
+
+    int wrong = 0;
+    for (int p = 0; p <= pitches; p++)
+    {
+      if (!log.gameAt(p).toString().equals(expected[p])) wrong++;
+    }
+    System.out.println(wrong); // 0
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    log.writeTo(out);
+    PitchLog read = PitchLog.read(new ByteArrayInputStream(out.toByteArray()), 16);
+    wrong = 0;
+    for (int p = 0; p <= pitches; p += 7)
+    {
+      if (!read.gameAt(p).toString().equals(expected[p])) wrong++;
+    }
+    System.out.println(wrong); // 0
+
+    log.detach();
+    game.ball();
+    System.out.println(log.getPitches()); // 200000, no longer recorded
+
+    long sum = 0;
+    long t0 = System.nanoTime();
+    for (int i = 0; i < 100000; i++)
+    {
+      sum += log.stateAt(i % 1000);
+    }
+    long t1 = System.nanoTime();
+    for (int i = 0; i < 100000; i++)
+    {
+      sum += log.stateAt(pitches - i % 1000);
+    }
+    long t2 = System.nanoTime();
+    System.out.printf("seek near the start %.0f ns, near the end %.0f ns (%d)%n", (t1 - t0) / 1e5, (t2 - t1) / 1e5,
+        sum & 1);
+  }
+}
@@ -0,0 +1,525 @@
+package hw2;
+
+/**
+ * Answers "how many runs will the team at bat still score this half inning"
+ * and "how likely is it to score at all" for every situation of a Fuzzball
+ * half inning, without simulating any games.
+ *
+ * <p>
+ * A situation is the runners on base, the ball count, the called strikes and
+ * the outs, 8 * MAX_BALLS * MAX_STRIKES * MAX_OUTS = 240 in all. For a given
+ * chance of each pitch outcome, the next situation and the runs scored for
+ * every situation and outcome are worked out once, by applying the
+ * FuzzballState moves, and kept in dense tables. Outs never go down within a
+ * half inning, so the expectations are solved one number of outs at a time,
+ * from the last out backwards, each time using the answers for more outs.
+ * Within one number of outs the runners can come back to where they were,
+ * for example a walk with the bases loaded, so the 80 situations of each
+ * level are solved together as a linear system. Afterwards every query is
+ * one array lookup.
+ *
+ * @author ADAM_HMADDI
+ */
+public class RunExpectancy {
+	/**
+	 * Pitch outcome: a ball.
+	 */
+	public static final int BALL = 0;
+
+	/**
+	 * Pitch outcome: a called strike.
+	 */
+	public static final int CALLED_STRIKE = 1;
+
+	/**
+	 * Pitch outcome: a swung strike.
+	 */
+	public static final int SWUNG_STRIKE = 2;
+
+	/**
+	 * Pitch outcome: a caught fly.
+	 */
+	public static final int CAUGHT_FLY = 3;
+
+	/**
+	 * Pitch outcome: a hit shorter than 15, which is a foul.
+	 */
+	public static final int FOUL = 4;
+
+	/**
+	 * Pitch outcome: a hit from 15 up to 150, a single.
+	 */
+	public static final int SINGLE = 5;
+
+	/**
+	 * Pitch outcome: a hit from 150 up to 200, a double.
+	 */
+	public static final int DOUBLE = 6;
+
+	/**
+	 * Pitch outcome: a hit from 200 up to 250, a triple.
+	 */
+	public static final int TRIPLE = 7;
+
+	/**
+	 * Pitch outcome: a hit of 250 or more, a home run.
+	 */
+	public static final int HOME_RUN = 8;
+
+	/**
+	 * Number of pitch outcomes.
+	 */
+	public static final int OUTCOMES = 9;
+
+	/**
+	 * Largest number of further runs in a half inning counted separately by
+	 * runChance(); the chance for MAX_RUNS includes any larger number.
+	 */
+	public static final int MAX_RUNS = 40;
+
+	/**
+	 * Number of situations in a half inning.
+	 */
+	public static final int SITUATIONS = 8 * FuzzballGame.MAX_BALLS * FuzzballGame.MAX_STRIKES
+			* FuzzballGame.MAX_OUTS;
+
+	private static final int LEVEL = SITUATIONS / FuzzballGame.MAX_OUTS; // Situations with the same outs
+	private static final int[] NEXT = new int[SITUATIONS * OUTCOMES]; // Next situation, or -1 when the half ends
+	private static final int[] RUNS = new int[SITUATIONS * OUTCOMES]; // Runs scored
+	private static final int[] HIT_DISTANCE = { 0, 15, 150, 200, 250 }; // Shortest foul, single, double, triple and home run
+
+	static {
+		for (int s = 0; s < SITUATIONS; s++) {
+			long state = FuzzballState.situation(basesOf(s), ballsOf(s), strikesOf(s), outsOf(s));
+			for (int o = 0; o < OUTCOMES; o++) {
+				long next = apply(state, o);
+				RUNS[s * OUTCOMES + o] = FuzzballState.getTeam0Score(next);
+				NEXT[s * OUTCOMES + o] = FuzzballState.isTopOfInning(next) ? situationOf(next) : -1;
+			}
+		}
+	}
+
+	private final double[] chances; // Chance of each outcome
+	private final double[] expectedRuns; // Expected runs for the rest of the half inning, per situation
+	private final double[] scoringChance; // Chance of scoring at least once more, per situation
+	private final double[] runChances; // Chance of each number of further runs, MAX_RUNS + 1 per situation
+
+	/**
+	 * Builds the tables for the given chance of each pitch outcome.
+	 *
+	 * @param chances the chance of each outcome, indexed by BALL to HOME_RUN,
+	 *                adding up to 1
+	 */
+	public RunExpectancy(double[] chances) {
+		if (chances.length != OUTCOMES) {
+			throw new IllegalArgumentException("Expected " + OUTCOMES + " chances, got " + chances.length);
+		}
+		double sum = 0;
+		for (double c : chances) {
+			if (!(c >= 0)) {
+				throw new IllegalArgumentException("Chances must not be negative");
+			}
+			sum += c;
+		}
+		if (Math.abs(sum - 1) > 1e-9) {
+			throw new IllegalArgumentException("Chances must add up to 1: " + sum);
+		}
+		if (chances[CALLED_STRIKE] + chances[SWUNG_STRIKE] + chances[CAUGHT_FLY] + chances[FOUL] == 0) {
+			throw new IllegalArgumentException("A half inning without outs would never end");
+		}
+		this.chances = chances.clone();
+		expectedRuns = new double[SITUATIONS];
+		scoringChance = new double[SITUATIONS];
+		runChances = new double[SITUATIONS * (MAX_RUNS + 1)];
+		for (int outs = FuzzballGame.MAX_OUTS - 1; outs >= 0; outs--) {
+			solveLevel(outs);
+			solveRunChances(outs);
+		}
+	}
+
+	/**
+	 * Builds the tables for the pitches drawn by a BattingProfile, with the
+	 * chance of each kind of hit taken from its normal distribution of
+	 * distances.
+	 *
+	 * @param profile the batting profile
+	 * @return the tables
+	 */
+	public static RunExpectancy forProfile(BattingProfile profile) {
+		double[] chances = new double[OUTCOMES];
+		chances[BALL] = profile.getBall();
+		chances[CALLED_STRIKE] = profile.getCalledStrike();
+		chances[SWUNG_STRIKE] = profile.getSwungStrike();
+		chances[CAUGHT_FLY] = profile.getCaughtFly();
+		double hit = profile.getHit();
+		double below = 0;
+		for (int o = FOUL; o < HOME_RUN; o++) {
+			double upTo = distanceBelow(HIT_DISTANCE[o - FOUL + 1], profile);
+			chances[o] = hit * (upTo - below);
+			below = upTo;
+		}
+		chances[HOME_RUN] = hit * (1 - below);
+		return new RunExpectancy(chances);
+	}
+
+	/**
+	 * Gets the number of the situation with the given runners, count and
+	 * outs.
+	 *
+	 * @param bases   the runners as returned by FuzzballGame.getBases(), for
+	 *                example "oXX"
+	 * @param balls   the ball count
+	 * @param strikes the called strikes
+	 * @param outs    the outs
+	 * @return the situation, from 0 to SITUATIONS - 1
+	 */
+	public static int situation(String bases, int balls, int strikes, int outs) {
+		if (bases.length() != 3) {
+			throw new IllegalArgumentException("Bases must be three characters: " + bases);
+		}
+		int mask = 0;
+		for (int b = 0; b < 3; b++) {
+			char c = bases.charAt(b);
+			if (c == 'X') {
+				mask |= 1 << b;
+			} else if (c != 'o') {
+				throw new IllegalArgumentException("Bases must be made of 'X' and 'o': " + bases);
+			}
+		}
+		return situation(mask, balls, strikes, outs);
+	}
+
+	/**
+	 * Gets the number of the situation with the given runners, count and
+	 * outs.
+	 *
+	 * @param bases   the runners, with bit 0 for first base, bit 1 for second
+	 *                and bit 2 for third
+	 * @param balls   the ball count
+	 * @param strikes the called strikes
+	 * @param outs    the outs
+	 * @return the situation, from 0 to SITUATIONS - 1
+	 */
+	public static int situation(int bases, int balls, int strikes, int outs) {
+		if (bases < 0 || bases > 7 || balls < 0 || balls >= FuzzballGame.MAX_BALLS || strikes < 0
+				|| strikes >= FuzzballGame.MAX_STRIKES || outs < 0 || outs >= FuzzballGame.MAX_OUTS) {
+			throw new IllegalArgumentException("No such situation: bases " + bases + ", balls " + balls
+					+ ", strikes " + strikes + ", outs " + outs);
+		}
+		return ((outs * 8 + bases) * FuzzballGame.MAX_BALLS + balls) * FuzzballGame.MAX_STRIKES + strikes;
+	}
+
+	/**
+	 * Gets the situation after a pitch.
+	 *
+	 * @param situation the situation before the pitch
+	 * @param outcome   the outcome of the pitch
+	 * @return the situation after the pitch, or -1 if it ended the half inning
+	 */
+	public static int next(int situation, int outcome) {
+		return NEXT[situation * OUTCOMES + outcome];
+	}
+
+	/**
+	 * Gets the runs scored by a pitch.
+	 *
+	 * @param situation the situation before the pitch
+	 * @param outcome   the outcome of the pitch
+	 * @return the number of runs
+	 */
+	public static int runs(int situation, int outcome) {
+		return RUNS[situation * OUTCOMES + outcome];
+	}
+
+	/**
+	 * Gets the chance of a pitch outcome.
+	 *
+	 * @param outcome the outcome
+	 * @return the chance
+	 */
+	public double getChance(int outcome) {
+		return chances[outcome];
+	}
+
+	/**
+	 * Gets the number of runs the team at bat is expected to score in the
+	 * rest of the half inning.
+	 *
+	 * @param situation the situation
+	 * @return the expected runs
+	 */
+	public double expectedRuns(int situation) {
+		return expectedRuns[situation];
+	}
+
+	/**
+	 * Gets the number of runs the team at bat is expected to score in the
+	 * rest of the half inning.
+	 *
+	 * @param bases   the runners, for example "oXX"
+	 * @param balls   the ball count
+	 * @param strikes the called strikes
+	 * @param outs    the outs
+	 * @return the expected runs
+	 */
+	public double expectedRuns(String bases, int balls, int strikes, int outs) {
+		return expectedRuns[situation(bases, balls, strikes, outs)];
+	}
+
+	/**
+	 * Gets the chance that the team at bat scores at least once more in the
+	 * half inning.
+	 *
+	 * @param situation the situation
+	 * @return the chance, between 0 and 1
+	 */
+	public double scoringChance(int situation) {
+		return scoringChance[situation];
+	}
+
+	/**
+	 * Gets the chance that the team at bat scores at least once more in the
+	 * half inning.
+	 *
+	 * @param bases   the runners, for example "oXX"
+	 * @param balls   the ball count
+	 * @param strikes the called strikes
+	 * @param outs    the outs
+	 * @return the chance, between 0 and 1
+	 */
+	public double scoringChance(String bases, int balls, int strikes, int outs) {
+		return scoringChance[situation(bases, balls, strikes, outs)];
+	}
+
+	/**
+	 * Gets the chance that the team at bat scores exactly the given number of
+	 * further runs in the half inning.
+	 *
+	 * @param situation the situation
+	 * @param runs      the number of runs, from 0 to MAX_RUNS, where MAX_RUNS
+	 *                  stands for MAX_RUNS or more
+	 * @return the chance, between 0 and 1
+	 */
+	public double runChance(int situation, int runs) {
+		return runChances[situation * (MAX_RUNS + 1) + runs];
+	}
+
+	/*
+	 * Solves both expectations for the situations with the given outs, given
+	 * the answers for more outs. For each situation s of the level,
+	 * x[s] - sum over pitches staying in the level of chance * x[next] = sum
+	 * of chance * (value of the pitch + x[next] for pitches to more outs).
+	 * For the scoring chance a pitch that scores is worth 1 and ends the
+	 * question, so only pitches without runs lead on to x[next].
+	 */
+	private void solveLevel(int outs) {
+		int first = outs * LEVEL;
+		double[][] runsSystem = new double[LEVEL][LEVEL];
+		double[][] scoringSystem = new double[LEVEL][LEVEL];
+		double[] runsValue = new double[LEVEL];
+		double[] scoringValue = new double[LEVEL];
+		for (int i = 0; i < LEVEL; i++) {
+			int s = first + i;
+			runsSystem[i][i] = 1;
+			scoringSystem[i][i] = 1;
+			for (int o = 0; o < OUTCOMES; o++) {
+				double p = chances[o];
+				int runs = RUNS[s * OUTCOMES + o];
+				int next = NEXT[s * OUTCOMES + o];
+				runsValue[i] += p * runs;
+				if (runs > 0) {
+					scoringValue[i] += p;
+				}
+				if (next < 0) {
+					continue;
+				}
+				if (next < first + LEVEL) {
+					runsSystem[i][next - first] -= p;
+					if (runs == 0) {
+						scoringSystem[i][next - first] -= p;
+					}
+				} else {
+					runsValue[i] += p * expectedRuns[next];
+					if (runs == 0) {
+						scoringValue[i] += p * scoringChance[next];
+					}
+				}
+			}
+		}
+		double[] runs = solve(runsSystem, runsValue);
+		double[] scoring = solve(scoringSystem, scoringValue);
+		for (int i = 0; i < LEVEL; i++) {
+			expectedRuns[first + i] = runs[i];
+			scoringChance[first + i] = scoring[i];
+		}
+	}
+
+	/*
+	 * Solves the chance of each number of further runs for the situations
+	 * with the given outs, one number of runs at a time from 0 up. A pitch
+	 * that scores r runs leads to a chance for r fewer runs, which is already
+	 * known, so only pitches without runs that stay in the level make up the
+	 * system, the same one for every number of runs. The chances for MAX_RUNS
+	 * are whatever the smaller numbers leave.
+	 */
+	private void solveRunChances(int outs) {
+		int first = outs * LEVEL;
+		int width = MAX_RUNS + 1;
+		double[][] system = new double[LEVEL][LEVEL];
+		for (int i = 0; i < LEVEL; i++) {
+			int s = first + i;
+			system[i][i] = 1;
+			for (int o = 0; o < OUTCOMES; o++) {
+				int next = NEXT[s * OUTCOMES + o];
+				if (RUNS[s * OUTCOMES + o] == 0 && next >= first && next < first + LEVEL) {
+					system[i][next - first] -= chances[o];
+				}
+			}
+		}
+		for (int k = 0; k < MAX_RUNS; k++) {
+			double[] value = new double[LEVEL];
+			for (int i = 0; i < LEVEL; i++) {
+				int s = first + i;
+				for (int o = 0; o < OUTCOMES; o++) {
+					int runs = RUNS[s * OUTCOMES + o];
+					int next = NEXT[s * OUTCOMES + o];
+					if (runs > k) {
+						continue;
+					}
+					if (next < 0) {
+						value[i] += runs == k ? chances[o] : 0;
+					} else if (runs > 0 || next >= first + LEVEL) {
+						value[i] += chances[o] * runChances[next * width + k - runs];
+					}
+				}
+			}
+			double[][] a = new double[LEVEL][];
+			for (int i = 0; i < LEVEL; i++) {
+				a[i] = system[i].clone();
+			}
+			double[] x = solve(a, value);
+			for (int i = 0; i < LEVEL; i++) {
+				runChances[(first + i) * width + k] = x[i];
+			}
+		}
+		for (int i = 0; i < LEVEL; i++) {
+			double rest = 1;
+			for (int k = 0; k < MAX_RUNS; k++) {
+				rest -= runChances[(first + i) * width + k];
+			}
+			runChances[(first + i) * width + MAX_RUNS] = Math.max(rest, 0);
+		}
+	}
+
+	/*
+	 * Solves a x = b by Gaussian elimination with partial pivoting. Both
+	 * arguments are overwritten.
+	 */
+	private static double[] solve(double[][] a, double[] b) {
+		int n = b.length;
+		for (int c = 0; c < n; c++) {
+			int pivot = c;
+			for (int r = c + 1; r < n; r++) {
+				if (Math.abs(a[r][c]) > Math.abs(a[pivot][c])) {
+					pivot = r;
+				}
+			}
+			double[] row = a[c];
+			a[c] = a[pivot];
+			a[pivot] = row;
+			double t = b[c];
+			b[c] = b[pivot];
+			b[pivot] = t;
+			for (int r = c + 1; r < n; r++) {
+				double f = a[r][c] / a[c][c];
+				if (f == 0) {
+					continue;
+				}
+				for (int k = c; k < n; k++) {
+					a[r][k] -= f * a[c][k];
+				}
+				b[r] -= f * b[c];
+			}
+		}
+		double[] x = new double[n];
+		for (int r = n - 1; r >= 0; r--) {
+			double sum = b[r];
+			for (int k = r + 1; k < n; k++) {
+				sum -= a[r][k] * x[k];
+			}
+			x[r] = sum / a[r][r];
+		}
+		return x;
+	}
+
+	/*
+	 * Applies one pitch outcome to a packed state.
+	 */
+	private static long apply(long state, int outcome) {
+		switch (outcome) {
+		case BALL:
+			return FuzzballState.ball(state);
+		case CALLED_STRIKE:
+			return FuzzballState.strike(state, false);
+		case SWUNG_STRIKE:
+			return FuzzballState.strike(state, true);
+		case CAUGHT_FLY:
+			return FuzzballState.caughtFly(state);
+		default:
+			return FuzzballState.hit(state, HIT_DISTANCE[outcome - FOUL]);
+		}
+	}
+
+	/*
+	 * Gets the situation of a packed state of a game still in progress.
+	 */
+	static int situationOf(long state) {
+		int outs = FuzzballState.getCurrentOuts(state);
+		int bases = FuzzballState.getRunners(state);
+		return ((outs * 8 + bases) * FuzzballGame.MAX_BALLS + FuzzballState.getBallCount(state))
+				* FuzzballGame.MAX_STRIKES + FuzzballState.getCalledStrikes(state);
+	}
+
+	private static int basesOf(int situation) {
+		return situation / (FuzzballGame.MAX_BALLS * FuzzballGame.MAX_STRIKES) % 8;
+	}
+
+	private static int ballsOf(int situation) {
+		return situation / FuzzballGame.MAX_STRIKES % FuzzballGame.MAX_BALLS;
+	}
+
+	private static int strikesOf(int situation) {
+		return situation % FuzzballGame.MAX_STRIKES;
+	}
+
+	private static int outsOf(int situation) {
+		return situation / LEVEL;
+	}
+
+	/*
+	 * Gets the chance that a hit of the profile falls short of the given
+	 * distance. Hits are rounded down, so this is the chance of a distance
+	 * below it.
+	 */
+	private static double distanceBelow(int distance, BattingProfile profile) {
+		double spread = profile.getHitSpread();
+		if (spread == 0) {
+			return profile.getHitDistance() < distance ? 1 : 0;
+		}
+		return normalBelow((distance - profile.getHitDistance()) / spread);
+	}
+
+	/*
+	 * Gets the standard normal distribution function, using the complementary
+	 * error function approximation from Numerical Recipes, which is accurate
+	 * to about 1e-7.
+	 */
+	private static double normalBelow(double x) {
+		double z = Math.abs(x) / Math.sqrt(2);
+		double t = 1 / (1 + 0.5 * z);
+		double erfc = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+				+ t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+						+ t * (-0.82215223 + t * 0.17087277)))))))));
+		return x >= 0 ? 1 - erfc / 2 : erfc / 2;
+	}
+}
@@ -0,0 +1,74 @@
+import java.util.Random;
+
+import hw2.BattingProfile;
+import hw2.FuzzballGame;
+import hw2.RunExpectancy;
+
+/**
+ * Checks the run expectancy tables against the game: every situation must
+ * agree with the situations one pitch later, and the expected runs of a
+ * whole half inning must match simulated half innings.
+ */
+public class RunExpectancyTests
+{
+  public static void main(String[] args)
+  {
+    BattingProfile profile = new BattingProfile(0.25, 0.20, 0.14, 0.15, 155, 60);
+    RunExpectancy table = RunExpectancy.forProfile(profile);
+
+    // each situation is worth what its pitches are worth
+    double worst = 0;
+    for (int s = 0; s < RunExpectancy.SITUATIONS; s++)
+    {
+      double runs = 0;
+      for (int o = 0; o < RunExpectancy.OUTCOMES; o++)
+      {
+        int next = RunExpectancy.next(s, o);
+        runs += table.getChance(o) * (RunExpectancy.runs(s, o) + (next < 0 ? 0 : table.expectedRuns(next)));
+      }
+      worst = Math.max(worst, Math.abs(runs - table.expectedRuns(s)));
+    }
+    System.out.println(worst < 1e-9); // true
+
+    // a walk with the bases loaded scores, a swung strike with 2 outs ends the half
+    int loaded = RunExpectancy.situation("XXX", 4, 0, 0);
+    System.out.println(RunExpectancy.runs(loaded, RunExpectancy.BALL));          // 1
+    System.out.println(RunExpectancy.next(loaded, RunExpectancy.BALL) == RunExpectancy.situation("XXX", 0, 0, 0)); // true
+    System.out.println(RunExpectancy.next(RunExpectancy.situation("ooo", 0, 0, 2), RunExpectancy.SWUNG_STRIKE)); // -1
+    System.out.println(table.scoringChance("ooX", 0, 0, 0) > table.scoringChance("ooX", 0, 0, 2)); // true
+
+    // half innings played on a FuzzballGame with the same outcome chances
+    Random rng = new Random(1);
+    int halves = 200000;
+    long total = 0;
+    long scored = 0;
+    for (int h = 0; h < halves; h++)
+    {
+      FuzzballGame game = new FuzzballGame(1);
+      while (game.isTopOfInning())
+      {
+        double u = rng.nextDouble();
+        int o = 0;
+        while (o < RunExpectancy.OUTCOMES - 1 && u >= table.getChance(o))
+        {
+          u -= table.getChance(o);
+          o++;
+        }
+        if (o == RunExpectancy.BALL) game.ball();
+        else if (o == RunExpectancy.CALLED_STRIKE) game.strike(false);
+        else if (o == RunExpectancy.SWUNG_STRIKE) game.strike(true);
+        else if (o == RunExpectancy.CAUGHT_FLY) game.caughtFly();
+        else game.hit(new int[] { 0, 15, 150, 200, 250 }[o - RunExpectancy.FOUL]);
+      }
+      total += game.getTeam0Score();
+      scored += game.getTeam0Score() > 0 ? 1 : 0;
+    }
+    double expected = table.expectedRuns("ooo", 0, 0, 0);
+    double simulated = (double) total / halves;
+    System.out.printf("expected runs %.4f, simulated %.4f%n", expected, simulated);
+    System.out.println(Math.abs(expected - simulated) < 0.02 * expected); // true
+    System.out.printf("scoring chance %.4f, simulated %.4f%n", table.scoringChance("ooo", 0, 0, 0),
+        (double) scored / halves);
+    System.out.printf("oXX, 2 balls, 1 out: %.4f runs%n", table.expectedRuns("oXX", 2, 0, 1));
+  }
+}
@@ -0,0 +1,166 @@
+package hw2;
+
+/**
+ * The outcome of a FuzzballSeason run: for every team the wins, losses, ties
+ * and runs over all simulated seasons, how the season win totals and the runs
+ * per game are spread, and how often the team finished first.
+ *
+ * @author ADAM_HMADDI
+ */
+public class SeasonResult {
+
+	private final long seasons; // Number of seasons simulated
+	private final long games; // Number of games simulated
+	private final long elapsedNanos; // Wall clock time of the run
+	private final long[] wins; // Games won by each team
+	private final long[] losses; // Games lost by each team
+	private final long[] ties; // Games tied by each team
+	private final long[] runsFor; // Runs scored by each team
+	private final long[] runsAgainst; // Runs scored against each team
+	private final long[] firstPlaces; // Seasons each team finished first, sharing included
+	private final long[][] seasonWins; // Seasons ending with each number of wins, per team
+	private final long[][] gameRuns; // Games with each number of runs scored, per team
+
+	SeasonResult(long seasons, long games, long elapsedNanos, long[] wins, long[] losses, long[] ties, long[] runsFor,
+			long[] runsAgainst, long[] firstPlaces, long[][] seasonWins, long[][] gameRuns) {
+		this.seasons = seasons;
+		this.games = games;
+		this.elapsedNanos = elapsedNanos;
+		this.wins = wins;
+		this.losses = losses;
+		this.ties = ties;
+		this.runsFor = runsFor;
+		this.runsAgainst = runsAgainst;
+		this.firstPlaces = firstPlaces;
+		this.seasonWins = seasonWins;
+		this.gameRuns = gameRuns;
+	}
+
+	/**
+	 * Gets the number of seasons simulated.
+	 *
+	 * @return the number of seasons
+	 */
+	public long getSeasons() {
+		return seasons;
+	}
+
+	/**
+	 * Gets the number of games simulated over all seasons.
+	 *
+	 * @return the number of games
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * Gets the number of games simulated per second of wall clock time.
+	 *
+	 * @return the throughput
+	 */
+	public double getGamesPerSecond() {
+		return elapsedNanos <= 0 ? 0 : games * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Gets the number of teams.
+	 *
+	 * @return the number of teams
+	 */
+	public int getTeams() {
+		return wins.length;
+	}
+
+	/**
+	 * Gets the games won by a team over all seasons.
+	 *
+	 * @param team the team
+	 * @return the number of wins
+	 */
+	public long getWins(int team) {
+		return wins[team];
+	}
+
+	/**
+	 * Gets the games lost by a team over all seasons.
+	 *
+	 * @param team the team
+	 * @return the number of losses
+	 */
+	public long getLosses(int team) {
+		return losses[team];
+	}
+
+	/**
+	 * Gets the games a team ended tied over all seasons.
+	 *
+	 * @param team the team
+	 * @return the number of ties
+	 */
+	public long getTies(int team) {
+		return ties[team];
+	}
+
+	/**
+	 * Gets the runs a team scored over all seasons.
+	 *
+	 * @param team the team
+	 * @return the number of runs
+	 */
+	public long getRunsFor(int team) {
+		return runsFor[team];
+	}
+
+	/**
+	 * Gets the runs scored against a team over all seasons.
+	 *
+	 * @param team the team
+	 * @return the number of runs
+	 */
+	public long getRunsAgainst(int team) {
+		return runsAgainst[team];
+	}
+
+	/**
+	 * Gets the average number of wins of a team per season.
+	 *
+	 * @param team the team
+	 * @return the mean wins
+	 */
+	public double getMeanWins(int team) {
+		return seasons == 0 ? 0 : (double) wins[team] / seasons;
+	}
+
+	/**
+	 * Gets the share of seasons a team finished first, counting a shared
+	 * first place for every team in it.
+	 *
+	 * @param team the team
+	 * @return the share, between 0 and 1
+	 */
+	public double getFirstPlaceShare(int team) {
+		return seasons == 0 ? 0 : (double) firstPlaces[team] / seasons;
+	}
+
+	/**
+	 * Gets how many seasons a team ended with each number of wins.
+	 *
+	 * @param team the team
+	 * @return a copy of the counts, indexed by the number of wins
+	 */
+	public long[] getSeasonWinCounts(int team) {
+		return seasonWins[team].clone();
+	}
+
+	/**
+	 * Gets how many games a team scored each number of runs in. The last
+	 * count includes every game with that many runs or more.
+	 *
+	 * @param team the team
+	 * @return a copy of the counts, indexed by the number of runs
+	 */
+	public long[] getGameRunCounts(int team) {
+		return gameRuns[team].clone();
+	}
+}
@@ -0,0 +1,56 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import hw2.BattingProfile;
+import hw2.FuzzballSeason;
+import hw2.SeasonResult;
+
+/**
+ * Checks that a FuzzballSeason gives the same standings on any number of
+ * threads and that the counts add up, and reports how fast it runs.
+ */
+public class SeasonTests
+{
+  public static void main(String[] args)
+  {
+    BattingProfile strong = new BattingProfile(0.25, 0.18, 0.12, 0.15, 165, 60);
+    BattingProfile average = new BattingProfile(0.25, 0.20, 0.14, 0.15, 155, 60);
+    BattingProfile weak = new BattingProfile(0.25, 0.20, 0.16, 0.16, 145, 60);
+    FuzzballSeason season = new FuzzballSeason(new BattingProfile[] { strong, average, average, weak }, 9, 10);
+
+    ForkJoinPool one = new ForkJoinPool(1);
+    ForkJoinPool four = new ForkJoinPool(4);
+    SeasonResult a = season.run(one, 2000, 42);
+    SeasonResult b = season.run(four, 2000, 42);
+    boolean same = true;
+    for (int t = 0; t < a.getTeams(); t++)
+    {
+      same &= a.getWins(t) == b.getWins(t) && a.getRunsFor(t) == b.getRunsFor(t)
+          && Arrays.equals(a.getSeasonWinCounts(t), b.getSeasonWinCounts(t));
+    }
+    System.out.println(same); // true, the same seed gives the same standings
+
+    long wins = 0;
+    long losses = 0;
+    long ties = 0;
+    for (int t = 0; t < a.getTeams(); t++)
+    {
+      wins += a.getWins(t);
+      losses += a.getLosses(t);
+      ties += a.getTies(t);
+    }
+    System.out.println(wins == losses);                           // true
+    System.out.println(wins + losses + ties == 2 * a.getGames()); // true
+    System.out.println(a.getMeanWins(0) > a.getMeanWins(3));      // true, the strong team wins more
+
+    SeasonResult big = season.run(20000, 7);
+    System.out.printf("%d games, %.0f games/sec%n", big.getGames(), big.getGamesPerSecond());
+    for (int t = 0; t < big.getTeams(); t++)
+    {
+      System.out.printf("team %d: %.2f wins per season, first %.1f%%%n", t, big.getMeanWins(t),
+          100 * big.getFirstPlaceShare(t));
+    }
+    one.shutdown();
+    four.shutdown();
+  }
+}
@@ -0,0 +1,286 @@
+package hw2;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The chance that team 0 wins a Fuzzball game, and the chance of a tie, from
+ * any point of the game: inning, half, score difference, runners, count and
+ * outs. The whole table is worked out once when it is created, so a lookup
+ * after a pitch is a few array reads and no simulation.
+ *
+ * <p>
+ * A Fuzzball game always plays every half of every inning, so the outcome
+ * only depends on the runs still to come in each half. The RunExpectancy of
+ * each team gives the chance of every number of further runs from every
+ * situation of a half inning. Working backwards from the end of the game,
+ * where the leading team has won, the chances at the start of each half
+ * follow from the chances at the start of the next, and the chances in the
+ * middle of a half from the run chances of the situation. Score differences
+ * beyond MAX_LEAD either way are treated as MAX_LEAD. The chances are kept as
+ * floats, which halves the size of the table: about 1.4 MB each for wins
+ * and ties in a nine inning game.
+ *
+ * <p>
+ * Tables are kept by forTeams(), so every game with the same outcome chances
+ * and number of innings shares one table. Only the CACHED_TABLES tables used
+ * most recently are kept; a caller that needs more at once can keep its own
+ * tables made with the constructor.
+ *
+ * @author ADAM_HMADDI
+ */
+public class WinProbability {
+	/**
+	 * Largest lead either way that is told apart from a smaller one.
+	 */
+	public static final int MAX_LEAD = 40;
+
+	/**
+	 * Largest number of tables forTeams() keeps.
+	 */
+	public static final int CACHED_TABLES = 8;
+
+	private static final int LEADS = 2 * MAX_LEAD + 1; // Score differences in the table
+	private static final Map<Key, WinProbability> CACHE = new LinkedHashMap<Key, WinProbability>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, WinProbability> eldest) {
+			return size() > CACHED_TABLES;
+		}
+	}; // Tables made by forTeams(), least recently used first
+
+	private final int numInnings; // Innings per game
+	private final float[] wins; // Chance team 0 wins, per inning, half, lead and situation
+	private final float[] ties; // Chance of a tie, in the same order
+
+	/**
+	 * Works out the table for a game with the given outcome chances for each
+	 * team at bat.
+	 *
+	 * @param team0      the outcome chances of team 0, batting in the top
+	 * @param team1      the outcome chances of team 1, batting in the bottom
+	 * @param numInnings the number of innings per game
+	 */
+	public WinProbability(RunExpectancy team0, RunExpectancy team1, int numInnings) {
+		if (numInnings < 1 || numInnings > FuzzballState.MAX_INNINGS) {
+			throw new IllegalArgumentException(
+					"Number of innings must be between 1 and " + FuzzballState.MAX_INNINGS + ": " + numInnings);
+		}
+		this.numInnings = numInnings;
+		int size = numInnings * 2 * LEADS * RunExpectancy.SITUATIONS;
+		wins = new float[size];
+		ties = new float[size];
+
+		// Chances at the end of the half being worked on, by lead
+		double[] winAfter = new double[LEADS];
+		double[] tieAfter = new double[LEADS];
+		for (int lead = -MAX_LEAD; lead <= MAX_LEAD; lead++) {
+			winAfter[lead + MAX_LEAD] = lead > 0 ? 1 : 0;
+			tieAfter[lead + MAX_LEAD] = lead == 0 ? 1 : 0;
+		}
+		double[] winBefore = new double[LEADS];
+		double[] tieBefore = new double[LEADS];
+		for (int inning = numInnings; inning >= 1; inning--) {
+			for (int half = 1; half >= 0; half--) {
+				RunExpectancy batting = half == 0 ? team0 : team1;
+				int sign = half == 0 ? 1 : -1; // Runs by team 1 lower the lead of team 0
+				for (int s = 0; s < RunExpectancy.SITUATIONS; s++) {
+					for (int l = 0; l < LEADS; l++) {
+						double win = 0;
+						double tie = 0;
+						for (int k = 0; k <= RunExpectancy.MAX_RUNS; k++) {
+							double p = batting.runChance(s, k);
+							if (p == 0) {
+								continue;
+							}
+							int after = Math.max(0, Math.min(LEADS - 1, l + sign * k));
+							win += p * winAfter[after];
+							tie += p * tieAfter[after];
+						}
+						int index = index(inning, half, l, s);
+						wins[index] = (float) win;
+						ties[index] = (float) tie;
+						if (s == 0) {
+							winBefore[l] = win;
+							tieBefore[l] = tie;
+						}
+					}
+				}
+				double[] swap = winAfter;
+				winAfter = winBefore;
+				winBefore = swap;
+				swap = tieAfter;
+				tieAfter = tieBefore;
+				tieBefore = swap;
+			}
+		}
+	}
+
+	/**
+	 * Gets the shared table for the given outcome chances and number of
+	 * innings, working it out if it is not kept. The table is worked out
+	 * outside the lock, so other callers are not held up meanwhile.
+	 *
+	 * @param team0      the outcome chances of team 0
+	 * @param team1      the outcome chances of team 1
+	 * @param numInnings the number of innings per game
+	 * @return the table
+	 */
+	public static WinProbability forTeams(RunExpectancy team0, RunExpectancy team1, int numInnings) {
+		Key key = new Key(team0, team1, numInnings);
+		synchronized (CACHE) {
+			WinProbability table = CACHE.get(key);
+			if (table != null) {
+				return table;
+			}
+		}
+		WinProbability table = new WinProbability(team0, team1, numInnings);
+		synchronized (CACHE) {
+			WinProbability other = CACHE.putIfAbsent(key, table);
+			return other != null ? other : table;
+		}
+	}
+
+	/**
+	 * Gets the number of innings per game of the table.
+	 *
+	 * @return the number of innings
+	 */
+	public int getNumInnings() {
+		return numInnings;
+	}
+
+	/**
+	 * Gets the chance that team 0 wins the given game from where it is now.
+	 *
+	 * @param game the game, with the number of innings of the table
+	 * @return the chance, between 0 and 1
+	 */
+	public double team0Wins(FuzzballGame game) {
+		return team0Wins(game.getPackedState());
+	}
+
+	/**
+	 * Gets the chance that team 0 wins from the given packed state.
+	 *
+	 * @param state the packed FuzzballState, with the number of innings of the
+	 *              table
+	 * @return the chance, between 0 and 1
+	 */
+	public double team0Wins(long state) {
+		if (FuzzballState.gameEnded(check(state))) {
+			return FuzzballState.getTeam0Score(state) > FuzzballState.getTeam1Score(state) ? 1 : 0;
+		}
+		return wins[index(state)];
+	}
+
+	/**
+	 * Gets the chance that the given game ends tied.
+	 *
+	 * @param game the game, with the number of innings of the table
+	 * @return the chance, between 0 and 1
+	 */
+	public double tie(FuzzballGame game) {
+		return tie(game.getPackedState());
+	}
+
+	/**
+	 * Gets the chance that the game ends tied from the given packed state.
+	 *
+	 * @param state the packed FuzzballState, with the number of innings of the
+	 *              table
+	 * @return the chance, between 0 and 1
+	 */
+	public double tie(long state) {
+		if (FuzzballState.gameEnded(check(state))) {
+			return FuzzballState.getTeam0Score(state) == FuzzballState.getTeam1Score(state) ? 1 : 0;
+		}
+		return ties[index(state)];
+	}
+
+	/**
+	 * Gets the chance that team 1 wins the given game from where it is now.
+	 *
+	 * @param game the game, with the number of innings of the table
+	 * @return the chance, between 0 and 1
+	 */
+	public double team1Wins(FuzzballGame game) {
+		return team1Wins(game.getPackedState());
+	}
+
+	/**
+	 * Gets the chance that team 1 wins from the given packed state.
+	 *
+	 * @param state the packed FuzzballState, with the number of innings of the
+	 *              table
+	 * @return the chance, between 0 and 1
+	 */
+	public double team1Wins(long state) {
+		return Math.max(0, 1 - team0Wins(state) - tie(state));
+	}
+
+	/*
+	 * Makes sure a packed state has the number of innings of the table.
+	 */
+	private long check(long state) {
+		if (FuzzballState.getNumInnings(state) != numInnings) {
+			throw new IllegalArgumentException("Table is for " + numInnings + " innings, game has "
+					+ FuzzballState.getNumInnings(state));
+		}
+		return state;
+	}
+
+	/*
+	 * Gets the table entry of a packed state of a game still in progress.
+	 */
+	private int index(long state) {
+		int lead = FuzzballState.getTeam0Score(state) - FuzzballState.getTeam1Score(state);
+		int l = Math.max(-MAX_LEAD, Math.min(MAX_LEAD, lead)) + MAX_LEAD;
+		int half = FuzzballState.isTopOfInning(state) ? 0 : 1;
+		return index(FuzzballState.getInning(state), half, l, RunExpectancy.situationOf(state));
+	}
+
+	private static int index(int inning, int half, int lead, int situation) {
+		return (((inning - 1) * 2 + half) * LEADS + lead) * RunExpectancy.SITUATIONS + situation;
+	}
+
+	/*
+	 * The outcome chances of both teams and the number of innings, as the key
+	 * of the shared tables.
+	 */
+	private static final class Key {
+		private final double[] team0;
+		private final double[] team1;
+		private final int numInnings;
+
+		Key(RunExpectancy team0, RunExpectancy team1, int numInnings) {
+			this.team0 = chances(team0);
+			this.team1 = chances(team1);
+			this.numInnings = numInnings;
+		}
+
+		private static double[] chances(RunExpectancy table) {
+			double[] chances = new double[RunExpectancy.OUTCOMES];
+			for (int o = 0; o < chances.length; o++) {
+				chances[o] = table.getChance(o);
+			}
+			return chances;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key o = (Key) obj;
+			return numInnings == o.numInnings && Arrays.equals(team0, o.team0) && Arrays.equals(team1, o.team1);
+		}
+
+		@Override
+		public int hashCode() {
+			return (Arrays.hashCode(team0) * 31 + Arrays.hashCode(team1)) * 31 + numInnings;
+		}
+	}
+}
@@ -0,0 +1,130 @@
+import java.util.Random;
+
+import hw2.BattingProfile;
+import hw2.FuzzballGame;
+import hw2.FuzzballState;
+import hw2.RunExpectancy;
+import hw2.WinProbability;
+
+/**
+ * Checks the win probability table against the game: the chance after every
+ * pitch must agree with the chances one pitch later, and the chance at the
+ * start must match simulated games.
+ */
+public class WinProbabilityTests
+{
+  public static void main(String[] args)
+  {
+    RunExpectancy team0 = RunExpectancy.forProfile(new BattingProfile(0.25, 0.18, 0.12, 0.15, 165, 60));
+    RunExpectancy team1 = RunExpectancy.forProfile(new BattingProfile(0.25, 0.20, 0.14, 0.15, 155, 60));
+
+    // the run chances add up to 1 and agree with the scoring chance and expected runs
+    double worst = 0;
+    for (int s = 0; s < RunExpectancy.SITUATIONS; s++)
+    {
+      double sum = 0;
+      double mean = 0;
+      for (int k = 0; k <= RunExpectancy.MAX_RUNS; k++)
+      {
+        sum += team0.runChance(s, k);
+        mean += k * team0.runChance(s, k);
+      }
+      worst = Math.max(worst, Math.abs(sum - 1));
+      worst = Math.max(worst, Math.abs(team0.runChance(s, 0) - (1 - team0.scoringChance(s))));
+      worst = Math.max(worst, Math.abs(mean - team0.expectedRuns(s)));
+    }
+    System.out.println(worst < 1e-9); // true
+
+    WinProbability table = WinProbability.forTeams(team0, team1, 9);
+    System.out.println(table == WinProbability.forTeams(team0, team1, 9)); // true, the table is shared
+
+    // play games and check every position against the positions one pitch later
+    Random rng = new Random(3);
+    int games = 100000;
+    int team0Won = 0;
+    int tied = 0;
+    double worstStep = 0;
+    for (int g = 0; g < games; g++)
+    {
+      FuzzballGame game = new FuzzballGame(9);
+      while (!game.gameEnded())
+      {
+        RunExpectancy batting = game.isTopOfInning() ? team0 : team1;
+        if (g < 200)
+        {
+          long state = game.getPackedState();
+          double before = table.team0Wins(state);
+          double after = 0;
+          for (int o = 0; o < RunExpectancy.OUTCOMES; o++)
+          {
+            after += batting.getChance(o) * table.team0Wins(play(state, o));
+          }
+          worstStep = Math.max(worstStep, Math.abs(before - after));
+        }
+        play(game, draw(batting, rng));
+      }
+      if (game.getTeam0Score() > game.getTeam1Score()) team0Won++;
+      if (game.getTeam0Score() == game.getTeam1Score()) tied++;
+    }
+    System.out.println(worstStep < 1e-5); // true
+    FuzzballGame start = new FuzzballGame(9);
+    System.out.printf("team 0 wins %.4f, simulated %.4f%n", table.team0Wins(start), (double) team0Won / games);
+    System.out.printf("tie %.4f, simulated %.4f%n", table.tie(start), (double) tied / games);
+    // the simulated chance is off by about its standard error, so allow four of them
+    double p = table.team0Wins(start);
+    double tolerance = 4 * Math.sqrt(p * (1 - p) / games);
+    System.out.printf("within %.4f: %b%n", tolerance, Math.abs(p - (double) team0Won / games) < tolerance); // true
+    System.out.println(Math.abs(table.team1Wins(start.getPackedState()) + p + table.tie(start) - 1) < 1e-6); // true
+
+    // only the most recently used tables are kept
+    for (int innings = 1; innings <= WinProbability.CACHED_TABLES; innings++)
+    {
+      WinProbability.forTeams(team0, team1, innings);
+    }
+    System.out.println(table != WinProbability.forTeams(team0, team1, 9)); // true, the table was dropped
+    System.out.println(WinProbability.forTeams(team0, team1, 1) == WinProbability.forTeams(team0, team1, 1)); // true
+
+    // lookups
+    FuzzballGame game = new FuzzballGame(9);
+    game.hit(150);
+    game.ball();
+    double sum = 0;
+    long t0 = System.nanoTime();
+    for (int i = 0; i < 10000000; i++)
+    {
+      sum += table.team0Wins(game);
+    }
+    long t1 = System.nanoTime();
+    System.out.printf("%.1f ns per lookup (%.3f)%n", (t1 - t0) / 1e7, sum / 1e7);
+  }
+
+  private static int draw(RunExpectancy table, Random rng)
+  {
+    double u = rng.nextDouble();
+    int o = 0;
+    while (o < RunExpectancy.OUTCOMES - 1 && u >= table.getChance(o))
+    {
+      u -= table.getChance(o);
+      o++;
+    }
+    return o;
+  }
+
+  private static void play(FuzzballGame game, int outcome)
+  {
+    if (outcome == RunExpectancy.BALL) game.ball();
+    else if (outcome == RunExpectancy.CALLED_STRIKE) game.strike(false);
+    else if (outcome == RunExpectancy.SWUNG_STRIKE) game.strike(true);
+    else if (outcome == RunExpectancy.CAUGHT_FLY) game.caughtFly();
+    else game.hit(new int[] { 0, 15, 150, 200, 250 }[outcome - RunExpectancy.FOUL]);
+  }
+
+  private static long play(long state, int outcome)
+  {
+    if (outcome == RunExpectancy.BALL) return FuzzballState.ball(state);
+    if (outcome == RunExpectancy.CALLED_STRIKE) return FuzzballState.strike(state, false);
+    if (outcome == RunExpectancy.SWUNG_STRIKE) return FuzzballState.strike(state, true);
+    if (outcome == RunExpectancy.CAUGHT_FLY) return FuzzballState.caughtFly(state);
+    return FuzzballState.hit(state, new int[] { 0, 15, 150, 200, 250 }[outcome - RunExpectancy.FOUL]);
+  }
+}